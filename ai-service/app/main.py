@@ -1,9 +1,11 @@
 import json
+import logging
 import os
+import time
 from typing import Any, Dict, List, Optional
 
 import psycopg
-from fastapi import FastAPI, HTTPException
+from fastapi import FastAPI, HTTPException, Request
 from pydantic import BaseModel
 
 from langchain_upstage import ChatUpstage, UpstageEmbeddings
@@ -11,6 +13,20 @@ from langchain_postgres import PGVector
 
 
 app = FastAPI(title="approval-ops-agent ai-service")
+log = logging.getLogger("uvicorn.error")
+
+
+@app.middleware("http")
+async def trace_context(request: Request, call_next):
+    # backend가 보낸 W3C traceparent(00-<trace-id>-<span-id>-<flags>)를 처리 시간과 함께 남김
+    # → backend span 파일 / audit_log.trace_id 와 trace-id 로 대조
+    traceparent = request.headers.get("traceparent")
+    t0 = time.perf_counter()
+    response = await call_next(request)
+    if traceparent:
+        log.info("%s %s %s traceparent=%s %.1fms", request.method, request.url.path, response.status_code,
+                 traceparent, (time.perf_counter() - t0) * 1000)
+    return response
 
 
 # ---- env ----
@@ -159,6 +175,7 @@ def make_plan(req: PlanRequest) -> Dict[str, Any]:
         "5) 근거(context)가 있으면 그 근거를 기반으로 계획을 세워\n"
         "6) ticket.createMany 도구를 사용할 때는 count/titlePrefix 방식 대신 items 배열로 정확히 3개를 만들고,"
         "   각 items의 title/desc가 '원인분석/조치/검증'으로 서로 다르게 드러나게 작성해.\n"
+        "7) 다른 step 결과가 필요한 step만 dependsOn에 선행 step id를 적어. 서로 독립인 step은 dependsOn을 []로 두면 병렬 실행돼.\n"
     )
 
     user = (
@@ -173,7 +190,7 @@ def make_plan(req: PlanRequest) -> Dict[str, Any]:
         '  "version": "1",\n'
         '  "approval_required": true|false,\n'
         '  "steps": [\n'
-        '    {"tool": "...", "args": {...}, "why": "한 줄 근거"}\n'
+        '    {"id": 1, "tool": "...", "args": {...}, "dependsOn": [선행 step id...], "why": "한 줄 근거"}\n'
         "  ]\n"
         "}\n"
     )
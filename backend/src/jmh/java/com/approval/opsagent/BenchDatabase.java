@@ -0,0 +1,76 @@
+package com.approval.opsagent;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * e2e 벤치마크용 DB
+ * - -Pjmh.jdbc.url 이 있으면 해당 Postgres, 없으면 embedded Postgres
+ * - 스키마가 없으면 db/migration/V*.sql 적용
+ */
+public final class BenchDatabase implements AutoCloseable {
+
+    private final EmbeddedPostgres pg;
+    private final HikariDataSource ds;
+
+    private BenchDatabase(EmbeddedPostgres pg, HikariDataSource ds) {
+        this.pg = pg;
+        this.ds = ds;
+    }
+
+    public static BenchDatabase open(int poolSize) throws Exception {
+        String url = System.getProperty("jmh.jdbc.url");
+        String user = System.getProperty("jmh.jdbc.username", "postgres");
+        String pass = System.getProperty("jmh.jdbc.password", "postgres");
+        EmbeddedPostgres pg = null;
+        if (url == null || url.isBlank()) {
+            pg = EmbeddedPostgres.builder().start();
+            url = pg.getJdbcUrl("postgres", "postgres");
+        }
+        migrate(url, user, pass);
+
+        HikariDataSource ds = new HikariDataSource();
+        ds.setJdbcUrl(url);
+        ds.setUsername(user);
+        ds.setPassword(pass);
+        ds.setMaximumPoolSize(poolSize);
+        return new BenchDatabase(pg, ds);
+    }
+
+    public HikariDataSource dataSource() {
+        return ds;
+    }
+
+    /**
+     * db/migration/V*.sql 을 버전 순으로 실행 (work_request 가 이미 있으면 건너뜀)
+     * jmh 단일 jar에서는 Flyway DB 플러그인의 ServiceLoader 등록이 합쳐지지 않아서 직접 실행
+     */
+    private static void migrate(String url, String user, String pass) throws Exception {
+        try (Connection con = DriverManager.getConnection(url, user, pass); Statement st = con.createStatement()) {
+            try (ResultSet rs = st.executeQuery("SELECT to_regclass('work_request') IS NOT NULL")) {
+                if (rs.next() && rs.getBoolean(1)) return;
+            }
+            Resource[] files = new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/V*__*.sql");
+            Arrays.sort(files, Comparator.comparingInt(r -> Integer.parseInt(r.getFilename().substring(1, r.getFilename().indexOf("__")))));
+            for (Resource f : files) {
+                st.execute(f.getContentAsString(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        ds.close();
+        if (pg != null) pg.close();
+    }
+}
@@ -0,0 +1,140 @@
+package com.approval.opsagent;
+
+import com.approval.opsagent.ai.AiServiceClient;
+import com.approval.opsagent.ai.AiServiceProperties;
+import com.approval.opsagent.config.JacksonConfig;
+import com.approval.opsagent.core.*;
+import com.approval.opsagent.core.model.ExecutionResult;
+import com.approval.opsagent.core.tools.TicketCreateManyTool;
+import com.approval.opsagent.core.tools.WikiCreatePageTool;
+import com.approval.opsagent.plan.LocalPlanProperties;
+import com.approval.opsagent.plan.SimplePlanGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * create → plan → approve → execute 전체 경로 + 상세 조회
+ * - DB: -Pjmh.jdbc.url 이 있으면 해당 Postgres, 없으면 embedded Postgres (스키마가 없으면 V*.sql 적용)
+ * - AI: 고정 plan을 돌려주는 로컬 stub HTTP 서버 (LLM 지연은 측정 대상 아님)
+ * - plan 캐시는 끔 (매번 AI 호출 → 응답 파싱 → 검증 → 저장 경로를 측정)
+ * - 서비스는 직접 조립 (jmh 단일 jar에서는 모듈별 auto-configuration 목록이 합쳐지지 않아 Boot 컨텍스트를 못 띄움)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PipelineBenchmark {
+
+    private static final String STUB_PLAN = """
+{"plan":{"version":"1","approval_required":true,"steps":[
+ {"id":1,"tool":"ticket.createMany","args":{"count":5,"titlePrefix":"안전점검","desc":"점검 항목 확인"},"dependsOn":[]},
+ {"id":2,"tool":"ticket.createMany","args":{"items":[{"title":"원인분석","desc":"로그/지표 정리"}]},"dependsOn":[]},
+ {"id":3,"tool":"wiki.createPage","args":{"title":"점검 요약"},"dependsOn":[1,2]}
+]},"sources":[]}
+""";
+
+    private BenchDatabase db;
+    private HttpServer ai;
+    private AuditWriter audit;
+    private AiServiceClient aiClient;
+
+    private WorkRepo repo;
+    private PlanningService planning;
+    private ExecutionService exec;
+    private long detailId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        db = BenchDatabase.open(10);
+
+        byte[] body = STUB_PLAN.getBytes(StandardCharsets.UTF_8);
+        // 기본값(Nagle on)이면 delayed ACK와 겹쳐 응답마다 ~40ms 지연이 생겨 측정값을 덮어버림
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        ai = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ai.createContext("/plan", ex -> {
+            ex.getRequestBody().readAllBytes();
+            ex.getResponseHeaders().add("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, body.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        ai.start();
+
+        HikariDataSource ds = db.dataSource();
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        PlatformTransactionManager tx = new DataSourceTransactionManager(ds);
+        ObjectMapper om = JacksonConfig.newObjectMapper();
+        MeterRegistry meters = new SimpleMeterRegistry();
+
+        repo = new WorkRepo(jdbc, RequestCache.disabled());
+        audit = new AuditWriter(repo, new AuditProperties(), Tracer.NOOP);
+        audit.start();
+
+        AiServiceProperties aiProps = new AiServiceProperties();
+        aiProps.setBaseUrl("http://127.0.0.1:" + ai.getAddress().getPort());
+        aiClient = new AiServiceClient(aiProps, om, meters, Tracer.NOOP, Propagator.NOOP);
+
+        PlanCacheProperties cacheProps = new PlanCacheProperties();
+        cacheProps.setEnabled(false);
+        PlanCache cache = new PlanCache(cacheProps, new PlanCacheRepo(jdbc), om);
+
+        ToolRegistry registry = new ToolRegistry(List.of(
+                transactional(new TicketCreateManyTool(repo), tx),
+                new WikiCreatePageTool(repo)), new ToolProperties(), meters, Tracer.NOOP);
+        planning = new PlanningService(repo, new SimplePlanGenerator(om), aiClient, cache, audit, om, meters, Tracer.NOOP,
+                new PlanBatchProperties(), List.of(), new LocalPlanProperties(), new PlanFallbackProperties(), registry, new PlanAsyncProperties());
+        exec = new ExecutionService(repo, new ExecutionStepRepo(jdbc), registry, audit, new ExecutionProperties(), om, meters, Tracer.NOOP);
+
+        detailId = planApproveExecute().requestId();
+    }
+
+    // @Transactional 이 붙은 tool은 운영과 같게 트랜잭션 프록시로 감쌈
+    @SuppressWarnings("unchecked")
+    private static <T> T transactional(T target, PlatformTransactionManager tx) {
+        ProxyFactory pf = new ProxyFactory(target);
+        pf.setProxyTargetClass(true);
+        pf.addAdvice(new TransactionInterceptor((TransactionManager) tx, new AnnotationTransactionAttributeSource()));
+        return (T) pf.getProxy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (exec != null) exec.destroy();
+        if (aiClient != null) aiClient.destroy();
+        if (audit != null) audit.stop();
+        if (ai != null) ai.stop(0);
+        if (db != null) db.close();
+    }
+
+    @Benchmark
+    public ExecutionResult planApproveExecute() throws Exception {
+        long id = repo.create("bench", "안전점검", "현장 안전점검 티켓 만들고 요약 문서 작성");
+        planning.plan("bench", id);
+        repo.approve(id, "bench", true, null);
+        return exec.execute("bench", id);
+    }
+
+    @Benchmark
+    public String detail() {
+        return repo.detailJson(detailId, true).orElseThrow();
+    }
+}
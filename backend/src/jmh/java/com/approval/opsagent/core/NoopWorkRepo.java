@@ -0,0 +1,52 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.core.model.Ticket;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/** DB 없이 tool 본문만 측정하기 위한 WorkRepo (쓰기는 버리고, tickets는 고정 목록 반환) */
+public class NoopWorkRepo extends WorkRepo {
+    private final List<Ticket> tickets;
+    public long written;
+
+    public NoopWorkRepo(int ticketCount) {
+        super(new JdbcTemplate(), RequestCache.disabled());
+        List<Ticket> list = new ArrayList<>(ticketCount);
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 1; i <= ticketCount; i++) {
+            list.add(new Ticket(i, 1L, "운영 작업 #" + i, "작업 내용 (단계 " + i + ")", now));
+        }
+        this.tickets = List.copyOf(list);
+    }
+
+    @Override
+    public int insertTickets(long requestId, List<NewTicket> tickets) {
+        written += tickets.size();
+        return tickets.size();
+    }
+
+    @Override
+    public Set<String> existingTicketKeys(List<String> keys) {
+        return Set.of();
+    }
+
+    @Override
+    public int reserveTicketNumbers(long requestId, int n) {
+        return 1;
+    }
+
+    @Override
+    public boolean insertWiki(long requestId, String title, String body, String idempotencyKey) {
+        written += body.length();
+        return true;
+    }
+
+    @Override
+    public List<Ticket> tickets(long requestId) {
+        return tickets;
+    }
+}
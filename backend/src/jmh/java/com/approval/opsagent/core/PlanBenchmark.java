@@ -0,0 +1,135 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.ai.dto.PlanRequestPayload;
+import com.approval.opsagent.config.JacksonConfig;
+import com.approval.opsagent.core.model.Plan;
+import com.approval.opsagent.core.model.PlanStep;
+import com.approval.opsagent.core.tools.TicketCreateManyArgs;
+import com.approval.opsagent.core.tools.TicketCreateManyTool;
+import com.approval.opsagent.core.tools.WikiCreatePageArgs;
+import com.approval.opsagent.core.tools.WikiCreatePageTool;
+import com.approval.opsagent.plan.LocalPlanProperties;
+import com.approval.opsagent.plan.Planner;
+import com.approval.opsagent.plan.RulePlanner;
+import com.approval.opsagent.plan.SimplePlanGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * plan 처리 구간 (DB/AI 호출 없음)
+ * - validatePlan / plan JSON parse·serialize / step args 변환 / ToolRegistry.get / SimplePlanGenerator / RulePlanner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlanBenchmark {
+
+    @Param({"3", "20"})
+    public int steps;
+
+    private ObjectMapper om;
+    private Set<String> allowedTools;
+    private ToolRegistry registry;
+    private SimplePlanGenerator generator;
+    private RulePlanner rules;
+
+    private Plan plan;
+    private String planJson;
+    private JsonNode ticketArgs;
+
+    @Setup
+    public void setup() throws Exception {
+        om = JacksonConfig.newObjectMapper();
+        NoopWorkRepo repo = new NoopWorkRepo(10);
+        registry = new ToolRegistry(List.of(new TicketCreateManyTool(repo), new WikiCreatePageTool(repo)),
+                new ToolProperties(), new SimpleMeterRegistry(), Tracer.NOOP);
+        allowedTools = registry.specs().stream().map(PlanRequestPayload.ToolSpec::name).collect(Collectors.toSet());
+        generator = new SimplePlanGenerator(om);
+
+        LocalPlanProperties.Rule rule = new LocalPlanProperties.Rule();
+        rule.setName("safety-check-tickets");
+        rule.setPattern("안전\\s*점검.*티켓|티켓.*안전\\s*점검");
+        rule.setTicketDesc("점검 항목: 보호구, 추락방지, 전기, 장비, 화재");
+        rule.setWikiTitle("{title} 요약");
+        rule.setWikiBody("요청 요약:\n- {input}\n\n생성 내용:\n- 안전점검 티켓 {count}개 생성");
+        LocalPlanProperties localProps = new LocalPlanProperties();
+        localProps.setRules(List.of(rule));
+        rules = new RulePlanner(localProps, om);
+
+        // 앞쪽 절반은 병렬 ticket step, 마지막 wiki step이 전부에 의존
+        List<PlanStep> list = new ArrayList<>(steps);
+        List<String> ids = new ArrayList<>();
+        for (int i = 1; i < steps; i++) {
+            String id = String.valueOf(i);
+            ids.add(id);
+            list.add(new PlanStep(id, "ticket.createMany",
+                    om.valueToTree(new TicketCreateManyArgs(null,
+                            List.of(new TicketCreateManyArgs.Item("점검 " + i, "보호구/추락방지/전기 확인")),
+                            null, null, null)),
+                    List.of(), "점검 항목별 티켓"));
+        }
+        list.add(new PlanStep(String.valueOf(steps), "wiki.createPage",
+                om.valueToTree(new WikiCreatePageArgs("점검 요약", "")), ids, "요약 문서"));
+
+        plan = new Plan("1", "안전점검", true, list, List.of("승인 전 실행 금지"));
+        planJson = om.writeValueAsString(plan);
+        ticketArgs = list.get(0).args();
+    }
+
+    @Benchmark
+    public void validatePlan() {
+        PlanningService.validatePlan(plan, allowedTools);
+    }
+
+    @Benchmark
+    public Plan parsePlan() throws Exception {
+        return om.readValue(planJson, Plan.class);
+    }
+
+    /** 비교용: 예전 방식(JsonNode 트리) */
+    @Benchmark
+    public JsonNode parsePlanTree() throws Exception {
+        return om.readTree(planJson);
+    }
+
+    @Benchmark
+    public String serializePlan() throws Exception {
+        return om.writeValueAsString(plan);
+    }
+
+    @Benchmark
+    public TicketCreateManyArgs convertStepArgs() throws Exception {
+        return om.treeToValue(ticketArgs, TicketCreateManyArgs.class);
+    }
+
+    @Benchmark
+    public PlanDag buildDag() {
+        return PlanDag.of(plan.steps());
+    }
+
+    @Benchmark
+    public Tool<?> registryGet() {
+        return registry.get("wiki.createPage");
+    }
+
+    @Benchmark
+    public String makePlanJson() {
+        return generator.makePlanJson("이번 주 안전점검", "현장 안전점검 티켓 5개 만들고 요약 문서 작성");
+    }
+
+    /** 규칙 매칭 + 템플릿 plan 생성 (AI 호출 대신 쓰는 경로) */
+    @Benchmark
+    public Optional<Planner.Result> rulePlan() {
+        return rules.plan("이번 주 안전점검", "현장 안전점검 티켓 5개 만들고 요약 문서 작성");
+    }
+}
@@ -0,0 +1,65 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.BenchDatabase;
+import com.approval.opsagent.core.model.RequestFilter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 테이블 크기(1만 → 30만 건)에 따른 GET /api/requests 페이지 조회 시간
+ * - keyset 페이지라서 rows 가 30배 커져도 score 가 크게 늘지 않아야 함 (OFFSET/전체 조회였다면 선형 증가)
+ * - deepPage: 테이블 중간쯤 cursor 부터 읽는 페이지
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorkRepoListBenchmark {
+
+    private static final String BENCH_REQUESTER = "bench-list";
+
+    @Param({"10000", "100000", "300000"})
+    public int rows;
+
+    private BenchDatabase db;
+    private JdbcTemplate jdbc;
+    private WorkRepo repo;
+    private RequestFilter filter;
+    private long deepCursor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        db = BenchDatabase.open(1);
+        jdbc = new JdbcTemplate(db.dataSource());
+        repo = new WorkRepo(jdbc, RequestCache.disabled());
+
+        jdbc.update("DELETE FROM work_request WHERE requester=?", BENCH_REQUESTER);
+        jdbc.update("""
+          INSERT INTO work_request(requester, title, input_text, status)
+          SELECT ?, 'bench #' || g, repeat('x', 200), (ARRAY['DRAFT','PLANNED','APPROVED','DONE','FAILED'])[1 + g % 5]
+          FROM generate_series(1, ?) g
+        """, BENCH_REQUESTER, rows);
+        jdbc.execute("ANALYZE work_request");
+
+        Long maxId = jdbc.queryForObject("SELECT max(id) FROM work_request", Long.class);
+        deepCursor = maxId - rows / 2;
+        filter = new RequestFilter("DONE", null, null, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (jdbc != null) jdbc.update("DELETE FROM work_request WHERE requester=?", BENCH_REQUESTER);
+        if (db != null) db.close();
+    }
+
+    @Benchmark
+    public Object firstPage() {
+        return repo.list(filter, null, 50);
+    }
+
+    @Benchmark
+    public Object deepPage() {
+        return repo.list(filter, deepCursor, 50);
+    }
+}
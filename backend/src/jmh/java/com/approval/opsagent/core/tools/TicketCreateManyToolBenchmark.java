@@ -0,0 +1,60 @@
+package com.approval.opsagent.core.tools;
+
+import com.approval.opsagent.BenchDatabase;
+import com.approval.opsagent.core.RequestCache;
+import com.approval.opsagent.core.WorkRepo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ticket.createMany 의 DB 쓰기 포함 비용 (count 1 → 1,000)
+ * - 티켓 1개당 비용 = score / count, count 가 커질수록 줄거나 같아야 함 (batch INSERT 한 번 + 트랜잭션 한 번)
+ * - 연결 1개(pool 1)를 계속 사용, @Transactional 프록시 대신 같은 경계를 TransactionTemplate 으로 재현
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TicketCreateManyToolBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int count;
+
+    private BenchDatabase db;
+    private JdbcTemplate jdbc;
+    private TicketCreateManyTool tool;
+    private TransactionTemplate tx;
+    private TicketCreateManyArgs args;
+    private long requestId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        db = BenchDatabase.open(1);
+        jdbc = new JdbcTemplate(db.dataSource());
+        WorkRepo repo = new WorkRepo(jdbc, RequestCache.disabled());
+        tool = new TicketCreateManyTool(repo);
+        tx = new TransactionTemplate(new DataSourceTransactionManager(db.dataSource()));
+        args = new TicketCreateManyArgs(null, null, count, "bench", "bench");
+        requestId = repo.create("bench", "ticket bench", "ticket bench");
+    }
+
+    // iteration 마다 만든 티켓을 지워서 ticket 테이블 크기가 측정값에 섞이지 않게 함
+    @TearDown(Level.Iteration)
+    public void clearTickets() {
+        jdbc.update("DELETE FROM ticket WHERE request_id=?", requestId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (jdbc != null) jdbc.update("DELETE FROM work_request WHERE id=?", requestId);
+        if (db != null) db.close();
+    }
+
+    @Benchmark
+    public Object createMany() {
+        return tx.execute(s -> tool.run(requestId, null, args));
+    }
+}
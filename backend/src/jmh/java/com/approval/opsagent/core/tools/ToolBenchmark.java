@@ -0,0 +1,58 @@
+package com.approval.opsagent.core.tools;
+
+import com.approval.opsagent.core.NoopWorkRepo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** tool 본문 (DB 쓰기는 NoopWorkRepo로 대체) */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ToolBenchmark {
+
+    private TicketCreateManyTool ticketTool;
+    private WikiCreatePageTool wikiTool;
+
+    private TicketCreateManyArgs itemsArgs;
+    private TicketCreateManyArgs countArgs;
+    private WikiCreatePageArgs wikiWithBody;
+    private WikiCreatePageArgs wikiAutoBody;
+
+    @Setup
+    public void setup() {
+        NoopWorkRepo repo = new NoopWorkRepo(20);
+        ticketTool = new TicketCreateManyTool(repo);
+        wikiTool = new WikiCreatePageTool(repo);
+
+        List<TicketCreateManyArgs.Item> items = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) items.add(new TicketCreateManyArgs.Item("원인분석 " + i, "로그/지표/재현 조건 정리"));
+        itemsArgs = new TicketCreateManyArgs("items", items, null, null, null);
+        countArgs = new TicketCreateManyArgs("count", null, 20, "이번 주 안전점검", "점검 항목 확인");
+        wikiWithBody = new WikiCreatePageArgs("배포 후 오류 대응", "## 변경 배경\n- ...\n## 롤백\n- ...");
+        wikiAutoBody = new WikiCreatePageArgs("운영 요약", "");
+    }
+
+    @Benchmark
+    public Object ticketItems() {
+        return ticketTool.run(1L, null, itemsArgs);
+    }
+
+    @Benchmark
+    public Object ticketCount() {
+        return ticketTool.run(1L, null, countArgs);
+    }
+
+    @Benchmark
+    public Object wikiWithBody() {
+        return wikiTool.run(1L, null, wikiWithBody);
+    }
+
+    /** body가 비어 있으면 티켓 목록으로 본문 생성 */
+    @Benchmark
+    public Object wikiAutoBody() {
+        return wikiTool.run(1L, null, wikiAutoBody);
+    }
+}
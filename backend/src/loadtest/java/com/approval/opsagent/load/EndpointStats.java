@@ -0,0 +1,58 @@
+package com.approval.opsagent.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** endpoint 하나의 지연 분포(HDR, µs 단위) + 성공/실패 건수 */
+final class EndpointStats {
+    private static final long MAX_US = TimeUnit.MINUTES.toMicros(10);
+
+    final String name;
+    private final Histogram histogram = new ConcurrentHistogram(MAX_US, 3);
+    private final AtomicLong ok = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, boolean success) {
+        histogram.recordValue(Math.min(MAX_US, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos))));
+        (success ? ok : errors).incrementAndGet();
+    }
+
+    Map<String, Object> summary(double elapsedSec) {
+        long n = ok.get() + errors.get();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("count", n);
+        m.put("errors", errors.get());
+        m.put("errorRate", n == 0 ? 0.0 : (double) errors.get() / n);
+        m.put("throughputPerSec", elapsedSec <= 0 ? 0.0 : ok.get() / elapsedSec);
+        m.put("p50Ms", ms(histogram.getValueAtPercentile(50)));
+        m.put("p90Ms", ms(histogram.getValueAtPercentile(90)));
+        m.put("p99Ms", ms(histogram.getValueAtPercentile(99)));
+        m.put("p999Ms", ms(histogram.getValueAtPercentile(99.9)));
+        m.put("maxMs", ms(histogram.getMaxValue()));
+        return m;
+    }
+
+    /** HdrHistogram 표준 percentile 분포 파일 (.hgrm, 단위 ms) → HdrHistogram plotter로 그래프 */
+    void writeHgrm(Path dir) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(dir.resolve(name + ".hgrm").toFile()))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double ms(long us) {
+        return Math.round(us / 10.0) / 100.0;
+    }
+}
@@ -0,0 +1,263 @@
+package com.approval.opsagent.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * REST API 부하 테스트 (open-loop)
+ * - corpus(JSONL, 한 줄에 {"title","body"|"inputText"})를 순서대로 돌려가며
+ *   create → plan → approve → execute 한 건(flow)을 rate/s 로 시작
+ * - 응답이 느려져도 시작 간격은 그대로 (closed-loop처럼 부하가 줄지 않음).
+ *   flow 지연은 "예정 시작 시각" 기준이라 대기열에서 기다린 시간까지 포함 (coordinated omission 보정)
+ * - endpoint별 지연은 HDR histogram, 결과는 콘솔 + out 디렉터리(summary.json, *.hgrm)
+ *
+ * 사용: gradle loadTest -Pload.rate=20 -Pload.duration=60 -Pload.concurrency=32 -Pload.stubAiPort=18000
+ *   (백엔드는 ai.service.base-url=http://127.0.0.1:18000 로 띄워 둘 것)
+ */
+public final class LoadTest {
+
+    private static final List<String> ENDPOINTS = List.of("create", "plan", "approve", "execute", "flow");
+
+    private final Options opt;
+    private final List<Map<String, String>> corpus;
+    private final HttpClient http;
+    private final ObjectMapper om = new ObjectMapper();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final AtomicLong seq = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private LoadTest(Options opt, List<Map<String, String>> corpus) {
+        this.opt = opt;
+        this.corpus = corpus;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (String e : ENDPOINTS) stats.put(e, new EndpointStats(e));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options opt = Options.parse(args);
+        List<Map<String, String>> corpus = readCorpus(Path.of(opt.corpus));
+        if (corpus.isEmpty()) throw new IllegalArgumentException("corpus가 비어 있음: " + opt.corpus);
+
+        StubAiServer stub = opt.stubAiPort >= 0 ? new StubAiServer(opt.stubAiPort, opt.stubAiDelayMs) : null;
+        if (stub != null) System.out.println("stub ai-service: http://127.0.0.1:" + stub.port());
+        try {
+            new LoadTest(opt, corpus).run();
+        } finally {
+            if (stub != null) stub.close();
+        }
+    }
+
+    private void run() throws Exception {
+        System.out.printf("target=%s rate=%.1f/s duration=%ds concurrency=%d corpus=%d lines asyncExecute=%s%n",
+                opt.baseUrl, opt.rate, opt.durationSec, opt.concurrency, corpus.size(), opt.asyncExecute);
+
+        AtomicInteger tid = new AtomicInteger();
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(opt.concurrency, opt.concurrency, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(opt.maxBacklog), r -> {
+            Thread t = new Thread(r, "load-" + tid.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        long interval = (long) (1_000_000_000L / opt.rate);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(opt.durationSec);
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) break;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            try {
+                workers.execute(() -> flow(intended));
+            } catch (RejectedExecutionException e) {
+                dropped.incrementAndGet(); // backlog 한도 초과 = 대상이 rate를 전혀 못 따라감
+                stats.get("flow").record(System.nanoTime() - intended, false);
+            }
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(opt.drainSec, TimeUnit.SECONDS)) {
+            System.out.println("drain timeout: 미완료 flow " + (workers.getQueue().size() + workers.getActiveCount()) + "건");
+            workers.shutdownNow();
+        }
+        report((System.nanoTime() - start) / 1e9);
+    }
+
+    private void flow(long intended) {
+        boolean ok = false;
+        try {
+            Map<String, String> row = corpus.get((int) (seq.getAndIncrement() % corpus.size()));
+            String input = row.get("inputText");
+            if (opt.unique) input = input + " #" + seq.get(); // plan 캐시를 피하려면
+
+            JsonNode created = call("create", "POST", "/api/requests",
+                    Map.of("title", row.get("title"), "inputText", input));
+            long id = created.path("id").asLong();
+
+            call("plan", "POST", "/api/requests/" + id + "/plan", null);
+            call("approve", "POST", "/api/requests/" + id + "/approve", Map.of("decision", "APPROVE"));
+            if (opt.asyncExecute) executeAsync(id);
+            else call("execute", "POST", "/api/requests/" + id + "/execute", null);
+            ok = true;
+        } catch (Exception e) {
+            if (opt.verbose) System.err.println("flow failed: " + e.getMessage());
+        } finally {
+            stats.get("flow").record(System.nanoTime() - intended, ok);
+        }
+    }
+
+    /** async 실행: 202 후 job이 끝날 때까지 polling, execute 지연 = 제출 ~ 완료 */
+    private void executeAsync(long id) throws Exception {
+        long t0 = System.nanoTime();
+        boolean ok = false;
+        try {
+            JsonNode job = send("POST", "/api/requests/" + id + "/execute?async=true", null);
+            long jobId = job.path("jobId").asLong();
+            while (true) {
+                Thread.sleep(opt.pollMs);
+                String status = send("GET", "/api/jobs/" + jobId, null).path("status").asText();
+                if ("DONE".equals(status)) { ok = true; return; }
+                if ("FAILED".equals(status)) throw new IllegalStateException("job FAILED. jobId=" + jobId);
+            }
+        } finally {
+            stats.get("execute").record(System.nanoTime() - t0, ok);
+        }
+    }
+
+    private JsonNode call(String endpoint, String method, String path, Object body) throws Exception {
+        long t0 = System.nanoTime();
+        boolean ok = false;
+        try {
+            JsonNode res = send(method, path, body);
+            ok = true;
+            return res;
+        } finally {
+            stats.get(endpoint).record(System.nanoTime() - t0, ok);
+        }
+    }
+
+    private JsonNode send(String method, String path, Object body) throws Exception {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(opt.baseUrl + path))
+                .timeout(Duration.ofSeconds(opt.timeoutSec))
+                .header("X-Actor", "loadtest")
+                .header("Accept", "application/json");
+        if (body != null) {
+            b.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(om.writeValueAsBytes(body)));
+        } else {
+            b.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        HttpResponse<byte[]> res = http.send(b.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (res.statusCode() / 100 != 2) {
+            throw new IllegalStateException(method + " " + path + " HTTP " + res.statusCode());
+        }
+        return res.body().length == 0 ? om.createObjectNode() : om.readTree(res.body());
+    }
+
+    private void report(double elapsedSec) throws IOException {
+        Path out = Path.of(opt.out);
+        Files.createDirectories(out);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("elapsedSec", Math.round(elapsedSec * 10) / 10.0);
+        summary.put("targetRate", opt.rate);
+        summary.put("concurrency", opt.concurrency);
+        summary.put("droppedFlows", dropped.get());
+        Map<String, Object> byEndpoint = new LinkedHashMap<>();
+        System.out.printf("%n%-8s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "err%", "req/s", "p50ms", "p90ms", "p99ms", "p99.9ms", "maxms");
+        for (EndpointStats s : stats.values()) {
+            Map<String, Object> m = s.summary(elapsedSec);
+            byEndpoint.put(s.name, m);
+            System.out.printf("%-8s %8d %6.2f%% %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", s.name,
+                    m.get("count"), (double) m.get("errorRate") * 100, m.get("throughputPerSec"),
+                    m.get("p50Ms"), m.get("p90Ms"), m.get("p99Ms"), m.get("p999Ms"), m.get("maxMs"));
+            s.writeHgrm(out);
+        }
+        summary.put("endpoints", byEndpoint);
+        om.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.resolve("summary.json").toFile(), summary);
+        System.out.println("\nresult: " + out.toAbsolutePath());
+    }
+
+    private static List<Map<String, String>> readCorpus(Path path) throws IOException {
+        ObjectMapper om = new ObjectMapper();
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            if (line.isBlank()) continue;
+            JsonNode n = om.readTree(line);
+            String title = n.path("title").asText("");
+            String input = n.hasNonNull("inputText") ? n.get("inputText").asText() : n.path("body").asText("");
+            if (title.isBlank() || input.isBlank()) continue; // API에서 400 나는 줄은 제외
+            rows.add(Map.of("title", title, "inputText", input));
+        }
+        return rows;
+    }
+
+    /** --key=value 인자 (gradle loadTest 에서는 -Pload.key=value 로 전달) */
+    private static final class Options {
+        String baseUrl = "http://localhost:8080";
+        String corpus = "../requests.jsonl";
+        String out = "build/loadtest";
+        double rate = 10;
+        int durationSec = 30;
+        int concurrency = 32;
+        int maxBacklog = 10_000;
+        int drainSec = 60;
+        int timeoutSec = 90;
+        int stubAiPort = -1; // 0 이상이면 stub ai-service를 이 포트로 같이 띄움 (0 = 임의 포트)
+        long stubAiDelayMs = 0;
+        boolean asyncExecute = false;
+        long pollMs = 100;
+        boolean unique = false;
+        boolean verbose = false;
+
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (String a : args) {
+                if (!a.startsWith("--") || !a.contains("=")) throw new IllegalArgumentException("인자 형식: --key=value, 입력=" + a);
+                String k = a.substring(2, a.indexOf('='));
+                String v = a.substring(a.indexOf('=') + 1);
+                switch (k) {
+                    case "baseUrl" -> o.baseUrl = v.replaceAll("/+$", "");
+                    case "corpus" -> o.corpus = v;
+                    case "out" -> o.out = v;
+                    case "rate" -> o.rate = Double.parseDouble(v);
+                    case "duration" -> o.durationSec = Integer.parseInt(v);
+                    case "concurrency" -> o.concurrency = Integer.parseInt(v);
+                    case "maxBacklog" -> o.maxBacklog = Integer.parseInt(v);
+                    case "drain" -> o.drainSec = Integer.parseInt(v);
+                    case "timeout" -> o.timeoutSec = Integer.parseInt(v);
+                    case "stubAiPort" -> o.stubAiPort = Integer.parseInt(v);
+                    case "stubAiDelayMs" -> o.stubAiDelayMs = Long.parseLong(v);
+                    case "asyncExecute" -> o.asyncExecute = Boolean.parseBoolean(v);
+                    case "pollMs" -> o.pollMs = Long.parseLong(v);
+                    case "unique" -> o.unique = Boolean.parseBoolean(v);
+                    case "verbose" -> o.verbose = Boolean.parseBoolean(v);
+                    default -> throw new IllegalArgumentException("알 수 없는 인자: " + k);
+                }
+            }
+            if (o.rate <= 0 || o.concurrency <= 0 || o.durationSec <= 0) {
+                throw new IllegalArgumentException("rate/concurrency/duration 은 0보다 커야 함");
+            }
+            return o;
+        }
+    }
+}
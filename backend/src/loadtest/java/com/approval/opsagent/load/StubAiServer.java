@@ -0,0 +1,59 @@
+package com.approval.opsagent.load;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * 부하 테스트용 ai-service stub
+ * - POST /plan: 고정 plan (ticket 2 step 병렬 → wiki 1 step), delayMs 만큼 지연 (LLM 응답 시간 흉내)
+ * - 백엔드는 ai.service.base-url=http://127.0.0.1:{port} 로 띄워야 함
+ */
+final class StubAiServer implements AutoCloseable {
+
+    private static final byte[] PLAN = """
+{"plan":{"version":"1","approval_required":true,"steps":[
+ {"id":1,"tool":"ticket.createMany","args":{"count":3,"titlePrefix":"부하 테스트","desc":"점검 항목 확인"},"dependsOn":[]},
+ {"id":2,"tool":"ticket.createMany","args":{"items":[{"title":"원인분석","desc":"로그/지표 정리"}]},"dependsOn":[]},
+ {"id":3,"tool":"wiki.createPage","args":{"title":"부하 테스트 요약"},"dependsOn":[1,2]}
+]},"sources":[]}
+""".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+
+    StubAiServer(int port, long delayMs) throws IOException {
+        // Nagle off: 안 그러면 delayed ACK와 겹쳐 응답마다 ~40ms가 더해짐
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/plan", ex -> {
+            ex.getRequestBody().readAllBytes();
+            if (delayMs > 0) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            ex.getResponseHeaders().add("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, PLAN.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(PLAN);
+            }
+        });
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
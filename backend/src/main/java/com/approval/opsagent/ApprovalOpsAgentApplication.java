@@ -3,9 +3,11 @@ package com.approval.opsagent;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @ConfigurationPropertiesScan
 @SpringBootApplication
+@EnableScheduling
 public class ApprovalOpsAgentApplication {
 
     public static void main(String[] args) {
@@ -1,70 +1,376 @@
 package com.approval.opsagent.ai;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.http.MediaType;
-import org.springframework.http.client.JdkClientHttpRequestFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 @Service
-public class AiServiceClient {
+public class AiServiceClient implements DisposableBean {
+    // endpoint별 지연 (limiter 대기 포함, tags: endpoint/outcome=success|failure|circuit_open/status)
+    private static final String REQUEST_TIMER = "opsagent.ai.request";
+    // 같은 요청을 두 번 보내도 되는(부작용 없는) endpoint 만 hedge
+    private static final Set<String> HEDGED = Set.of("/plan", "/rag/answer");
+    // 요청을 보내기 전 로컬 대기열에서 실패 → AI 서비스 상태와 무관해서 breaker 에 기록 안 함
+    private static final Set<String> LOCAL_REASONS = Set.of("busy", "queue_timeout");
 
-    private final RestClient rest;
-    private final ObjectMapper om = new ObjectMapper();
+    private final HttpClient http;
+    private final ExecutorService ioExecutor;
+    private final AsyncLimiter limiter;
+    private final AiServiceProperties props;
+    private final String baseUrl;
+    private final ObjectMapper om;
+    private final MeterRegistry meters;
+    private final Tracer tracer;
+    private final Propagator propagator;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
 
-    public AiServiceClient(AiServiceProperties props) {
-        // ✅ HTTP/2 업그레이드(h2c) 같은 거 안 하게 HTTP/1.1로 고정
-        HttpClient httpClient = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofSeconds(5))
-                .build();
+    public AiServiceClient(AiServiceProperties props, ObjectMapper om, MeterRegistry meters,
+                           Tracer tracer, Propagator propagator) {
+        this.props = props;
+        this.om = om;
+        this.meters = meters;
+        this.tracer = tracer;
+        this.propagator = propagator;
+        this.baseUrl = props.getBaseUrl().replaceAll("/+$", "");
 
-        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
-        factory.setReadTimeout(Duration.ofSeconds(60));
+        // ✅ 응답 콜백은 고정 크기 풀에서 처리 (동시 요청 수만큼 스레드가 늘지 않음)
+        AtomicInteger seq = new AtomicInteger();
+        this.ioExecutor = Executors.newFixedThreadPool(props.getIoThreads(), r -> {
+            Thread t = new Thread(r, "ai-client-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
 
-        this.rest = RestClient.builder()
-                .requestFactory(factory)
-                .baseUrl(props.getBaseUrl())
+        // ✅ 기본은 HTTP/1.1 고정 (ai-service가 h2c 업그레이드를 처리하지 못함). h2c=true 일 때만 HTTP/2 시도
+        this.http = HttpClient.newBuilder()
+                .version(props.isH2c() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(props.getConnectTimeout())
+                .executor(ioExecutor)
                 .build();
+
+        // HTTP/1.1 에서는 동시 요청 수 = 열려 있는 커넥션 수 → maxInFlight가 커넥션 풀 크기 역할
+        this.limiter = new AsyncLimiter(props.getMaxInFlight(), props.getMaxPending());
+
+        Gauge.builder("opsagent.ai.inflight", limiter, AsyncLimiter::inFlight)
+                .description("AI 서비스로 전송 중인 요청 수").register(meters);
+        Gauge.builder("opsagent.ai.pending", limiter, AsyncLimiter::pending)
+                .description("동시 요청 한도로 대기 중인 요청 수").register(meters);
     }
 
     public String createPlan(Object payload) {
-        try {
-            // ✅ “객체 직렬화가 안 되어서 바디가 비는” 상황을 막기 위해 JSON 문자열로 강제 전송
-            String json = om.writeValueAsString(payload);
-
-            return rest.post()
-                    .uri("/plan")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .accept(MediaType.APPLICATION_JSON)
-                    .body(json)
-                    .retrieve()
-                    .body(String.class);
-
-        } catch (Exception e) {
-            throw new IllegalStateException("AI request failed: " + e.getMessage(), e);
-        }
+        return join(createPlanAsync(payload));
+    }
+
+    public CompletableFuture<String> createPlanAsync(Object payload) {
+        return postAsync("/plan", payload);
     }
 
     public String ragIngest(Object payload) {
-        return rest.post()
-                .uri("/rag/ingest")
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(payload)
-                .retrieve()
-                .body(String.class);
+        return join(postAsync("/rag/ingest", payload));
     }
 
     public String ragAnswer(Object payload) {
-        return rest.post()
-                .uri("/rag/answer")
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(payload)
-                .retrieve()
-                .body(String.class);
+        return join(ragAnswerAsync(payload));
+    }
+
+    public CompletableFuture<String> ragAnswerAsync(Object payload) {
+        return postAsync("/rag/answer", payload);
+    }
+
+    public int inFlight() {
+        return limiter.inFlight();
+    }
+
+    public int pending() {
+        return limiter.pending();
+    }
+
+    /**
+     * circuit breaker → (adaptive timeout) → 요청, hedge 대상이면 p95 지연 후 한 번 더
+     * 실패는 AiUnavailableException(timeout/io/http_5xx/circuit_open/busy/queue_timeout) 또는 IllegalStateException(4xx)
+     * busy/queue_timeout 은 요청을 보내지도 못한 로컬 대기열 문제라 breaker 실패로 세지 않음 (permit 만 반납)
+     */
+    private CompletableFuture<String> postAsync(String path, Object payload) {
+        long t0 = System.nanoTime();
+        Endpoint ep = endpoint(path);
+        if (!ep.breaker.tryAcquire()) {
+            recordRequest(path, "circuit_open", "none", t0);
+            return CompletableFuture.failedFuture(new AiUnavailableException(path, "circuit_open", null));
+        }
+
+        Duration timeout = ep.timeout();
+        Span parent = tracer.currentSpan();
+        AtomicInteger status = new AtomicInteger();
+        AtomicBoolean sent = new AtomicBoolean();
+        CompletableFuture<String> first = attempt(path, payload, timeout, parent, ep, status, sent, 1);
+        CompletableFuture<String> call = HEDGED.contains(path) ? hedge(first, path, payload, timeout, parent, ep, status, sent) : first;
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        // orTimeout 은 JDK 공용 delay 스레드에서 완료됨 → 후속 처리(plan 저장 등)는 io 풀로 넘김
+        call.whenCompleteAsync((body, e) -> {
+            Throwable c = e == null ? null : classify(path, e, sent.get());
+            if (c instanceof AiUnavailableException u && LOCAL_REASONS.contains(u.reason())) ep.breaker.release();
+            else ep.breaker.record(!(c instanceof AiUnavailableException));
+
+            int code = status.get();
+            recordRequest(path, c == null ? "success" : "failure", code == 0 ? "none" : String.valueOf(code), t0);
+            if (c == null) result.complete(body);
+            else result.completeExceptionally(c);
+        }, ioExecutor);
+        return result;
+    }
+
+    /**
+     * 요청 1회 (CLIENT span 은 limiter 대기부터 응답까지)
+     * sent: limiter 를 지나 실제로 보냈으면 true (대기열에서 timeout 나면 limiter 가 보내지 않고 버림)
+     */
+    private CompletableFuture<String> attempt(String path, Object payload, Duration timeout, Span parent,
+                                              Endpoint ep, AtomicInteger status, AtomicBoolean sent, int attemptNo) {
+        Span span = clientSpan(path, parent).tag("ai.attempt", attemptNo);
+        CompletableFuture<String> f = limiter.submit(() -> {
+            sent.set(true);
+            long sentAt = System.nanoTime();
+            HttpRequest.Builder rb = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json")
+                    .POST(jsonBody(payload));
+            // ✅ W3C traceparent 헤더로 ai-service 에 trace 이어줌
+            propagator.inject(span.context(), rb, HttpRequest.Builder::setHeader);
+            HttpRequest req = rb.build();
+
+            return http.sendAsync(req, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(res -> {
+                        status.set(res.statusCode());
+                        span.tag("http.response.status_code", res.statusCode());
+                        if (res.statusCode() / 100 == 5) {
+                            throw new AiUnavailableException(path, "http_" + res.statusCode(), null);
+                        }
+                        if (res.statusCode() / 100 != 2) {
+                            throw new IllegalStateException("AI request failed: " + path + " HTTP " + res.statusCode() + " " + res.body());
+                        }
+                        // 서버 응답 시간만 기록 (limiter 대기 제외)
+                        ep.latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt));
+                        return res.body();
+                    });
+        });
+        // limiter 대기까지 포함한 상한
+        return f.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((body, e) -> {
+            if (e != null) span.error(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            span.end();
+        });
+    }
+
+    /**
+     * 첫 요청이 hedge 지연(최근 p95) 안에 끝나지 않으면 같은 요청을 한 번 더 보내고 먼저 성공한 응답 사용
+     * 둘 다 실패해야 실패 (첫 요청이 지연 전에 실패하면 hedge 없이 바로 실패)
+     */
+    private CompletableFuture<String> hedge(CompletableFuture<String> first, String path, Object payload, Duration timeout,
+                                            Span parent, Endpoint ep, AtomicInteger status, AtomicBoolean sent) {
+        long delay = ep.hedgeDelayMs();
+        if (delay < 0) return first;
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger(1);
+        BiConsumer<String, Throwable> onDone = (body, e) -> {
+            if (e == null) result.complete(body);
+            else if (failures.incrementAndGet() == attempts.get()) result.completeExceptionally(e);
+        };
+        first.whenComplete(onDone);
+
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, ioExecutor).execute(() -> {
+            if (result.isDone() || first.isDone()) return;
+            attempts.incrementAndGet();
+            ep.hedges.increment();
+            attempt(path, payload, timeout, parent, ep, status, sent, 2).whenComplete(onDone);
+        });
+        return result;
+    }
+
+    private static Throwable classify(String path, Throwable e, boolean sent) {
+        Throwable c = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (c instanceof AiUnavailableException) return c;
+        if (c instanceof TimeoutException && !sent) return new AiUnavailableException(path, "queue_timeout", c);
+        if (c instanceof TimeoutException || c instanceof HttpTimeoutException) return new AiUnavailableException(path, "timeout", c);
+        if (c instanceof RejectedExecutionException) return new AiUnavailableException(path, "busy", c);
+        if (c instanceof IOException) return new AiUnavailableException(path, "io", c);
+        return c;
+    }
+
+    private void recordRequest(String path, String outcome, String status, long t0) {
+        Timer.builder(REQUEST_TIMER)
+                .tag("endpoint", path)
+                .tag("outcome", outcome)
+                .tag("status", status)
+                .register(meters)
+                .record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+    }
+
+    /** endpoint 별 breaker / 지연 상태 (GET /api/ops/ai) */
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        endpoints.forEach((path, ep) -> out.put(path, Map.of(
+                "breaker", ep.breaker.state().name(),
+                "timeoutMs", ep.timeout().toMillis(),
+                "p95Ms", ep.latency.percentile(0.95),
+                "p99Ms", ep.latency.percentile(0.99),
+                "samples", ep.latency.count(),
+                "hedges", (long) ep.hedges.count()
+        )));
+        return out;
+    }
+
+    private Endpoint endpoint(String path) {
+        return endpoints.computeIfAbsent(path, Endpoint::new);
+    }
+
+    private Span clientSpan(String path, Span parent) {
+        Span.Builder b = tracer.spanBuilder()
+                .name("POST " + path)
+                .kind(Span.Kind.CLIENT)
+                .remoteServiceName("ai-service")
+                .tag("http.request.method", "POST")
+                .tag("url.path", path);
+        if (parent != null) b.setParent(parent.context());
+        return b.start();
+    }
+
+    private final class Endpoint {
+        final CircuitBreaker breaker = new CircuitBreaker(props.getBreakerWindow(), props.getBreakerMinCalls(),
+                props.getBreakerFailureRate(), props.getBreakerOpenDuration().toNanos(), props.getBreakerHalfOpenCalls());
+        final LatencyTracker latency = new LatencyTracker(props.getLatencySamples());
+        final Counter hedges;
+
+        Endpoint(String path) {
+            this.hedges = Counter.builder("opsagent.ai.hedges").tag("endpoint", path).register(meters);
+            Gauge.builder("opsagent.ai.breaker.state", breaker, b -> b.state().ordinal())
+                    .description("0=CLOSED 1=OPEN 2=HALF_OPEN").tag("endpoint", path).register(meters);
+            Gauge.builder("opsagent.ai.timeout", this, e -> e.timeout().toMillis() / 1000.0)
+                    .baseUnit("seconds").tag("endpoint", path).register(meters);
+        }
+
+        Duration timeout() {
+            Duration max = props.getReadTimeout();
+            if (!props.isAdaptiveTimeout() || latency.count() < props.getMinSamples()) return max;
+            long ms = (long) (latency.percentile(0.99) * props.getTimeoutMultiplier());
+            ms = Math.max(props.getMinTimeout().toMillis(), Math.min(max.toMillis(), ms));
+            return Duration.ofMillis(ms);
+        }
+
+        /** hedge 를 보낼 지연(ms), 표본이 부족하거나 꺼져 있으면 -1 */
+        long hedgeDelayMs() {
+            if (!props.isHedgeEnabled() || latency.count() < props.getMinSamples()) return -1;
+            return Math.max(props.getHedgeMinDelay().toMillis(), latency.percentile(props.getHedgeQuantile()));
+        }
+    }
+
+    /**
+     * Jackson이 UTF-8 바이트 청크로 바로 직렬화 (중간 String / 하나로 합친 byte[] 없음)
+     * ✅ “객체 직렬화가 안 되어서 바디가 비는” 상황을 막기 위해 직렬화는 여기서 직접 수행
+     */
+    private HttpRequest.BodyPublisher jsonBody(Object payload) {
+        ChunkOutputStream out = new ChunkOutputStream();
+        try {
+            om.writeValue(out, payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("AI request serialize failed: " + e.getMessage(), e);
+        }
+        // Content-Length를 알려줘야 chunked 전송으로 바뀌지 않음
+        return HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofByteArrays(out.chunks()), out.size());
+    }
+
+    private static String join(CompletableFuture<String> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            Throwable c = e.getCause();
+            if (c instanceof IllegalStateException ise) throw ise;
+            throw new IllegalStateException("AI request failed: " + (c == null ? e.getMessage() : c.getMessage()), c);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        ioExecutor.shutdownNow();
+    }
+
+    /** 8KB 청크 단위로 쌓는 OutputStream (BodyPublishers.ofByteArrays 용) */
+    private static final class ChunkOutputStream extends OutputStream {
+        private static final int CHUNK = 8 * 1024;
+        private final List<byte[]> chunks = new ArrayList<>();
+        private byte[] cur = new byte[CHUNK];
+        private int pos;
+        private long size;
+
+        @Override
+        public void write(int b) {
+            if (pos == cur.length) next();
+            cur[pos++] = (byte) b;
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                if (pos == cur.length) next();
+                int n = Math.min(len, cur.length - pos);
+                System.arraycopy(b, off, cur, pos, n);
+                pos += n;
+                off += n;
+                len -= n;
+                size += n;
+            }
+        }
+
+        private void next() {
+            chunks.add(cur);
+            cur = new byte[CHUNK];
+            pos = 0;
+        }
+
+        long size() {
+            return size;
+        }
+
+        List<byte[]> chunks() {
+            List<byte[]> out = new ArrayList<>(chunks);
+            if (pos > 0) out.add(Arrays.copyOf(cur, pos));
+            return out;
+        }
     }
 }
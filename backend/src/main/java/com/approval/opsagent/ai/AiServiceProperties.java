@@ -2,9 +2,79 @@ package com.approval.opsagent.ai;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @ConfigurationProperties(prefix = "ai.service")
 public class AiServiceProperties {
     private String baseUrl;
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration readTimeout = Duration.ofSeconds(60);
+    // 동시에 보낼 수 있는 요청 수 (HTTP/1.1에서는 곧 최대 커넥션 수)
+    private int maxInFlight = 32;
+    // maxInFlight 초과 시 대기할 수 있는 요청 수 (넘으면 즉시 실패)
+    private int maxPending = 256;
+    // HttpClient 비동기 콜백 스레드 수 (요청 수와 무관하게 고정)
+    private int ioThreads = 4;
+    // true면 h2c(HTTP/2 cleartext) 업그레이드 시도. ai-service(uvicorn)는 기본 미지원이라 opt-in
+    private boolean h2c = false;
+
+    // ✅ circuit breaker (endpoint 별): 최근 breakerWindow 건 중 실패율이 넘으면 breakerOpenDuration 동안 즉시 실패
+    private int breakerWindow = 20;
+    private int breakerMinCalls = 10;
+    private double breakerFailureRate = 0.5;
+    private Duration breakerOpenDuration = Duration.ofSeconds(30);
+    private int breakerHalfOpenCalls = 2;
+
+    // ✅ adaptive timeout: 최근 응답 p99 * timeoutMultiplier (minTimeout ~ readTimeout 범위), 표본이 적으면 readTimeout
+    private boolean adaptiveTimeout = true;
+    private double timeoutMultiplier = 3.0;
+    private Duration minTimeout = Duration.ofSeconds(2);
+    private int latencySamples = 256;
+    private int minSamples = 20;
+
+    // ✅ hedge: p95 만큼 기다려도 응답이 없으면 같은 요청을 한 번 더 보내고 먼저 온 응답 사용 (/plan, /rag/answer 만)
+    private boolean hedgeEnabled = false;
+    private double hedgeQuantile = 0.95;
+    private Duration hedgeMinDelay = Duration.ofMillis(200);
+
     public String getBaseUrl() { return baseUrl; }
     public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+    public Duration getReadTimeout() { return readTimeout; }
+    public void setReadTimeout(Duration readTimeout) { this.readTimeout = readTimeout; }
+    public int getMaxInFlight() { return maxInFlight; }
+    public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+    public int getMaxPending() { return maxPending; }
+    public void setMaxPending(int maxPending) { this.maxPending = maxPending; }
+    public int getIoThreads() { return ioThreads; }
+    public void setIoThreads(int ioThreads) { this.ioThreads = ioThreads; }
+    public boolean isH2c() { return h2c; }
+    public void setH2c(boolean h2c) { this.h2c = h2c; }
+    public int getBreakerWindow() { return breakerWindow; }
+    public void setBreakerWindow(int breakerWindow) { this.breakerWindow = breakerWindow; }
+    public int getBreakerMinCalls() { return breakerMinCalls; }
+    public void setBreakerMinCalls(int breakerMinCalls) { this.breakerMinCalls = breakerMinCalls; }
+    public double getBreakerFailureRate() { return breakerFailureRate; }
+    public void setBreakerFailureRate(double breakerFailureRate) { this.breakerFailureRate = breakerFailureRate; }
+    public Duration getBreakerOpenDuration() { return breakerOpenDuration; }
+    public void setBreakerOpenDuration(Duration breakerOpenDuration) { this.breakerOpenDuration = breakerOpenDuration; }
+    public int getBreakerHalfOpenCalls() { return breakerHalfOpenCalls; }
+    public void setBreakerHalfOpenCalls(int breakerHalfOpenCalls) { this.breakerHalfOpenCalls = breakerHalfOpenCalls; }
+    public boolean isAdaptiveTimeout() { return adaptiveTimeout; }
+    public void setAdaptiveTimeout(boolean adaptiveTimeout) { this.adaptiveTimeout = adaptiveTimeout; }
+    public double getTimeoutMultiplier() { return timeoutMultiplier; }
+    public void setTimeoutMultiplier(double timeoutMultiplier) { this.timeoutMultiplier = timeoutMultiplier; }
+    public Duration getMinTimeout() { return minTimeout; }
+    public void setMinTimeout(Duration minTimeout) { this.minTimeout = minTimeout; }
+    public int getLatencySamples() { return latencySamples; }
+    public void setLatencySamples(int latencySamples) { this.latencySamples = latencySamples; }
+    public int getMinSamples() { return minSamples; }
+    public void setMinSamples(int minSamples) { this.minSamples = minSamples; }
+    public boolean isHedgeEnabled() { return hedgeEnabled; }
+    public void setHedgeEnabled(boolean hedgeEnabled) { this.hedgeEnabled = hedgeEnabled; }
+    public double getHedgeQuantile() { return hedgeQuantile; }
+    public void setHedgeQuantile(double hedgeQuantile) { this.hedgeQuantile = hedgeQuantile; }
+    public Duration getHedgeMinDelay() { return hedgeMinDelay; }
+    public void setHedgeMinDelay(Duration hedgeMinDelay) { this.hedgeMinDelay = hedgeMinDelay; }
 }
@@ -0,0 +1,20 @@
+package com.approval.opsagent.ai;
+
+/**
+ * AI 서비스를 쓸 수 없어서 실패한 호출 (응답 내용 문제가 아니라 brownout 성격)
+ * reason: circuit_open | timeout | io | http_5xx | busy (로컬 대기열 가득) | queue_timeout (로컬 대기열에서 timeout)
+ * → PlanningService 는 이 경우에만 SimplePlanGenerator 로 대체
+ */
+public class AiUnavailableException extends IllegalStateException {
+    private final String endpoint;
+    private final String reason;
+
+    public AiUnavailableException(String endpoint, String reason, Throwable cause) {
+        super("AI 서비스 사용 불가: " + endpoint + " (" + reason + ")", cause);
+        this.endpoint = endpoint;
+        this.reason = reason;
+    }
+
+    public String endpoint() { return endpoint; }
+    public String reason() { return reason; }
+}
@@ -0,0 +1,94 @@
+package com.approval.opsagent.ai;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 비동기 호출 동시 실행 수 제한
+ * - permit이 없으면 스레드를 막지 않고 대기열에 넣었다가, 앞선 호출이 끝날 때 시작
+ * - 대기열도 가득 차면 즉시 RejectedExecutionException
+ * - 대기 중에 결과 future 가 먼저 끝나면(호출자 timeout/취소) 대기열에서 빼고 호출하지 않음
+ */
+public class AsyncLimiter {
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final int maxPending;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    public AsyncLimiter(int maxInFlight, int maxPending) {
+        this.permits = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.maxPending = maxPending;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            // 대기하는 사이 호출자가 포기함 → 보내지 않고 permit 반납
+            if (result.isDone()) {
+                release();
+                return;
+            }
+            CompletableFuture<T> f;
+            try {
+                f = call.get();
+            } catch (RuntimeException e) {
+                release();
+                result.completeExceptionally(e);
+                return;
+            }
+            f.whenComplete((v, e) -> {
+                release();
+                if (e != null) result.completeExceptionally(e);
+                else result.complete(v);
+            });
+        };
+
+        if (permits.tryAcquire()) {
+            start.run();
+            return result;
+        }
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            result.completeExceptionally(new RejectedExecutionException("AI 호출 대기열이 가득 찼어"));
+            return result;
+        }
+        pending.add(start);
+        result.whenComplete((v, e) -> {
+            if (pending.remove(start)) pendingCount.decrementAndGet();
+        });
+        drain(); // add 직전에 permit이 반납됐을 수 있음
+        return result;
+    }
+
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    public int pending() {
+        return pendingCount.get();
+    }
+
+    private void release() {
+        permits.release();
+        drain();
+    }
+
+    private void drain() {
+        while (!pending.isEmpty() && permits.tryAcquire()) {
+            Runnable next = pending.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            pendingCount.decrementAndGet();
+            next.run();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.approval.opsagent.ai;
+
+/**
+ * endpoint 별 circuit breaker (최근 window 건 기준 실패율)
+ * - CLOSED: 최근 window 건 중 minCalls 이상 기록됐고 실패율 >= failureRate 이면 OPEN
+ * - OPEN: openDuration 동안 호출 없이 즉시 실패
+ * - HALF_OPEN: halfOpenCalls 건만 시험 호출, 전부 성공하면 CLOSED / 하나라도 실패하면 다시 OPEN
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean[] window;
+    private final int minCalls;
+    private final double failureRate;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // 전부 synchronized 안에서만 접근 (호출당 몇 ns, AI 호출 지연에 비하면 무시)
+    private State state = State.CLOSED;
+    private int pos, count, failures;
+    private long openedAt;
+    private int trials, trialSuccesses;
+
+    public CircuitBreaker(int window, int minCalls, double failureRate, long openNanos, int halfOpenCalls) {
+        this.window = new boolean[window];
+        this.minCalls = minCalls;
+        this.failureRate = failureRate;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /** 호출해도 되면 true (HALF_OPEN 이면 시험 호출 permit 사용) */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) return false;
+            state = State.HALF_OPEN;
+            trials = 0;
+            trialSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trials >= halfOpenCalls) return false;
+            trials++;
+        }
+        return true;
+    }
+
+    /** tryAcquire 후 결과를 판단할 수 없는 경우 (로컬 대기열 초과 등) permit 만 반납 */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && trials > 0) trials--;
+    }
+
+    public synchronized void record(boolean success) {
+        if (state == State.HALF_OPEN) {
+            if (!success) open();
+            else if (++trialSuccesses >= halfOpenCalls) close();
+            return;
+        }
+        if (state == State.OPEN) return;
+
+        if (count == window.length) {
+            if (window[pos]) failures--;
+        } else {
+            count++;
+        }
+        window[pos] = !success;
+        if (!success) failures++;
+        pos = (pos + 1) % window.length;
+
+        if (count >= minCalls && (double) failures / count >= failureRate) open();
+    }
+
+    public synchronized State state() {
+        // OPEN 유지 시간이 지났으면 다음 호출은 시험 호출 → 조회 시에도 HALF_OPEN 으로 보여줌
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) return State.HALF_OPEN;
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        pos = count = failures = 0;
+    }
+}
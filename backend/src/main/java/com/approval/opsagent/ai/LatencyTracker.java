@@ -0,0 +1,42 @@
+package com.approval.opsagent.ai;
+
+import java.util.Arrays;
+
+/**
+ * 최근 N건 응답 시간(ms)으로 percentile 계산 (adaptive timeout / hedge 지연)
+ * 정렬 결과는 16건 기록마다 다시 만들어서 조회 비용을 낮춤
+ */
+public class LatencyTracker {
+    private static final int RESORT_EVERY = 16;
+
+    private final long[] samples;
+    private int pos, count, dirty;
+    private long[] sorted;
+
+    public LatencyTracker(int size) {
+        this.samples = new long[size];
+    }
+
+    public synchronized void record(long ms) {
+        samples[pos] = ms;
+        pos = (pos + 1) % samples.length;
+        if (count < samples.length) count++;
+        dirty++;
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    /** 기록이 없으면 -1 */
+    public synchronized long percentile(double q) {
+        if (count == 0) return -1;
+        if (sorted == null || dirty >= RESORT_EVERY || sorted.length != count) {
+            sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            dirty = 0;
+        }
+        int i = (int) Math.ceil(q * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, i))];
+    }
+}
@@ -8,7 +8,7 @@ public record PlanRequestPayload(
         String requester,
         String title,
         String inputText,
-        List<ToolSpec> tools,
+        ToolSpecBlock tools,
         int top_k
 ) {
     public record ToolSpec(
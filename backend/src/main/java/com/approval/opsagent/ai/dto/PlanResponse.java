@@ -0,0 +1,10 @@
+package com.approval.opsagent.ai.dto;
+
+import com.approval.opsagent.core.model.Plan;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/** ai-service POST /plan 응답 */
+public record PlanResponse(
+        Plan plan,
+        JsonNode sources
+) {}
@@ -0,0 +1,48 @@
+package com.approval.opsagent.ai.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * /plan 요청의 tools 블록
+ * - spec 목록이 바뀌기 전까지 JSON을 한 번만 만들어 두고 요청마다 그대로(raw) 씀 → 매 요청 재직렬화 없음
+ * - version: spec 내용 해시 (plan 캐시 key에 포함)
+ */
+public final class ToolSpecBlock extends JsonSerializable.Base {
+    private final List<PlanRequestPayload.ToolSpec> specs;
+    private final Set<String> names;
+    private final String json;
+    private final String version;
+
+    public ToolSpecBlock(List<PlanRequestPayload.ToolSpec> specs, String json, String version) {
+        this.specs = List.copyOf(specs);
+        Set<String> n = new LinkedHashSet<>();
+        for (PlanRequestPayload.ToolSpec s : specs) n.add(s.name());
+        this.names = Collections.unmodifiableSet(n);
+        this.json = json;
+        this.version = version;
+    }
+
+    public List<PlanRequestPayload.ToolSpec> specs() { return specs; }
+    public Set<String> names() { return names; }
+    public String json() { return json; }
+    public String version() { return version; }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeRawValue(json);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+}
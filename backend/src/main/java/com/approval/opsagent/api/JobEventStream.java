@@ -0,0 +1,131 @@
+package com.approval.opsagent.api;
+
+import com.approval.opsagent.core.ExecutionJobService;
+import com.approval.opsagent.core.model.ExecutionJob;
+import com.approval.opsagent.events.ChangeEvent;
+import com.approval.opsagent.events.ChangeListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 비동기 실행 job 진행 상태 스트림 (GET /api/jobs/{id}/events)
+ * - job 상태 변화는 변경 이벤트 feed 의 job.status(V18 trigger → EventBus)로 받음 → 다른 노드가 실행/회수한 job 도 전달
+ * - 이벤트를 받으면 job 을 다시 조회해서 보냄 (LISTEN 스레드를 막지 않게 전용 스레드에서)
+ * - feed 가 꺼져 있거나 재접속 사이에 놓친 변화는 execution.jobs.events-resync 마다 다시 확인
+ * - DONE/FAILED 를 보내면 스트림 종료
+ */
+@Component
+public class JobEventStream implements ChangeListener, DisposableBean {
+    private static final Set<String> TERMINAL = Set.of("DONE", "FAILED");
+    private static final long SSE_TIMEOUT_MS = 10 * 60 * 1000L;
+
+    private final ExecutionJobService jobs;
+    private final ObjectMapper om;
+    private final Map<Long, List<Sub>> watches = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "job-events");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public JobEventStream(ExecutionJobService jobs, ObjectMapper om) {
+        this.jobs = jobs;
+        this.om = om;
+    }
+
+    /** 없는 job 이면 empty */
+    public Optional<SseEmitter> subscribe(long jobId) {
+        if (jobs.find(jobId).isEmpty()) return Optional.empty();
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        // 먼저 등록하고 현재 상태를 보내야 그 사이 상태 변화를 놓치지 않음
+        Sub sub = new Sub(emitter);
+        List<Sub> list = watches.computeIfAbsent(jobId, k -> new CopyOnWriteArrayList<>());
+        list.add(sub);
+        Runnable remove = () -> {
+            list.remove(sub);
+            if (list.isEmpty()) watches.remove(jobId, list);
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        jobs.find(jobId).ifPresent(sub::send);
+        return Optional.of(emitter);
+    }
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (!"job.status".equals(event.type()) || watches.isEmpty()) return;
+        long jobId;
+        try {
+            jobId = om.readTree(event.json()).path("jobId").asLong();
+        } catch (JsonProcessingException e) {
+            return;
+        }
+        if (watches.containsKey(jobId)) sender.execute(() -> publish(jobId));
+    }
+
+    @Override
+    public void onReset() {
+        resync();
+    }
+
+    @Scheduled(initialDelayString = "${execution.jobs.events-resync:5s}", fixedDelayString = "${execution.jobs.events-resync:5s}")
+    public void resync() {
+        for (Long jobId : watches.keySet()) sender.execute(() -> publish(jobId));
+    }
+
+    private void publish(long jobId) {
+        List<Sub> list = watches.get(jobId);
+        if (list == null || list.isEmpty()) return;
+        ExecutionJob job;
+        try {
+            job = jobs.find(jobId).orElse(null);
+        } catch (DataAccessException e) {
+            return; // 다음 resync 때 다시
+        }
+        if (job == null) return;
+        for (Sub sub : list) sub.send(job);
+    }
+
+    @Override
+    public void destroy() {
+        sender.shutdownNow();
+    }
+
+    private static final class Sub {
+        private final SseEmitter emitter;
+        // guarded by this: 마지막으로 보낸 상태 (resync 로 같은 상태를 다시 보내지 않음)
+        private String lastStatus;
+
+        Sub(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void send(ExecutionJob job) {
+            if (job.status().equals(lastStatus)) return;
+            lastStatus = job.status();
+            try {
+                emitter.send(SseEmitter.event().name("job").data(job));
+                if (TERMINAL.contains(job.status())) emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
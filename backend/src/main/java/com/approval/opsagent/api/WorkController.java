@@ -1,15 +1,48 @@
 package com.approval.opsagent.api;
 
+import com.approval.opsagent.ai.AiServiceClient;
 import com.approval.opsagent.api.dto.ApproveReq;
+import com.approval.opsagent.api.dto.BatchPlanReq;
+import com.approval.opsagent.api.dto.BulkApproveReq;
 import com.approval.opsagent.api.dto.CreateRequestReq;
+import com.approval.opsagent.api.dto.ToolLimitsReq;
+import com.approval.opsagent.core.ApprovalService;
+import com.approval.opsagent.core.AuditPartitionMaintainer;
+import com.approval.opsagent.core.AuditWriter;
+import com.approval.opsagent.core.ConflictException;
+import com.approval.opsagent.core.ExecutionJobService;
 import com.approval.opsagent.core.ExecutionService;
+import com.approval.opsagent.core.JobQueueFullException;
 import com.approval.opsagent.core.PlanningService;
+import com.approval.opsagent.core.RequestCache;
+import com.approval.opsagent.core.RequestIngestService;
+import com.approval.opsagent.core.ToolProperties;
+import com.approval.opsagent.core.ToolRegistry;
 import com.approval.opsagent.core.WorkRepo;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.approval.opsagent.core.model.BatchPlanResult;
+import com.approval.opsagent.core.model.BulkDecisionResult;
+import com.approval.opsagent.core.model.RequestFilter;
+import com.approval.opsagent.core.model.RequestPage;
+import com.approval.opsagent.core.model.Views;
+import com.approval.opsagent.events.EventBus;
+import com.fasterxml.jackson.annotation.JsonView;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
@@ -19,18 +52,53 @@ public class WorkController {
     private final WorkRepo repo;
     private final PlanningService planning;
     private final ExecutionService exec;
+    private final ExecutionJobService jobs;
+    private final JobEventStream jobStream;
+    private final AuditWriter audit;
+    private final ApprovalService approvals;
+    private final RequestIngestService ingest;
+    private final EventBus events;
+    private final AiServiceClient ai;
+    private final AuditPartitionMaintainer auditPartitions;
+    private final RequestCache requestCache;
+    private final ToolRegistry tools;
 
-    public WorkController(WorkRepo repo, PlanningService planning, ExecutionService exec) {
+    public WorkController(WorkRepo repo, PlanningService planning, ExecutionService exec, ExecutionJobService jobs,
+                          JobEventStream jobStream, AuditWriter audit, ApprovalService approvals,
+                          RequestIngestService ingest, EventBus events, AiServiceClient ai,
+                          AuditPartitionMaintainer auditPartitions, RequestCache requestCache, ToolRegistry tools) {
         this.repo = repo;
         this.planning = planning;
         this.exec = exec;
+        this.jobs = jobs;
+        this.jobStream = jobStream;
+        this.audit = audit;
+        this.approvals = approvals;
+        this.ingest = ingest;
+        this.events = events;
+        this.ai = ai;
+        this.auditPartitions = auditPartitions;
+        this.requestCache = requestCache;
+        this.tools = tools;
     }
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     // 간단 actor: 프론트에서 헤더로 넘기거나, 없으면 "demo"
     private String actor(String xActor) {
         return (xActor == null || xActor.isBlank()) ? "demo" : xActor.trim();
     }
 
+    private static String blankToNull(String s) {
+        return (s == null || s.isBlank()) ? null : s.trim();
+    }
+
+    // 상태 전이 충돌 → 409 (응답 형식은 다른 오류와 같은 기본 error JSON)
+    @ExceptionHandler(ConflictException.class)
+    public void conflict(ConflictException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.CONFLICT.value(), e.getMessage());
+    }
+
     @GetMapping("/health")
     public Map<String, Object> health() {
         return Map.of("ok", true);
@@ -50,32 +118,69 @@ public class WorkController {
         String actor = actor(xActor);
         long t0 = System.currentTimeMillis();
         long id = repo.create(actor, req.title(), req.inputText());
-        repo.audit(id, actor, "CREATE", "created", true, (int) (System.currentTimeMillis() - t0));
+        audit.audit(id, actor, "CREATE", "created", true, (int) (System.currentTimeMillis() - t0));
         return Map.of("id", id);
     }
 
     /**
-     * 요청 생성
+     * 요청 일괄 적재 (NDJSON, 한 줄 = {"title","inputText"[,"idempotencyKey"]})
+     * 본문을 스트리밍으로 읽으면서 batch 단위로 INSERT, 결과도 줄마다 NDJSON으로 바로 내려줌
+     * @param xActor
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    @PostMapping(value = "/requests/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "application/jsonl"})
+    public void ingest(
+            @RequestHeader(value = "X-Actor", required = false) String xActor,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (Reader in = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8))) {
+            ingest.ingest(actor(xActor), in, out);
+        }
+    }
+
+    /**
+     * 요청 목록 (keyset 페이지네이션)
+     * @param cursor 이전 응답의 nextCursor (첫 페이지는 생략)
+     * @param limit 페이지 크기 (최대 200)
+     * @param status
+     * @param requester
+     * @param from created_at >= from
+     * @param to created_at < to
      * @return
      */
     @GetMapping("/requests")
-    public Object list() {
-        return repo.list();
+    public RequestPage list(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String requester,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to
+    ) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return repo.list(new RequestFilter(blankToNull(status), blankToNull(requester), from, to), cursor, size);
     }
 
     /**
      * 상세(요청/감사로그/티켓/위키)
+     * DB가 만든 JSON을 그대로 응답 (쿼리 1회, Jackson 재직렬화 없음)
      * @param id
+     * @param includeJson false면 plan_json/result_json 제외
      * @return
      */
-    @GetMapping("/requests/{id}")
-    public Object detail(@PathVariable long id) {
-        return Map.of(
-                "request", repo.find(id),
-                "audit", repo.auditList(id),
-                "tickets", repo.tickets(id),
-                "wikiPages", repo.wiki(id)
-        );
+    @GetMapping(value = "/requests/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public String detail(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "true") boolean includeJson
+    ) {
+        return repo.detailJson(id, includeJson)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "요청 없음. id=" + id));
     }
 
     /**
@@ -83,14 +188,36 @@ public class WorkController {
      * @param xActor
      * @param id
      * @return
-     * @throws JsonProcessingException
      */
     @PostMapping("/requests/{id}/plan")
-    public Object plan(
+    public CompletableFuture<Map<String, Object>> plan(
             @RequestHeader(value = "X-Actor", required = false) String xActor,
             @PathVariable long id
-    ) throws JsonProcessingException {
-        return planning.plan(actor(xActor), id);
+    ) {
+        // ✅ LLM 응답을 기다리는 동안 Tomcat 스레드 반환 (servlet async)
+        return planning.planAsync(actor(xActor), id);
+    }
+
+    /**
+     * 일괄 계획: ids 또는 (ids 없이) 오래된 DRAFT limit 개
+     * @param xActor
+     * @param req
+     * @return
+     */
+    @PostMapping("/requests/plan-batch")
+    public BatchPlanResult planBatch(
+            @RequestHeader(value = "X-Actor", required = false) String xActor,
+            @Valid @RequestBody BatchPlanReq req
+    ) {
+        String actor = actor(xActor);
+        if (req.ids() != null && !req.ids().isEmpty()) {
+            try {
+                return planning.planAll(actor, req.ids());
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+        return planning.planDrafts(actor, req.limit() == null ? 100 : req.limit());
     }
 
     /**
@@ -106,35 +233,125 @@ public class WorkController {
             @PathVariable long id,
             @Valid @RequestBody ApproveReq req
     ) {
-        String actor = actor(xActor);
-        long t0 = System.currentTimeMillis();
-
         boolean ok = "APPROVE".equalsIgnoreCase(req.decision());
-        repo.approve(id, actor, ok);
-        repo.audit(id, actor, ok ? "APPROVE" : "REJECT",
-                req.comment() == null ? "" : req.comment(),
-                true,
-                (int) (System.currentTimeMillis() - t0)
-        );
+        return approvals.decide(actor(xActor), id, ok, req.comment(), req.version())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "요청 없음. id=" + id));
+    }
+
+    /**
+     * 승인 대기함 (PLANNED, 오래된 순 keyset 페이지네이션)
+     * @param cursor 이전 응답의 nextCursor (첫 페이지는 생략)
+     * @param limit 페이지 크기 (최대 200)
+     * @return
+     */
+    @GetMapping("/approvals/pending")
+    public RequestPage pendingApprovals(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return repo.pendingApprovals(cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
 
-        return Map.of("id", id, "status", ok ? "APPROVED" : "REJECTED");
+    /**
+     * 일괄 승인/반려 (최대 500건, PLANNED 인 요청만 변경)
+     * id별 결과: APPROVED/REJECTED(변경됨), SKIPPED(다른 상태), NOT_FOUND
+     * @param xActor
+     * @param req
+     * @return
+     */
+    @PostMapping("/approvals")
+    public BulkDecisionResult bulkApprove(
+            @RequestHeader(value = "X-Actor", required = false) String xActor,
+            @Valid @RequestBody BulkApproveReq req
+    ) {
+        boolean ok = "APPROVE".equalsIgnoreCase(req.decision());
+        return approvals.decideAll(actor(xActor), req.ids(), ok, req.comment());
     }
 
     /**
      * plan 실행(ToolRegistry)
+     * async=true 이면 job 큐에 넣고 202 + jobId 즉시 반환 (대기열이 가득 차면 429)
+     * 동기 실행 결과는 티켓/위키 id·제목만 (본문은 상세 조회)
      * @param xActor
      * @param id
+     * @param async
      * @return
      * @throws Exception
      */
     @PostMapping("/requests/{id}/execute")
+    @JsonView(Views.Summary.class)
     public Object execute(
             @RequestHeader(value = "X-Actor", required = false) String xActor,
-            @PathVariable long id
+            @PathVariable long id,
+            @RequestParam(defaultValue = "false") boolean async
     ) throws Exception {
+        if (async) {
+            try {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobs.submit(actor(xActor), id));
+            } catch (JobQueueFullException e) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+            }
+        }
         return exec.execute(actor(xActor), id);
     }
 
+    /**
+     * 실패한 요청 재개: 완료된 step은 건너뛰고 실패/미실행 step만 다시 실행
+     * (reaper가 회수한 요청 포함, 이미 만든 티켓/위키는 멱등 키로 중복 생성 안 됨)
+     * @param xActor
+     * @param id
+     * @return
+     * @throws Exception
+     */
+    @PostMapping("/requests/{id}/resume")
+    @JsonView(Views.Summary.class)
+    public Object resume(
+            @RequestHeader(value = "X-Actor", required = false) String xActor,
+            @PathVariable long id
+    ) throws Exception {
+        return exec.resume(actor(xActor), id);
+    }
+
+    /**
+     * 비동기 실행 job 상태
+     * @param jobId
+     * @return
+     */
+    @GetMapping("/jobs/{jobId}")
+    public Object job(@PathVariable long jobId) {
+        return jobs.find(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "job 없음: " + jobId));
+    }
+
+    /**
+     * 비동기 실행 job 진행 상태 스트림(SSE), DONE/FAILED 를 보내면 종료
+     * @param jobId
+     * @return
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = "text/event-stream")
+    public SseEmitter jobEvents(@PathVariable long jobId) {
+        return jobStream.subscribe(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "job 없음: " + jobId));
+    }
+
+    /**
+     * 변경 이벤트 feed (SSE): request.created / request.status / audit / ticket.created / wiki.created / job.status
+     * 재접속 시 Last-Event-ID 헤더(EventSource 가 자동으로 보냄) 또는 lastEventId 파라미터부터 이어서
+     * 이어받을 수 없으면 reset 이벤트 → 클라이언트가 다시 조회
+     * @param requestId 생략하면 전체
+     * @param lastEventIdHeader
+     * @param lastEventId
+     * @return
+     */
+    @GetMapping(value = "/events", produces = "text/event-stream")
+    public SseEmitter events(
+            @RequestParam(required = false) Long requestId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId
+    ) {
+        return events.subscribe(requestId, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
     /**
      * 통계
      * @return
@@ -143,4 +360,123 @@ public class WorkController {
     public Object stats() {
         return repo.stats();
     }
+
+    /**
+     * 시간대별 통계 (1시간 bucket)
+     * @param hours
+     * @return
+     */
+    @GetMapping("/ops/stats/hourly")
+    public Object hourlyStats(@RequestParam(defaultValue = "24") int hours) {
+        return repo.hourlyStats(Math.max(1, Math.min(hours, 24 * 31)));
+    }
+
+    /**
+     * 통계 집계 테이블 재계산
+     * @return
+     */
+    @PostMapping("/ops/stats/rebuild")
+    public Object rebuildStats() {
+        repo.rebuildStats();
+        return repo.stats();
+    }
+
+    /**
+     * plan 캐시 hit/miss
+     * @return
+     */
+    @GetMapping("/ops/plan-cache")
+    public Object planCacheStats() {
+        return planning.cacheStats();
+    }
+
+    /**
+     * 종료 상태 요청 읽기 캐시 (hit rate / 크기 / 제거 건수)
+     */
+    @GetMapping("/ops/request-cache")
+    public Object requestCacheStats() {
+        return requestCache.stats();
+    }
+
+    /**
+     * audit 비동기 기록기 상태 (큐 깊이/버린 건수)
+     * @return
+     */
+    @GetMapping("/ops/audit-writer")
+    public Object auditWriterStats() {
+        return audit.stats();
+    }
+
+    /**
+     * audit_log 월별 partition / 보관 파일 목록
+     */
+    @GetMapping("/ops/audit-partitions")
+    public Object auditPartitions() {
+        return auditPartitions.status();
+    }
+
+    /**
+     * partition 생성/분리/보관을 주기 기다리지 않고 바로 실행
+     */
+    @PostMapping("/ops/audit-partitions/maintain")
+    public Object maintainAuditPartitions() {
+        return auditPartitions.maintain();
+    }
+
+    /**
+     * 보관된 달(yyyy-MM)을 DB 로 다시 적재 (restore-hold 동안 유지)
+     */
+    @PostMapping("/ops/audit-partitions/{month}/restore")
+    public Object restoreAuditPartition(@PathVariable String month) {
+        try {
+            return auditPartitions.restore(month)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "보관 파일 없음: " + month));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/ops/events")
+    public Object eventStats() {
+        return events.stats();
+    }
+
+    /**
+     * AI 서비스 endpoint 별 circuit breaker 상태 / 현재 timeout / 최근 지연 분위수
+     */
+    @GetMapping("/ops/ai")
+    public Object aiStats() {
+        return ai.stats();
+    }
+
+    /**
+     * tool 별 실행 한도(동시 실행 수 / rate limit / timeout)와 실행·거절·timeout 건수
+     */
+    @GetMapping("/ops/tools")
+    public Object toolStats() {
+        return tools.stats();
+    }
+
+    /**
+     * 이 노드의 tool 실행 한도 변경 (재기동하면 설정값으로 돌아감)
+     */
+    @PostMapping("/ops/tools/{name}/limits")
+    public Object updateToolLimits(@PathVariable String name, @RequestBody ToolLimitsReq req) {
+        Duration timeout = req.timeoutMs() == null ? null : Duration.ofMillis(req.timeoutMs());
+        try {
+            return tools.updateLimits(name, new ToolProperties.Limits(req.maxConcurrency(), req.ratePerSecond(), timeout))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "tool 없음: " + name));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * tool descriptor / 설정 다시 읽기 (args 설명이 바뀌면 다음 계획부터 반영)
+     */
+    @PostMapping("/ops/tools/{name}/reload")
+    public Object reloadTool(@PathVariable String name) {
+        return tools.reload(name)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "tool 없음: " + name));
+    }
 }
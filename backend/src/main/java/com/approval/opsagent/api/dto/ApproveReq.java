@@ -4,5 +4,6 @@ import jakarta.validation.constraints.NotBlank;
 
 public record ApproveReq(
         @NotBlank String decision, // APPROVE or REJECT
-        String comment
+        String comment,
+        Long version // 선택: 화면에서 본 plan의 version (그 사이 재계획됐으면 409)
 ) {}
@@ -0,0 +1,14 @@
+package com.approval.opsagent.api.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/** ids 를 비우면 오래된 DRAFT 부터 limit 개 */
+public record BatchPlanReq(
+        @Size(max = 500) List<@NotNull Long> ids,
+        @Min(1) @Max(500) Integer limit
+) {}
@@ -0,0 +1,15 @@
+package com.approval.opsagent.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkApproveReq(
+        @NotEmpty @Size(max = 500) List<@NotNull Long> ids,
+        @NotBlank @Pattern(regexp = "(?i)APPROVE|REJECT") String decision,
+        String comment
+) {}
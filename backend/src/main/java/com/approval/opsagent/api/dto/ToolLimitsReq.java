@@ -0,0 +1,8 @@
+package com.approval.opsagent.api.dto;
+
+/** 비어 있는 항목은 바꾸지 않음 (설정/tool 선언값 유지) */
+public record ToolLimitsReq(
+        Integer maxConcurrency,
+        Double ratePerSecond, // 0 = 제한 없음
+        Long timeoutMs
+) {}
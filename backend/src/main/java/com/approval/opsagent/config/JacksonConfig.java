@@ -0,0 +1,29 @@
+package com.approval.opsagent.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 서비스 공용 ObjectMapper (plan/AI payload/result_json 직렬화)
+ * - MVC 응답은 Boot 기본(Jackson 3) 그대로, 이 빈은 내부 JSON 처리 전용
+ * - 서비스마다 new ObjectMapper() 하지 않고 하나를 공유 (thread-safe, 직렬화기 캐시 재사용)
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        return newObjectMapper();
+    }
+
+    /** 스프링 컨텍스트 밖(벤치마크 등)에서도 같은 설정을 쓰기 위한 팩토리 */
+    public static ObjectMapper newObjectMapper() {
+        return new ObjectMapper()
+                // LLM이 스키마에 없는 필드를 붙여도 plan 자체는 유효하게 처리
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                // "dependsOn": 1 처럼 배열 대신 단일 값이 와도 허용
+                .configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
+    }
+}
@@ -0,0 +1,66 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.core.model.BulkDecisionResult;
+import com.approval.opsagent.core.model.RequestStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 승인/반려
+ * - PLANNED 인 요청만 조건부 UPDATE로 변경 (version을 넘기면 그 plan 버전일 때만)
+ * - 일괄 처리: 상태 변경은 UPDATE 1회, audit(APPROVE/REJECT)은 batch INSERT 1회 → 요청 수와 상관없이 커넥션 1개, 왕복 2번
+ * - 둘을 한 트랜잭션으로 묶어서 상태만 바뀌고 감사로그가 빠지는 경우가 없도록
+ */
+@Service
+public class ApprovalService {
+    private final WorkRepo repo;
+    private final AuditWriter audit;
+
+    public ApprovalService(WorkRepo repo, AuditWriter audit) {
+        this.repo = repo;
+        this.audit = audit;
+    }
+
+    /** @return 없는 요청이면 empty */
+    @Transactional
+    public Optional<Map<String, Object>> decide(String actor, long id, boolean approve, String comment, Long version) {
+        long t0 = System.currentTimeMillis();
+        RequestStatus to = approve ? RequestStatus.APPROVED : RequestStatus.REJECTED;
+        if (!repo.approve(id, actor, approve, version)) {
+            Optional<RequestStatus> status = repo.findStatus(id);
+            if (status.isEmpty()) return Optional.empty();
+            RequestStatus current = status.get();
+            if (current == RequestStatus.PLANNED) {
+                throw new ConflictException("계획이 변경됨. 다시 확인 후 승인해줘. id=" + id);
+            }
+            throw new ConflictException("승인/반려할 수 없는 상태. 현재=" + current);
+        }
+        audit.audit(id, actor, approve ? "APPROVE" : "REJECT", comment == null ? "" : comment, true,
+                (int) (System.currentTimeMillis() - t0));
+        return Optional.of(Map.of("id", id, "status", to.name()));
+    }
+
+    @Transactional
+    public BulkDecisionResult decideAll(String actor, List<Long> ids, boolean approve, String comment) {
+        long t0 = System.currentTimeMillis();
+        // 같은 id 중복 전달은 한 번만 처리 (순서는 유지)
+        List<Long> unique = List.copyOf(new LinkedHashSet<>(ids));
+        List<BulkDecisionResult.Item> results = repo.decideAll(unique, actor, approve);
+
+        String decision = approve ? "APPROVED" : "REJECTED";
+        List<Long> changed = new ArrayList<>();
+        for (BulkDecisionResult.Item r : results) {
+            if (decision.equals(r.outcome())) changed.add(r.id());
+        }
+        audit.auditAll(changed, actor, approve ? "APPROVE" : "REJECT", comment == null ? "" : comment, true,
+                (int) (System.currentTimeMillis() - t0));
+
+        return new BulkDecisionResult(decision, unique.size(), changed.size(), results);
+    }
+}
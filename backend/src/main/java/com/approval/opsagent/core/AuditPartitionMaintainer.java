@@ -0,0 +1,225 @@
+package com.approval.opsagent.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * audit_log 월별 partition 유지 (V12, V17)
+ * - 이번 달 + premakeMonths 개월 partition 을 미리 생성 (대부분의 INSERT 가 default partition 이 아닌 월별 partition 으로)
+ * - default partition 에 들어간 행(범위 밖 at)은 그 달 partition 을 만들어 옮김
+ * - retentionMonths 보다 오래된 partition 은 DETACH → NDJSON.gz 로 보관 → 행 수 확인 후 집계에서 빼고 DROP
+ *   보관 중 실패하면 분리된 테이블이 그대로 남아 있고 다음 주기에 다시 보관
+ * - restore: 보관 파일을 같은 이름의 partition 으로 다시 적재하고 집계에 더함 (restoreHold 동안은 다시 분리하지 않음)
+ * - 여러 노드가 동시에 돌면 한쪽은 실패 로그만 남기고 다음 주기에 정리됨
+ */
+@Component
+public class AuditPartitionMaintainer {
+    private static final Logger log = LoggerFactory.getLogger(AuditPartitionMaintainer.class);
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'audit_log_y'yyyy'm'MM");
+    private static final String SUFFIX = ".ndjson.gz";
+    private static final int IMPORT_BATCH = 1000;
+
+    private final AuditPartitionRepo repo;
+    private final AuditPartitionProperties props;
+
+    public AuditPartitionMaintainer(AuditPartitionRepo repo, AuditPartitionProperties props) {
+        this.repo = repo;
+        this.props = props;
+    }
+
+    @Scheduled(initialDelayString = "${audit.partition.check-interval:1h}", fixedDelayString = "${audit.partition.check-interval:1h}")
+    public void scheduled() {
+        if (!props.isEnabled()) return;
+        try {
+            Map<String, Object> r = maintain();
+            if (!((List<?>) r.get("created")).isEmpty() || !((List<?>) r.get("split")).isEmpty()
+                    || !((List<?>) r.get("archived")).isEmpty()) {
+                log.info("audit partitions: {}", r);
+            }
+        } catch (RuntimeException e) {
+            log.warn("audit partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized Map<String, Object> maintain() {
+        YearMonth now = YearMonth.now(ZoneOffset.UTC);
+        List<String> created = repo.ensure(start(now), props.getPremakeMonths() + 1);
+        List<String> split = repo.splitDefault();
+
+        List<String> detached = new ArrayList<>();
+        YearMonth keepFrom = now.minusMonths(props.getRetentionMonths());
+        for (Map<String, Object> p : repo.attached()) {
+            String name = (String) p.get("name");
+            YearMonth month = monthOf(name);
+            if (month == null) continue;
+            if (Boolean.TRUE.equals(p.get("detach_pending"))) {
+                repo.finalizeDetach(name);
+                detached.add(name);
+            } else if (props.getRetentionMonths() > 0 && month.isBefore(keepFrom)
+                    && !repo.restoredWithin(name, props.getRestoreHold())) {
+                repo.detach(name);
+                detached.add(name);
+            }
+        }
+
+        List<String> archived = new ArrayList<>();
+        for (String name : repo.detached()) {
+            long rows = archive(name);
+            repo.drop(name);
+            archived.add(name);
+            log.info("audit partition {} archived ({} rows) and dropped", name, rows);
+        }
+
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("created", created);
+        r.put("split", split);
+        r.put("detached", detached);
+        r.put("archived", archived);
+        return r;
+    }
+
+    /**
+     * 보관 파일을 partition 으로 다시 적재 (partition 생성 + INSERT 를 한 트랜잭션으로)
+     * @return 보관 파일이 없으면 empty
+     * @throws IllegalArgumentException month 가 yyyy-MM 이 아님
+     */
+    @Transactional
+    public synchronized Optional<Map<String, Object>> restore(String month) {
+        YearMonth ym;
+        try {
+            ym = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("month 형식은 yyyy-MM");
+        }
+        String name = ym.format(NAME);
+        Path file = archiveDir().resolve(name + SUFFIX);
+        if (!Files.isRegularFile(file)) return Optional.empty();
+        boolean exists = repo.detached().contains(name)
+                || repo.attached().stream().anyMatch(p -> name.equals(p.get("name")));
+        if (exists) throw new ConflictException("이미 DB 에 있는 partition: " + name);
+
+        repo.ensure(start(ym), 1);
+        long lines = 0, restored = 0;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            List<String> batch = new ArrayList<>(IMPORT_BATCH);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) continue;
+                lines++;
+                batch.add(line);
+                if (batch.size() >= IMPORT_BATCH) {
+                    restored += repo.importRows(name, batch);
+                    batch.clear();
+                }
+            }
+            restored += repo.importRows(name, batch);
+        } catch (IOException e) {
+            throw new UncheckedIOException("보관 파일 읽기 실패: " + file.getFileName(), e);
+        }
+        repo.addToStats(name);
+        repo.markRestored(name);
+        log.info("audit partition {} restored ({} / {} rows)", name, restored, lines);
+
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("partition", name);
+        r.put("lines", lines);
+        r.put("restored", restored);
+        r.put("skipped", lines - restored);
+        return Optional.of(r);
+    }
+
+    /** DB partition 목록 + 보관 파일 목록 */
+    public Map<String, Object> status() {
+        List<Map<String, Object>> archives = new ArrayList<>();
+        Path dir = archiveDir();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "audit_log_y*" + SUFFIX)) {
+                for (Path f : files) {
+                    String name = f.getFileName().toString();
+                    archives.add(Map.of("partition", name.substring(0, name.length() - SUFFIX.length()),
+                            "file", name, "bytes", Files.size(f)));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            archives.sort((a, b) -> ((String) a.get("partition")).compareTo((String) b.get("partition")));
+        }
+
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("enabled", props.isEnabled());
+        r.put("retentionMonths", props.getRetentionMonths());
+        r.put("partitions", repo.attached());
+        r.put("detached", repo.detached());
+        r.put("archives", archives);
+        return r;
+    }
+
+    /** tmp 파일에 쓰고 행 수가 맞을 때만 이름 변경 → 반쯤 쓴 파일이 보관본으로 남지 않음 */
+    private long archive(String name) {
+        Path dir = archiveDir();
+        Path file = dir.resolve(name + SUFFIX);
+        Path tmp = dir.resolve(name + SUFFIX + "." + System.nanoTime() + ".tmp");
+        try {
+            Files.createDirectories(dir);
+            long lines;
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024), StandardCharsets.UTF_8))) {
+                lines = repo.export(name, out);
+            }
+            long rows = repo.count(name);
+            if (lines != rows) {
+                throw new IllegalStateException("보관 행 수 불일치: " + name + " file=" + lines + " db=" + rows);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("보관 실패: " + name, e);
+        } finally {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {}
+        }
+    }
+
+    private Path archiveDir() {
+        return Path.of(props.getArchiveDir());
+    }
+
+    private static Instant start(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private static YearMonth monthOf(String name) {
+        if (!AuditPartitionRepo.NAME.matcher(name).matches()) return null;
+        return YearMonth.parse(name, NAME);
+    }
+}
@@ -0,0 +1,34 @@
+package com.approval.opsagent.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "audit.partition")
+public class AuditPartitionProperties {
+    // false 면 partition 생성/분리 작업을 하지 않음 (V12 에서 만든 partition 만 사용)
+    private boolean enabled = true;
+    // 이번 달 이후로 미리 만들어 둘 partition 수 (범위 밖 INSERT 는 audit_log_default(V17)에 들어갔다가 그 달 partition 을 만들 때 옮겨짐)
+    private int premakeMonths = 3;
+    // 이번 달을 빼고 DB 에 남길 개월 수, 지난 partition 은 분리 → archiveDir 에 보관 → DROP (0 이면 보관하지 않음)
+    private int retentionMonths = 12;
+    // 보관 파일 위치 (audit_log_yYYYYmMM.ndjson.gz)
+    private String archiveDir = "data/audit-archive";
+    // 복원한 partition 은 이 기간 동안 다시 분리하지 않음
+    private Duration restoreHold = Duration.ofDays(7);
+    // 점검 주기
+    private Duration checkInterval = Duration.ofHours(1);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getPremakeMonths() { return premakeMonths; }
+    public void setPremakeMonths(int premakeMonths) { this.premakeMonths = premakeMonths; }
+    public int getRetentionMonths() { return retentionMonths; }
+    public void setRetentionMonths(int retentionMonths) { this.retentionMonths = retentionMonths; }
+    public String getArchiveDir() { return archiveDir; }
+    public void setArchiveDir(String archiveDir) { this.archiveDir = archiveDir; }
+    public Duration getRestoreHold() { return restoreHold; }
+    public void setRestoreHold(Duration restoreHold) { this.restoreHold = restoreHold; }
+    public Duration getCheckInterval() { return checkInterval; }
+    public void setCheckInterval(Duration checkInterval) { this.checkInterval = checkInterval; }
+}
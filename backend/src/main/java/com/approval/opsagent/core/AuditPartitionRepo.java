@@ -0,0 +1,157 @@
+package com.approval.opsagent.core;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * audit_log 월별 partition 관리 (V12, default partition 은 V17)
+ * partition 이름은 audit_log_yYYYYmMM 고정 → 동적 SQL 에 넣기 전에 항상 이름 형식 검사
+ */
+@Repository
+public class AuditPartitionRepo {
+    static final Pattern NAME = Pattern.compile("audit_log_y\\d{4}m\\d{2}");
+    private static final int EXPORT_FETCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbc;
+
+    public AuditPartitionRepo(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** from 이 속한 달부터 months 개월치 생성, 새로 만든 이름 반환 */
+    public List<String> ensure(Instant from, int months) {
+        return jdbc.queryForList("SELECT audit_log_ensure_partitions(?::timestamptz, ?)", String.class,
+                from.toString(), months);
+    }
+
+    /** default partition 에 들어간 행을 월별 partition 으로 옮김, 새로 만든 이름 반환 */
+    public List<String> splitDefault() {
+        return jdbc.queryForList("SELECT audit_log_split_default()", String.class);
+    }
+
+    /** 붙어 있는 partition (detach 진행 중인 것, default 포함) */
+    public List<Map<String, Object>> attached() {
+        return jdbc.queryForList("""
+      SELECT c.relname AS name,
+             pg_get_expr(c.relpartbound, c.oid) AS bound,
+             i.inhdetachpending AS detach_pending,
+             GREATEST(c.reltuples, 0)::bigint AS rows_estimate,
+             pg_total_relation_size(c.oid) AS bytes,
+             obj_description(c.oid, 'pg_class') AS note
+      FROM pg_inherits i
+      JOIN pg_class c ON c.oid = i.inhrelid
+      WHERE i.inhparent = 'audit_log'::regclass
+      ORDER BY c.relname
+    """);
+    }
+
+    /** 분리됐지만 아직 보관/삭제되지 않은 partition (보관 중 실패했던 것) */
+    public List<String> detached() {
+        return jdbc.queryForList("""
+      SELECT c.relname FROM pg_class c
+      WHERE c.relkind = 'r' AND c.relname ~ '^audit_log_y[0-9]{4}m[0-9]{2}$' AND NOT c.relispartition
+      ORDER BY c.relname
+    """, String.class);
+    }
+
+    /** 최근 hold 안에 복원된 partition 인지 (COMMENT 'restored <시각>') */
+    public boolean restoredWithin(String name, Duration hold) {
+        Boolean r = jdbc.queryForObject("""
+      SELECT COALESCE(bool_or(substr(d, 10)::timestamptz > now() - make_interval(secs => ?)), false)
+      FROM (SELECT obj_description(to_regclass(?), 'pg_class') AS d) x
+      WHERE d LIKE 'restored %'
+    """, Boolean.class, hold.toSeconds(), name);
+        return Boolean.TRUE.equals(r);
+    }
+
+    public void markRestored(String name) {
+        // COMMENT 는 literal 만 받음 (Instant 문자열은 따옴표가 없어서 그대로 넣어도 안전)
+        jdbc.execute("COMMENT ON TABLE " + ident(name) + " IS 'restored " + Instant.now() + "'");
+    }
+
+    /** default partition 이 있으면 CONCURRENTLY 가 안 됨 → 일반 DETACH (부모를 잠깐 배타 잠금, 월 1회) */
+    public void detach(String name) {
+        jdbc.execute("ALTER TABLE audit_log DETACH PARTITION " + ident(name));
+    }
+
+    /** V17 이전 CONCURRENTLY 가 중간에 끊겨 pending 으로 남은 경우 마무리 */
+    public void finalizeDetach(String name) {
+        jdbc.execute("ALTER TABLE audit_log DETACH PARTITION " + ident(name) + " FINALIZE");
+    }
+
+    public long count(String name) {
+        Long n = jdbc.queryForObject("SELECT count(*) FROM " + ident(name), Long.class);
+        return n == null ? 0 : n;
+    }
+
+    /** 집계에서 이 partition 행을 빼고 DROP (한 트랜잭션, 집계 = 지금 audit_log 에 있는 행) */
+    @Transactional
+    public void drop(String name) {
+        jdbc.queryForList("SELECT ops_stats_audit_partition(?::regclass, -1)", ident(name));
+        jdbc.execute("DROP TABLE " + ident(name));
+    }
+
+    /** 복원한 partition 행을 집계에 더함 (partition 에 직접 INSERT 해서 부모 trigger 가 발동하지 않았으므로) */
+    public void addToStats(String name) {
+        jdbc.queryForList("SELECT ops_stats_audit_partition(?::regclass, 1)", ident(name));
+    }
+
+    /** 행을 한 줄에 JSON 하나씩 out 으로 (cursor 로 fetch 해서 테이블 크기와 무관하게 메모리 일정), 쓴 줄 수 반환 */
+    public long export(String name, Writer out) {
+        Long n = jdbc.execute((ConnectionCallback<Long>) con -> {
+            boolean auto = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT row_to_json(a)::text FROM " + ident(name) + " a ORDER BY a.at, a.id")) {
+                ps.setFetchSize(EXPORT_FETCH_SIZE);
+                long lines = 0;
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.write(rs.getString(1));
+                        out.write('\n');
+                        lines++;
+                    }
+                }
+                con.commit();
+                return lines;
+            } catch (IOException e) {
+                con.rollback();
+                throw new UncheckedIOException(e);
+            } finally {
+                con.setAutoCommit(auto);
+            }
+        });
+        return n == null ? 0 : n;
+    }
+
+    /**
+     * JSON 행들을 partition 에 직접 INSERT (부모의 집계/이벤트 statement trigger 는 발동하지 않음 → 집계는 addToStats)
+     * 그 사이 삭제된 요청의 행은 건너뜀, 넣은 행 수 반환
+     */
+    public int importRows(String name, List<String> jsonRows) {
+        if (jsonRows.isEmpty()) return 0;
+        return jdbc.update("INSERT INTO " + ident(name) + """
+       SELECT r.* FROM json_populate_recordset(NULL::audit_log, ?::json) r
+      WHERE EXISTS (SELECT 1 FROM work_request w WHERE w.id = r.request_id)
+      ON CONFLICT DO NOTHING
+    """, "[" + String.join(",", jsonRows) + "]");
+    }
+
+    private static String ident(String name) {
+        if (!NAME.matcher(name).matches()) throw new IllegalArgumentException("invalid audit partition: " + name);
+        return '"' + name + '"';
+    }
+}
@@ -0,0 +1,41 @@
+package com.approval.opsagent.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "audit")
+public class AuditProperties {
+    // ASYNC: syncActions 외에는 큐에 넣고 batch로 기록 / SYNC: 전부 호출 스레드에서 바로 INSERT
+    private Mode mode = Mode.ASYNC;
+    // 항상 동기 기록(컴플라이언스 이벤트)
+    private Set<String> syncActions = Set.of("APPROVE", "REJECT");
+    // 큐 최대 크기 (가득 차면 버리고 dropped 증가)
+    private int queueCapacity = 10_000;
+    // 이 개수가 쌓이면 바로 flush
+    private int batchSize = 500;
+    // 개수가 안 차도 이 간격마다 flush
+    private Duration flushInterval = Duration.ofMillis(200);
+    // batch INSERT 실패 시 같은 batch 재시도 횟수 (다 실패하면 그때 버리고 dropped 증가)
+    private int flushRetries = 3;
+    // 첫 재시도 전 대기, 재시도마다 2배
+    private Duration flushRetryBackoff = Duration.ofMillis(200);
+
+    public enum Mode { ASYNC, SYNC }
+
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+    public Set<String> getSyncActions() { return syncActions; }
+    public void setSyncActions(Set<String> syncActions) { this.syncActions = syncActions; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    public Duration getFlushInterval() { return flushInterval; }
+    public void setFlushInterval(Duration flushInterval) { this.flushInterval = flushInterval; }
+    public int getFlushRetries() { return flushRetries; }
+    public void setFlushRetries(int flushRetries) { this.flushRetries = flushRetries; }
+    public Duration getFlushRetryBackoff() { return flushRetryBackoff; }
+    public void setFlushRetryBackoff(Duration flushRetryBackoff) { this.flushRetryBackoff = flushRetryBackoff; }
+}
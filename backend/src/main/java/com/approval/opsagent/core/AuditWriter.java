@@ -0,0 +1,217 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.core.model.AuditEntry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * audit_log 기록
+ * - syncActions(APPROVE/REJECT 등)나 mode=SYNC 이면 호출 스레드에서 바로 INSERT
+ * - 나머지(TOOL/PLAN 등 텔레메트리)는 lock-free 큐에 넣고, flush 스레드가 batchSize/flushInterval 기준으로 batch INSERT
+ * - batch INSERT 가 실패하면 flushRetries 번까지 backoff 후 재시도, 제약 위반이면 한 건씩 기록 (문제 행만 버림)
+ * - 종료 시 큐에 남은 항목을 모두 기록한 뒤 멈춤
+ * - trace_id: 호출 스레드의 현재 span trace (flush 스레드에는 span이 없어서 큐에 넣을 때 잡아둠)
+ */
+@Component
+public class AuditWriter implements SmartLifecycle, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(AuditWriter.class);
+
+    private final WorkRepo repo;
+    private final AuditProperties props;
+    private final Tracer tracer;
+
+    private final Queue<AuditEntry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    public AuditWriter(WorkRepo repo, AuditProperties props, Tracer tracer) {
+        this.repo = repo;
+        this.props = props;
+        this.tracer = tracer;
+    }
+
+    public void audit(long requestId, String actor, String action, String message, boolean success, int latencyMs) {
+        String traceId = traceId();
+        if (isSync(action)) {
+            repo.audit(requestId, actor, action, message, success, latencyMs, traceId);
+            written.incrementAndGet();
+            return;
+        }
+        enqueue(new AuditEntry(requestId, actor, action, message, success, latencyMs, Instant.now(), traceId));
+    }
+
+    /** 같은 action을 여러 요청에 한 번에 기록 (동기 대상이면 batch INSERT 1회, 아니면 큐) */
+    public void auditAll(List<Long> requestIds, String actor, String action, String message, boolean success, int latencyMs) {
+        if (requestIds.isEmpty()) return;
+        String traceId = traceId();
+        Instant at = Instant.now();
+        List<AuditEntry> entries = new ArrayList<>(requestIds.size());
+        for (long id : requestIds) entries.add(new AuditEntry(id, actor, action, message, success, latencyMs, at, traceId));
+
+        if (isSync(action)) {
+            repo.auditBatch(entries);
+            written.addAndGet(entries.size());
+            return;
+        }
+        entries.forEach(this::enqueue);
+    }
+
+    private boolean isSync(String action) {
+        return props.getMode() == AuditProperties.Mode.SYNC || props.getSyncActions().contains(action) || !running;
+    }
+
+    private void enqueue(AuditEntry e) {
+        if (depth.incrementAndGet() > props.getQueueCapacity()) {
+            depth.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.add(e);
+        if (depth.get() >= props.getBatchSize()) LockSupport.unpark(flusher);
+    }
+
+    private String traceId() {
+        Span span = tracer.currentSpan();
+        return span == null || span.isNoop() ? null : span.context().traceId();
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "mode", props.getMode().name(),
+                "queueDepth", depth.get(),
+                "written", written.get(),
+                "dropped", dropped.get(),
+                "failedFlushes", failedFlushes.get()
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("opsagent.audit.queue.depth", depth, AtomicInteger::get).register(registry);
+        FunctionCounter.builder("opsagent.audit.written", written, AtomicLong::get).register(registry);
+        FunctionCounter.builder("opsagent.audit.dropped", dropped, AtomicLong::get).register(registry);
+        FunctionCounter.builder("opsagent.audit.flush.failures", failedFlushes, AtomicLong::get).register(registry);
+    }
+
+    private void flushLoop() {
+        long intervalNanos = props.getFlushInterval().toNanos();
+        while (running) {
+            if (depth.get() < props.getBatchSize()) LockSupport.parkNanos(this, intervalNanos);
+            flush();
+        }
+        // graceful drain
+        while (depth.get() > 0) flush();
+    }
+
+    private void flush() {
+        List<AuditEntry> batch = new ArrayList<>(Math.min(depth.get(), props.getBatchSize()));
+        AuditEntry e;
+        while (batch.size() < props.getBatchSize() && (e = queue.poll()) != null) batch.add(e);
+        if (batch.isEmpty()) return;
+        depth.addAndGet(-batch.size());
+
+        long backoffMs = props.getFlushRetryBackoff().toMillis();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                repo.auditBatch(batch);
+                written.addAndGet(batch.size());
+                return;
+            } catch (DataIntegrityViolationException ex) {
+                // 재시도해도 같은 결과 (예: 그 사이 삭제된 요청) → 한 건씩 기록해서 문제 행만 버림
+                failedFlushes.incrementAndGet();
+                writeEach(batch);
+                return;
+            } catch (RuntimeException ex) {
+                failedFlushes.incrementAndGet();
+                if (attempt >= props.getFlushRetries() || !sleep(backoffMs << attempt)) {
+                    dropped.addAndGet(batch.size());
+                    log.warn("audit batch flush failed after {} attempts ({} entries dropped): {}",
+                            attempt + 1, batch.size(), ex.getMessage());
+                    return;
+                }
+                log.debug("audit batch flush failed (attempt {}), retrying: {}", attempt + 1, ex.getMessage());
+            }
+        }
+    }
+
+    private void writeEach(List<AuditEntry> batch) {
+        int lost = 0;
+        for (AuditEntry e : batch) {
+            try {
+                repo.auditBatch(List.of(e));
+                written.incrementAndGet();
+            } catch (RuntimeException ex) {
+                lost++;
+                log.debug("audit entry dropped (request {}): {}", e.requestId(), ex.getMessage());
+            }
+        }
+        if (lost > 0) {
+            dropped.addAndGet(lost);
+            log.warn("audit batch had rejected rows ({} of {} entries dropped)", lost, batch.size());
+        }
+    }
+
+    private static boolean sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread t = new Thread(this::flushLoop, "audit-flusher");
+        t.setDaemon(true);
+        flusher = t;
+        t.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread t = flusher;
+        if (t == null) return;
+        LockSupport.unpark(t);
+        try {
+            t.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // flush 스레드 종료 직전에 들어온 항목까지 기록
+        while (depth.get() > 0) flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
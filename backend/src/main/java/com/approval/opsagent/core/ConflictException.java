@@ -0,0 +1,8 @@
+package com.approval.opsagent.core;
+
+/** 상태 전이 충돌 (허용되지 않은 전이 / 다른 요청이 먼저 상태를 바꿈) → API 에서 409 */
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
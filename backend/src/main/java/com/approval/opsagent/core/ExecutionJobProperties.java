@@ -0,0 +1,30 @@
+package com.approval.opsagent.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "execution.jobs")
+public class ExecutionJobProperties {
+    // 이 노드에서 동시에 실행할 job 수 (worker 스레드 수)
+    private int workers = 4;
+    // QUEUED job이 이 이상이면 새 요청은 429
+    private int maxQueued = 200;
+    // QUEUED job polling 간격
+    private long pollIntervalMs = 500;
+    // lease 가 끊겨(claim 후 실행 전에 노드가 죽음) 다시 QUEUED 로 돌리는 최대 횟수, 넘으면 FAILED
+    private int maxAttempts = 3;
+    // job SSE 구독자가 있는 job 을 다시 조회하는 주기 (변경 이벤트 feed 를 놓쳤거나 꺼져 있을 때)
+    private Duration eventsResync = Duration.ofSeconds(5);
+
+    public int getWorkers() { return workers; }
+    public void setWorkers(int workers) { this.workers = workers; }
+    public int getMaxQueued() { return maxQueued; }
+    public void setMaxQueued(int maxQueued) { this.maxQueued = maxQueued; }
+    public long getPollIntervalMs() { return pollIntervalMs; }
+    public void setPollIntervalMs(long pollIntervalMs) { this.pollIntervalMs = pollIntervalMs; }
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+    public Duration getEventsResync() { return eventsResync; }
+    public void setEventsResync(Duration eventsResync) { this.eventsResync = eventsResync; }
+}
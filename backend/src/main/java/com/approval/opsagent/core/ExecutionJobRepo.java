@@ -0,0 +1,128 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.core.model.ExecutionJob;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+@Repository
+public class ExecutionJobRepo {
+    /** claim 결과 (worker가 실행에 필요한 값만) */
+    public record ClaimedJob(long id, long requestId, String actor) {}
+    /** reaper 가 회수한 job (status: QUEUED = 다시 대기, FAILED) */
+    public record ReapedJob(long id, long requestId, String status) {}
+
+    private static final RowMapper<ExecutionJob> JOB = (rs, i) -> new ExecutionJob(
+            rs.getLong("id"),
+            rs.getLong("request_id"),
+            rs.getString("actor"),
+            rs.getString("status"),
+            rs.getString("error"),
+            rs.getString("claimed_by"),
+            rs.getObject("created_at", OffsetDateTime.class),
+            rs.getObject("started_at", OffsetDateTime.class),
+            rs.getObject("finished_at", OffsetDateTime.class)
+    );
+
+    private final JdbcTemplate jdbc;
+
+    public ExecutionJobRepo(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * QUEUED 가 maxQueued 미만일 때만 적재, 가득 찼으면 empty
+     * 개수 확인과 INSERT 사이에 다른 submit 이 끼지 않도록 advisory lock (트랜잭션 끝나면 해제)
+     */
+    @Transactional
+    public OptionalLong enqueue(long requestId, String actor, int maxQueued) {
+        jdbc.query("SELECT pg_advisory_xact_lock(hashtext('execution_job.enqueue'))", rs -> null);
+        Long id = jdbc.query("""
+      INSERT INTO execution_job(request_id, actor, status)
+      SELECT ?, ?, 'QUEUED'
+      WHERE (SELECT count(*) FROM execution_job WHERE status='QUEUED') < ?
+      RETURNING id
+    """, rs -> rs.next() ? rs.getLong(1) : null, requestId, actor, maxQueued);
+        return id == null ? OptionalLong.empty() : OptionalLong.of(id);
+    }
+
+    /**
+     * QUEUED job을 최대 limit개 가져가서 RUNNING으로 바꿈.
+     * SKIP LOCKED 라서 다른 인스턴스가 잡고 있는 row는 건너뜀 (대기 없음)
+     */
+    public List<ClaimedJob> claim(String worker, int limit) {
+        return jdbc.query("""
+      UPDATE execution_job
+      SET status='RUNNING', claimed_by=?, attempt=attempt+1, started_at=now(), updated_at=now()
+      WHERE id IN (
+        SELECT id FROM execution_job
+        WHERE status='QUEUED'
+        ORDER BY id
+        LIMIT ?
+        FOR UPDATE SKIP LOCKED
+      )
+      RETURNING id, request_id, actor
+    """, (rs, i) -> new ClaimedJob(rs.getLong("id"), rs.getLong("request_id"), rs.getString("actor")), worker, limit);
+    }
+
+    /** 이 worker 가 잡고 있을 때만 (lease 가 끊겨 회수된 뒤 다른 노드가 다시 잡았으면 무시) */
+    public void finish(long jobId, String worker, boolean ok, String error) {
+        jdbc.update("""
+      UPDATE execution_job
+      SET status=?, error=?, finished_at=now(), updated_at=now()
+      WHERE id=? AND status='RUNNING' AND claimed_by=?
+    """, ok ? "DONE" : "FAILED", error, jobId, worker);
+    }
+
+    /** lease 갱신 */
+    public void heartbeat(List<Long> jobIds, String worker) {
+        if (jobIds.isEmpty()) return;
+        jdbc.update("UPDATE execution_job SET updated_at=now() WHERE id = ANY(?) AND status='RUNNING' AND claimed_by=?",
+                jobIds.stream().mapToLong(Long::longValue).toArray(), worker);
+    }
+
+    /**
+     * reaper: lease 가 끊긴 RUNNING job 회수 (요청 상태와 무관)
+     * - 요청이 아직 APPROVED(실행 시작 전에 죽음)이고 attempt < maxAttempts → QUEUED 로 되돌림
+     * - 그 외 → FAILED (EXECUTING 이던 요청은 reapStaleExecuting 이 FAILED 로 → resume)
+     */
+    public List<ReapedJob> reapExpired(long staleAfterSeconds, int maxAttempts, String error) {
+        return jdbc.query("""
+      UPDATE execution_job j
+      SET status = CASE WHEN w.status='APPROVED' AND j.attempt < ? THEN 'QUEUED' ELSE 'FAILED' END,
+          claimed_by = CASE WHEN w.status='APPROVED' AND j.attempt < ? THEN NULL ELSE j.claimed_by END,
+          error = ?,
+          finished_at = CASE WHEN w.status='APPROVED' AND j.attempt < ? THEN NULL ELSE now() END,
+          updated_at = now()
+      FROM work_request w
+      WHERE w.id = j.request_id
+        AND j.status = 'RUNNING'
+        AND j.updated_at < now() - make_interval(secs => ?)
+      RETURNING j.id, j.request_id, j.status
+    """, (rs, i) -> new ReapedJob(rs.getLong("id"), rs.getLong("request_id"), rs.getString("status")),
+                maxAttempts, maxAttempts, error, maxAttempts, staleAfterSeconds);
+    }
+
+    /** reaper: 죽은 노드가 잡고 있던 RUNNING job 정리 (같은 요청으로 새 job을 넣을 수 있게) */
+    public int failRunning(List<Long> requestIds, String error) {
+        if (requestIds.isEmpty()) return 0;
+        return jdbc.update("""
+      UPDATE execution_job
+      SET status='FAILED', error=?, finished_at=now(), updated_at=now()
+      WHERE request_id = ANY(?) AND status='RUNNING'
+    """, error, requestIds.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    public Optional<ExecutionJob> find(long jobId) {
+        return jdbc.query("""
+      SELECT id, request_id, actor, status, error, claimed_by, created_at, started_at, finished_at
+      FROM execution_job WHERE id=?
+    """, JOB, jobId).stream().findFirst();
+    }
+}
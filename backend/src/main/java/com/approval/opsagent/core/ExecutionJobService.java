@@ -0,0 +1,153 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.core.model.ExecutionJob;
+import com.approval.opsagent.core.model.RequestStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 비동기 실행(job 큐)
+ * - submit: execution_job에 QUEUED로 적재하고 바로 반환 (큐가 가득 차면 JobQueueFullException)
+ * - poll: 빈 worker 수만큼 FOR UPDATE SKIP LOCKED로 claim → worker 풀에서 ExecutionService.execute
+ * - 진행 상태는 GET /api/jobs/{id} polling 또는 SSE(job.status 변경 이벤트라 어느 노드가 실행해도 전달)로 확인
+ * - RUNNING job 은 heartbeat 로 lease(updated_at) 갱신 → 노드가 죽으면 ExecutionReaper 가 다시 QUEUED 또는 FAILED 로
+ */
+@Service
+public class ExecutionJobService implements DisposableBean, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(ExecutionJobService.class);
+
+    private final ExecutionJobRepo jobs;
+    private final WorkRepo repo;
+    private final ExecutionService exec;
+    private final ExecutionJobProperties props;
+
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName();
+    private final Semaphore freeWorkers;
+    private final ExecutorService workers;
+    // 이 노드가 잡고 있는 job (lease heartbeat 대상)
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public ExecutionJobService(ExecutionJobRepo jobs, WorkRepo repo, ExecutionService exec, ExecutionJobProperties props) {
+        this.jobs = jobs;
+        this.repo = repo;
+        this.exec = exec;
+        this.props = props;
+        this.freeWorkers = new Semaphore(props.getWorkers());
+
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(props.getWorkers(), r -> {
+            Thread t = new Thread(r, "exec-job-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public Map<String, Object> submit(String actor, long requestId) {
+        RequestStatus status = repo.find(requestId).status();
+        if (status != RequestStatus.APPROVED) {
+            throw new ConflictException("승인 상태에서만 실행 가능. 현재=" + status);
+        }
+        // ✅ backpressure: 대기 job이 너무 많으면 바로 거절 (개수 확인 + 적재를 한 트랜잭션으로)
+        OptionalLong jobId;
+        try {
+            jobId = jobs.enqueue(requestId, actor, props.getMaxQueued());
+        } catch (DuplicateKeyException e) {
+            throw new ConflictException("이미 대기/실행 중인 job이 있는 요청. requestId=" + requestId);
+        }
+        if (jobId.isEmpty()) {
+            throw new JobQueueFullException("실행 대기열이 가득 찼어. 잠시 후 다시 시도해줘.");
+        }
+
+        poll(); // 여유 worker가 있으면 다음 polling까지 기다리지 않고 바로 claim
+        return Map.of("jobId", jobId.getAsLong(), "requestId", requestId, "status", "QUEUED");
+    }
+
+    public Optional<ExecutionJob> find(long jobId) {
+        return jobs.find(jobId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("opsagent.execute.jobs.busy", freeWorkers, w -> props.getWorkers() - w.availablePermits())
+                .description("이 노드에서 실행 중인 job 수").register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${execution.jobs.poll-interval-ms:500}",
+            fixedDelayString = "${execution.jobs.poll-interval-ms:500}")
+    public void poll() {
+        // 빈 worker 수만큼만 claim → 이 노드에서 꺼낸 job은 항상 바로 실행됨
+        int n = freeWorkers.drainPermits();
+        if (n == 0) return;
+
+        List<ExecutionJobRepo.ClaimedJob> claimed;
+        try {
+            claimed = jobs.claim(workerId, n);
+        } catch (DataAccessException e) {
+            freeWorkers.release(n);
+            log.warn("execution_job claim failed: {}", e.getMessage());
+            return;
+        }
+        freeWorkers.release(n - claimed.size());
+
+        for (ExecutionJobRepo.ClaimedJob job : claimed) {
+            workers.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    freeWorkers.release();
+                }
+            });
+        }
+    }
+
+    @Scheduled(initialDelayString = "${execution.heartbeat-interval:10s}", fixedDelayString = "${execution.heartbeat-interval:10s}")
+    public void heartbeat() {
+        if (running.isEmpty()) return;
+        try {
+            jobs.heartbeat(List.copyOf(running), workerId);
+        } catch (DataAccessException e) {
+            // 한 번 놓쳐도 staleAfter 안에 다시 갱신되면 됨
+        }
+    }
+
+    private void run(ExecutionJobRepo.ClaimedJob job) {
+        long jobId = job.id();
+        long requestId = job.requestId();
+        String actor = job.actor();
+
+        running.add(jobId);
+        try {
+            exec.execute(actor, requestId);
+            jobs.finish(jobId, workerId, true, null);
+        } catch (Exception e) {
+            log.warn("execution job {} failed: {}", jobId, e.getMessage());
+            jobs.finish(jobId, workerId, false, e.getMessage());
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // 실행 중인 job은 마저 끝내고 종료 (QUEUED는 DB에 남아 다른 노드/재기동 후 처리)
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
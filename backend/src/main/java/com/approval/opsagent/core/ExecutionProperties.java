@@ -0,0 +1,26 @@
+package com.approval.opsagent.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "execution")
+public class ExecutionProperties {
+    // 동시에 실행할 수 있는 step(tool) 수 (노드 전체 기준)
+    private int parallelism = 8;
+    // 실행 대기 step 큐 크기 (가득 차면 호출 스레드에서 직접 실행)
+    private int queueCapacity = 512;
+    // 실행 중 요청의 updated_at 갱신 주기 (노드가 살아 있다는 표시)
+    private Duration heartbeatInterval = Duration.ofSeconds(10);
+    // heartbeat가 이만큼 끊긴 EXECUTING 요청은 reaper가 FAILED로 돌림 (→ resume 가능)
+    private Duration staleAfter = Duration.ofMinutes(2);
+
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+    public Duration getHeartbeatInterval() { return heartbeatInterval; }
+    public void setHeartbeatInterval(Duration heartbeatInterval) { this.heartbeatInterval = heartbeatInterval; }
+    public Duration getStaleAfter() { return staleAfter; }
+    public void setStaleAfter(Duration staleAfter) { this.staleAfter = staleAfter; }
+}
@@ -0,0 +1,65 @@
+package com.approval.opsagent.core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * heartbeat가 끊긴 EXECUTING 요청 회수 (실행하던 노드가 죽은 경우)
+ * - work_request: EXECUTING → FAILED (조건부 UPDATE라 여러 노드가 동시에 돌아도 한 번만 회수)
+ * - journal의 RUNNING step / execution_job의 RUNNING job도 FAILED 로
+ * - 회수된 요청은 POST /api/requests/{id}/resume 으로 남은 step부터 재개
+ * - lease 가 끊긴 RUNNING job 은 요청 상태와 무관하게 회수 (claim 직후 실행 전에 죽은 경우: 다시 QUEUED)
+ */
+@Component
+public class ExecutionReaper {
+    private static final Logger log = LoggerFactory.getLogger(ExecutionReaper.class);
+    private static final String STALE = "stale: executor heartbeat timeout";
+    private static final String LEASE_EXPIRED = "stale: job lease expired";
+
+    private final WorkRepo repo;
+    private final ExecutionStepRepo steps;
+    private final ExecutionJobRepo jobs;
+    private final AuditWriter audit;
+    private final ExecutionProperties props;
+    private final ExecutionJobProperties jobProps;
+    private final String resultJson;
+
+    public ExecutionReaper(WorkRepo repo, ExecutionStepRepo steps, ExecutionJobRepo jobs, AuditWriter audit,
+                           ExecutionProperties props, ExecutionJobProperties jobProps, ObjectMapper om)
+            throws JsonProcessingException {
+        this.repo = repo;
+        this.steps = steps;
+        this.jobs = jobs;
+        this.audit = audit;
+        this.props = props;
+        this.jobProps = jobProps;
+        this.resultJson = om.writeValueAsString(Map.of("error", STALE));
+    }
+
+    @Scheduled(initialDelayString = "${execution.heartbeat-interval:10s}", fixedDelayString = "${execution.heartbeat-interval:10s}")
+    public void reap() {
+        try {
+            List<Long> ids = repo.reapStaleExecuting(props.getStaleAfter().toSeconds(), resultJson);
+            if (!ids.isEmpty()) {
+                steps.failRunning(ids, STALE);
+                jobs.failRunning(ids, STALE);
+                audit.auditAll(ids, "system", "REAP", STALE, false, 0);
+                log.warn("reaped {} stale EXECUTING requests: {}", ids.size(), ids);
+            }
+
+            List<ExecutionJobRepo.ReapedJob> expired =
+                    jobs.reapExpired(props.getStaleAfter().toSeconds(), jobProps.getMaxAttempts(), LEASE_EXPIRED);
+            if (!expired.isEmpty()) log.warn("reaped {} execution jobs with expired lease: {}", expired.size(), expired);
+        } catch (DataAccessException e) {
+            log.warn("execution reaper failed: {}", e.getMessage());
+        }
+    }
+}
@@ -1,84 +1,335 @@
 package com.approval.opsagent.core;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.approval.opsagent.core.model.ExecutionResult;
+import com.approval.opsagent.core.model.Plan;
+import com.approval.opsagent.core.model.RequestStatus;
+import com.approval.opsagent.core.model.WorkRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * plan 실행
+ * - step마다 execution_step journal 기록 (RUNNING → DONE/FAILED), tool에는 step 멱등 키 전달
+ * - resume: FAILED 요청을 DONE step은 건너뛰고(저장된 결과 재사용) 나머지만 다시 실행
+ *   idempotent 가 아닌 tool 이 timeout 으로 끝난 step 이 있으면 재개하지 않음 (실제로 실행됐는지 알 수 없음)
+ *   timeout 뒤 tool 이 실제로 끝나면 journal 을 실제 결과로 고침 (성공 → DONE, 실패 → 그 오류) → 그 step 은 다시 재개 가능
+ * - tool 실행은 ToolRegistry 를 거침 (tool 별 동시 실행 수 / rate limit / timeout)
+ * - 실행 중인 요청은 heartbeat로 updated_at 갱신 → 노드가 죽으면 ExecutionReaper가 FAILED로 회수
+ */
 @Service
-public class ExecutionService {
+public class ExecutionService implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ExecutionService.class);
+    private static final String EXECUTE_TIMER = "opsagent.execute";
+    private static final String TOOL_TIMER = "opsagent.execute.tool";
+
     private final WorkRepo repo;
+    private final ExecutionStepRepo steps;
     private final ToolRegistry registry;
-    private final ObjectMapper om = new ObjectMapper();
+    private final AuditWriter audit;
+    private final ObjectMapper om;
+    private final ExecutorService stepExecutor;
+    private final MeterRegistry meters;
+    private final Tracer tracer;
+    // 이 노드에서 실행 중인 요청 (heartbeat 대상)
+    private final Set<Long> executing = ConcurrentHashMap.newKeySet();
 
-    public ExecutionService(WorkRepo repo, ToolRegistry registry) {
+    public ExecutionService(WorkRepo repo, ExecutionStepRepo steps, ToolRegistry registry, AuditWriter audit,
+                            ExecutionProperties props, ObjectMapper om, MeterRegistry meters, Tracer tracer) {
         this.repo = repo;
+        this.steps = steps;
         this.registry = registry;
+        this.audit = audit;
+        this.om = om;
+        this.meters = meters;
+        this.tracer = tracer;
+        this.stepExecutor = newStepExecutor(props);
+
+        Gauge.builder("opsagent.execute.inflight", executing, Set::size)
+                .description("실행 중인 요청 수").register(meters);
+        // plan-step 풀 active/queued/completed
+        new ExecutorServiceMetrics(stepExecutor, "plan-step", List.of()).bindTo(meters);
     }
 
-    public Map<String, Object> execute(String actor, long requestId) throws Exception {
-        long start = System.currentTimeMillis();
+    public ExecutionResult execute(String actor, long requestId) throws Exception {
+        return run(actor, requestId, RequestStatus.APPROVED);
+    }
 
-        Map<String, Object> wr = repo.find(requestId);
-        String status = String.valueOf(wr.get("status"));
+    /** 실패(FAILED)한 요청을 마지막으로 완료된 step 다음부터 이어서 실행 */
+    public ExecutionResult resume(String actor, long requestId) throws Exception {
+        return run(actor, requestId, RequestStatus.FAILED);
+    }
 
-        if (!"APPROVED".equals(status)) {
-            throw new IllegalStateException("승인 상태에서만 실행 가능. 현재=" + status);
-        }
-        // 만약 완료 상태가 있다면 추가 차단
-        if ("DONE".equals(status) || "COMPLETED".equals(status)) {
-            throw new IllegalStateException("실행 완료된 요청.");
+    private ExecutionResult run(String actor, long requestId, RequestStatus from) throws Exception {
+        long begin = System.nanoTime();
+        boolean ok = false;
+        String mode = from == RequestStatus.FAILED ? "resume" : "execute";
+        Span span = tracer.nextSpan().name(mode).tag("request.id", requestId).start();
+        try (Tracer.SpanInScope ws = tracer.withSpan(span)) {
+            ExecutionResult r = doExecute(actor, requestId, from);
+            ok = true;
+            return r;
+        } catch (Exception e) {
+            span.error(e);
+            throw e;
+        } finally {
+            Timer.builder(EXECUTE_TIMER).tag("mode", mode).tag("outcome", ok ? "success" : "failure")
+                    .register(meters).record(System.nanoTime() - begin, TimeUnit.NANOSECONDS);
+            span.end();
         }
+    }
 
-        repo.markExecuting(requestId);
+    private ExecutionResult doExecute(String actor, long requestId, RequestStatus from) throws Exception {
+        long start = System.currentTimeMillis();
+
+        WorkRequest wr = repo.find(requestId);
+        if (wr.status() != from) {
+            throw new ConflictException(from == RequestStatus.FAILED
+                    ? "실패한 요청만 재개 가능. 현재=" + wr.status()
+                    : "승인 상태에서만 실행 가능. 현재=" + wr.status());
+        }
 
-        String planJson = (String) wr.get("plan_json");
+        String planJson = wr.planJson();
         if (planJson == null || planJson.isBlank()) {
             throw new IllegalStateException("plan_json이 없어. 먼저 계획 생성해줘.");
         }
 
-        List<Object> toolResults = new ArrayList<>();
+        if (from == RequestStatus.FAILED) checkTimedOutSteps(requestId);
+
+        // ✅ 읽은 version 그대로일 때만 EXECUTING 으로 (동시 execute는 하나만 통과, 나머지는 tool 실행 전에 409)
+        if (!repo.markExecuting(requestId, from, wr.version())) {
+            throw new ConflictException("이미 실행이 시작된 요청. id=" + requestId);
+        }
+
+        executing.add(requestId);
         try {
-            JsonNode root = om.readTree(planJson);
-            JsonNode steps = root.path("steps");
-            if (!steps.isArray()) throw new IllegalStateException("계획 형식 오류: steps 없음");
+            Plan plan = om.readValue(planJson, Plan.class);
+            PlanDag dag = PlanDag.of(plan.steps());
 
-            for (JsonNode s : steps) {
-                String toolName = s.path("tool").asText();
-                Map<String, Object> args = om.convertValue(s.path("args"), new TypeReference<>() {});
-                long t0 = System.currentTimeMillis();
+            // 재개면 journal의 DONE step 결과를 그대로 사용
+            Map<String, String> completed = from == RequestStatus.FAILED ? steps.completed(requestId) : Map.of();
 
-                try {
-                    Object r = registry.get(toolName).run(requestId, args);
-                    repo.audit(requestId, actor, "TOOL", toolName + " ok", true, (int) (System.currentTimeMillis() - t0));
-                    toolResults.add(Map.of("tool", toolName, "result", r));
-                } catch (Exception e) {
-                    repo.audit(requestId, actor, "TOOL", toolName + " fail: " + e.getMessage(), false, (int) (System.currentTimeMillis() - t0));
-                    throw e;
-                }
+            // ✅ 결과는 plan 순서 그대로 (result_json 형태 유지)
+            Object[] results = runDag(actor, requestId, dag, completed);
+            List<Object> toolResults = new ArrayList<>(results.length);
+            for (PlanDag.Step s : dag.steps()) {
+                toolResults.add(Map.of("tool", s.tool(), "result", results[s.index()]));
             }
 
             String resultJson = om.writeValueAsString(Map.of("toolResults", toolResults));
-            repo.finish(requestId, true, resultJson);
-            repo.audit(requestId, actor, "EXECUTE", "done", true, (int) (System.currentTimeMillis() - start));
+            if (!repo.finish(requestId, true, resultJson)) {
+                throw new ConflictException("실행 중 상태가 바뀜. id=" + requestId);
+            }
+            String message = completed.isEmpty() ? "done" : "done (resumed, " + completed.size() + " steps skipped)";
+            audit.audit(requestId, actor, "EXECUTE", message, true, (int) (System.currentTimeMillis() - start));
+
+            return new ExecutionResult(requestId, repo.tickets(requestId), repo.wiki(requestId));
+
+        } catch (Exception e) {
+            repo.finish(requestId, false, errorJson(e));
+            audit.audit(requestId, actor, "EXECUTE", "failed: " + e.getMessage(), false, (int) (System.currentTimeMillis() - start));
+            throw e;
+        } finally {
+            executing.remove(requestId);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${execution.heartbeat-interval:10s}", fixedDelayString = "${execution.heartbeat-interval:10s}")
+    public void heartbeat() {
+        if (executing.isEmpty()) return;
+        try {
+            repo.touchExecuting(List.copyOf(executing));
+        } catch (DataAccessException e) {
+            // 한 번 놓쳐도 staleAfter 안에 다시 갱신되면 됨
+        }
+    }
+
+    /**
+     * 선행 step이 끝난 step부터 stepExecutor에서 동시에 실행.
+     * 하나라도 실패하면 실행 중인 형제 step은 cancel(interrupt), 남은 step은 시작하지 않음.
+     * step span(execute.tool)은 풀 스레드에서 실행되므로 execute span을 부모로 명시
+     */
+    private Object[] runDag(String actor, long requestId, PlanDag dag, Map<String, String> completed) throws Exception {
+        Span parent = tracer.currentSpan();
+        Object[] results = new Object[dag.size()];
+        int[] pending = new int[dag.size()];
+        for (PlanDag.Step s : dag.steps()) pending[s.index()] = s.dependsOn().size();
+
+        // 이미 끝난 step은 결과만 채우고 완료 처리 (후행 step의 선행 조건 충족)
+        boolean[] done = new boolean[dag.size()];
+        for (PlanDag.Step s : dag.steps()) {
+            if (!completed.containsKey(s.id())) continue;
+            String json = completed.get(s.id());
+            results[s.index()] = json == null ? null : om.readTree(json);
+            done[s.index()] = true;
+            for (PlanDag.Step next : dag.dependentsOf(s)) pending[next.index()]--;
+        }
+
+        CompletionService<PlanDag.Step> cs = new ExecutorCompletionService<>(stepExecutor);
+        List<Future<PlanDag.Step>> inFlight = new ArrayList<>();
+        int running = 0;
+
+        for (PlanDag.Step s : dag.steps()) {
+            if (done[s.index()] || pending[s.index()] != 0) continue;
+            inFlight.add(cs.submit(() -> runStep(parent, actor, requestId, s, results)));
+            running++;
+        }
 
-            return Map.of(
-                    "requestId", requestId,
-                    "tickets", repo.tickets(requestId),
-                    "wikiPages", repo.wiki(requestId)
-            );
+        try {
+            while (running > 0) {
+                Future<PlanDag.Step> f = cs.take();
+                running--;
+                PlanDag.Step finished;
+                try {
+                    finished = f.get();
+                } catch (ExecutionException e) {
+                    throw (e.getCause() instanceof Exception ex) ? ex : e;
+                }
+
+                for (PlanDag.Step next : dag.dependentsOf(finished)) {
+                    // 이미 끝난 후행 step은 재실행하지 않음 (그 후행 조건은 위에서 이미 차감됨)
+                    if (--pending[next.index()] == 0 && !done[next.index()]) {
+                        inFlight.add(cs.submit(() -> runStep(parent, actor, requestId, next, results)));
+                        running++;
+                    }
+                }
+            }
+            return results;
+        } finally {
+            // fail-fast: 아직 끝나지 않은 형제 step 취소 (정상 종료 시에는 전부 완료 상태라 no-op)
+            for (Future<PlanDag.Step> f : inFlight) f.cancel(true);
+        }
+    }
+
+    private PlanDag.Step runStep(Span parent, String actor, long requestId, PlanDag.Step s, Object[] results)
+            throws JsonProcessingException {
+        String toolName = s.tool();
+        long t0 = System.nanoTime();
+        Span span = (parent == null ? tracer.nextSpan() : tracer.nextSpan(parent))
+                .name("execute.tool").tag("tool", String.valueOf(toolName)).tag("step.id", s.id()).start();
 
+        int attempt = 0;
+        try (Tracer.SpanInScope ws = tracer.withSpan(span)) {
+            attempt = steps.start(requestId, s.id(), toolName);
+            Object r = run(registry.get(toolName), requestId, requestId + ":" + s.id(), s.args());
+            steps.done(requestId, s.id(), om.writeValueAsString(r));
+            long elapsed = System.nanoTime() - t0;
+            toolTimer(toolName, "success").record(elapsed, TimeUnit.NANOSECONDS);
+            audit.audit(requestId, actor, "TOOL", toolName + " ok", true, (int) TimeUnit.NANOSECONDS.toMillis(elapsed));
+            results[s.index()] = r;
+            return s;
         } catch (Exception e) {
-            repo.finish(requestId, false, "{\"error\":\"" + safe(e.getMessage()) + "\"}");
-            repo.audit(requestId, actor, "EXECUTE", "failed: " + e.getMessage(), false, (int) (System.currentTimeMillis() - start));
+            long elapsed = System.nanoTime() - t0;
+            failStep(requestId, s.id(), e);
+            if (e instanceof ToolUnavailableException tu && tu.lateOutcome() != null && attempt > 0) {
+                recordLateOutcome(actor, requestId, s.id(), attempt, toolName, tu.lateOutcome());
+            }
+            toolTimer(toolName, "failure").record(elapsed, TimeUnit.NANOSECONDS);
+            audit.audit(requestId, actor, "TOOL", toolName + " fail: " + e.getMessage(), false, (int) TimeUnit.NANOSECONDS.toMillis(elapsed));
+            span.error(e);
             throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    // timeout 으로 실패 처리한 뒤 tool 스레드가 실제로 끝나면 (tool 스레드에서 실행)
+    private void recordLateOutcome(String actor, long requestId, String stepId, int attempt, String toolName,
+                                   CompletableFuture<Object> outcome) {
+        long t0 = System.nanoTime();
+        outcome.whenComplete((r, err) -> {
+            int waited = (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+            try {
+                if (err == null) {
+                    if (steps.lateDone(requestId, stepId, attempt, om.writeValueAsString(r))) {
+                        audit.audit(requestId, actor, "TOOL", toolName + " late ok (step " + stepId + " → DONE)", true, waited);
+                    }
+                } else {
+                    String msg = "tool failed after timeout: " + (err.getMessage() == null ? err.getClass().getSimpleName() : err.getMessage());
+                    if (steps.lateFail(requestId, stepId, attempt, msg)) {
+                        audit.audit(requestId, actor, "TOOL", toolName + " late fail (step " + stepId + "): " + msg, false, waited);
+                    }
+                }
+            } catch (JsonProcessingException | DataAccessException ex) {
+                log.warn("late tool outcome not recorded: request={} step={} {}", requestId, stepId, ex.getMessage());
+            }
+        });
+    }
+
+    private void checkTimedOutSteps(long requestId) {
+        for (Map.Entry<String, String> e : steps.timedOut(requestId).entrySet()) {
+            if (!registry.idempotent(e.getValue())) {
+                throw new ConflictException("timeout 으로 끝난 step 이 있어 재개 불가 (멱등하지 않은 tool, 결과 확인 필요): step="
+                        + e.getKey() + " tool=" + e.getValue());
+            }
+        }
+    }
+
+    private void failStep(long requestId, String stepId, Exception e) {
+        try {
+            steps.fail(requestId, stepId, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        } catch (DataAccessException ex) {
+            // journal 기록 실패해도 원래 예외를 그대로 전달 (RUNNING으로 남은 step은 resume 때 다시 실행됨)
         }
     }
 
-    private String safe(String s) {
-        if (s == null) return "";
-        return s.replace("\"", "'");
+    private Timer toolTimer(String tool, String outcome) {
+        return Timer.builder(TOOL_TIMER).tag("tool", String.valueOf(tool)).tag("outcome", outcome).register(meters);
+    }
+
+    // step args(JSON 트리)를 tool의 args 타입으로 한 번만 변환해서 실행
+    private <A> Object run(Tool<A> tool, long requestId, String idempotencyKey, JsonNode args) {
+        A typed;
+        try {
+            typed = om.treeToValue(args == null || !args.isObject() ? om.createObjectNode() : args, tool.argsType());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("tool args 형식 오류: " + tool.name() + " " + e.getOriginalMessage(), e);
+        }
+        return registry.invoke(tool, requestId, idempotencyKey, typed);
+    }
+
+    private static ExecutorService newStepExecutor(ExecutionProperties props) {
+        // ✅ bounded pool (toolchain이 JDK 17이라 virtual thread 대신 고정 크기 풀)
+        AtomicInteger seq = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                props.getParallelism(), props.getParallelism(),
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(props.getQueueCapacity()),
+                r -> {
+                    Thread t = new Thread(r, "plan-step-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    @Override
+    public void destroy() {
+        stepExecutor.shutdownNow();
+    }
+
+    private String errorJson(Exception e) {
+        try {
+            return om.writeValueAsString(Map.of("error", e.getMessage() == null ? "" : e.getMessage()));
+        } catch (JsonProcessingException ex) {
+            return "{\"error\":\"\"}";
+        }
     }
 }
@@ -0,0 +1,98 @@
+package com.approval.opsagent.core;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * step 실행 journal (execution_step)
+ * RUNNING → DONE(result_json) | FAILED(error), 같은 step을 다시 실행하면 attempt+1
+ */
+@Repository
+public class ExecutionStepRepo {
+    private final JdbcTemplate jdbc;
+
+    public ExecutionStepRepo(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** DONE step의 결과 JSON (step_id → result_json) */
+    public Map<String, String> completed(long requestId) {
+        Map<String, String> out = new HashMap<>();
+        jdbc.query("SELECT step_id, result_json FROM execution_step WHERE request_id=? AND status='DONE'",
+                rs -> { out.put(rs.getString("step_id"), rs.getString("result_json")); }, requestId);
+        return out;
+    }
+
+    /** tool timeout 으로 FAILED 된 step (step_id → tool) */
+    public Map<String, String> timedOut(long requestId) {
+        Map<String, String> out = new HashMap<>();
+        jdbc.query("SELECT step_id, tool FROM execution_step WHERE request_id=? AND status='FAILED' AND starts_with(error, ?)",
+                rs -> { out.put(rs.getString("step_id"), rs.getString("tool")); },
+                requestId, ToolUnavailableException.TIMEOUT_PREFIX);
+        return out;
+    }
+
+    /** @return 이번 실행의 attempt 번호 */
+    public int start(long requestId, String stepId, String tool) {
+        Integer attempt = jdbc.queryForObject("""
+      INSERT INTO execution_step(request_id, step_id, tool, status)
+      VALUES (?,?,?, 'RUNNING')
+      ON CONFLICT (request_id, step_id) DO UPDATE
+      SET status='RUNNING', tool=EXCLUDED.tool, attempt=execution_step.attempt+1,
+          result_json=NULL, error=NULL, started_at=now(), finished_at=NULL
+      RETURNING attempt
+    """, Integer.class, requestId, stepId, tool);
+        return attempt == null ? 1 : attempt;
+    }
+
+    public void done(long requestId, String stepId, String resultJson) {
+        jdbc.update("""
+      UPDATE execution_step
+      SET status='DONE', result_json=?::jsonb, finished_at=now()
+      WHERE request_id=? AND step_id=?
+    """, resultJson, requestId, stepId);
+    }
+
+    public void fail(long requestId, String stepId, String error) {
+        jdbc.update("""
+      UPDATE execution_step
+      SET status='FAILED', error=?, finished_at=now()
+      WHERE request_id=? AND step_id=?
+    """, error, requestId, stepId);
+    }
+
+    /**
+     * timeout 으로 FAILED 처리된 step 의 tool 이 뒤늦게 성공 → 실제로 반영됐으니 DONE (resume 이 다시 실행하지 않고 결과 재사용)
+     * 그 사이 재시도(attempt 증가)가 시작됐으면 건드리지 않음
+     */
+    public boolean lateDone(long requestId, String stepId, int attempt, String resultJson) {
+        return jdbc.update("""
+      UPDATE execution_step
+      SET status='DONE', result_json=?::jsonb, error=NULL, finished_at=now()
+      WHERE request_id=? AND step_id=? AND attempt=? AND status='FAILED' AND starts_with(error, ?)
+    """, resultJson, requestId, stepId, attempt, ToolUnavailableException.TIMEOUT_PREFIX) > 0;
+    }
+
+    /** timeout 뒤 tool 이 실패로 끝남 → timeout 표시를 실제 오류로 바꿈 (결과 불명 step 이 아니게 되어 resume 가능) */
+    public boolean lateFail(long requestId, String stepId, int attempt, String error) {
+        return jdbc.update("""
+      UPDATE execution_step
+      SET error=?, finished_at=now()
+      WHERE request_id=? AND step_id=? AND attempt=? AND status='FAILED' AND starts_with(error, ?)
+    """, error, requestId, stepId, attempt, ToolUnavailableException.TIMEOUT_PREFIX) > 0;
+    }
+
+    /** reaper: 죽은 실행의 RUNNING step 정리 */
+    public int failRunning(List<Long> requestIds, String error) {
+        if (requestIds.isEmpty()) return 0;
+        return jdbc.update("""
+      UPDATE execution_step
+      SET status='FAILED', error=?, finished_at=now()
+      WHERE request_id = ANY(?) AND status='RUNNING'
+    """, error, requestIds.stream().mapToLong(Long::longValue).toArray());
+    }
+}
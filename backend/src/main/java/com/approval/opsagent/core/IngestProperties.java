@@ -0,0 +1,16 @@
+package com.approval.opsagent.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ingest")
+public class IngestProperties {
+    // 이 개수만큼 모이면 INSERT 1회 + 결과 flush (메모리에는 최대 batchSize 줄만 보관)
+    private int batchSize = 1000;
+    // 한 줄 최대 길이(문자), 넘으면 그 줄만 거절
+    private int maxLineChars = 64 * 1024;
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    public int getMaxLineChars() { return maxLineChars; }
+    public void setMaxLineChars(int maxLineChars) { this.maxLineChars = maxLineChars; }
+}
@@ -0,0 +1,8 @@
+package com.approval.opsagent.core;
+
+/** 실행 대기열(QUEUED job)이 execution.jobs.max-queued 에 도달 → 잠시 후 재시도 */
+public class JobQueueFullException extends RuntimeException {
+    public JobQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.approval.opsagent.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "plan.async")
+public class PlanAsyncProperties {
+    // AI 응답 이후 검증/저장/audit(JDBC)을 돌리는 스레드 수 (AI 클라이언트 io 스레드에서 DB 작업을 하지 않도록)
+    private int saveThreads = 4;
+
+    public int getSaveThreads() { return saveThreads; }
+    public void setSaveThreads(int saveThreads) { this.saveThreads = saveThreads; }
+}
@@ -0,0 +1,22 @@
+package com.approval.opsagent.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "plan.batch")
+public class PlanBatchProperties {
+    // 한 batch 에서 동시에 보내는 AI 요청 수 (ai.service.max-in-flight 를 혼자 다 쓰지 않도록)
+    private int parallelism = 8;
+    // 한 번에 계획할 수 있는 최대 요청 수
+    private int maxSize = 500;
+    // AI 호출 자리(parallelism)를 기다리는 최대 시간, 넘으면 남은 요청은 FAILED (AI 가 멈춰도 요청 스레드를 계속 잡지 않도록)
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+    public Duration getAcquireTimeout() { return acquireTimeout; }
+    public void setAcquireTimeout(Duration acquireTimeout) { this.acquireTimeout = acquireTimeout; }
+}
@@ -0,0 +1,171 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.core.model.Plan;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 검증된 plan 캐시
+ * - key: sha256(정규화 title + 정규화 input_text + tool spec 버전)
+ * - 1차: 메모리 LRU(max-entries) + TTL, 파싱된 Plan을 그대로 보관 (hit 시 재파싱 없음)
+ * - 2차(옵션): plan_cache 테이블 (재기동 후에도 유지)
+ */
+@Component
+public class PlanCache implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(PlanCache.class);
+
+    private record Entry(Plan plan, Instant expiresAt) {}
+
+    private final PlanCacheProperties props;
+    private final PlanCacheRepo db;
+    private final ObjectMapper om;
+    private final Map<String, Entry> lru;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong dbHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PlanCache(PlanCacheProperties props, PlanCacheRepo db, ObjectMapper om) {
+        this.props = props;
+        this.db = db;
+        this.om = om;
+        this.lru = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > props.getMaxEntries();
+            }
+        };
+    }
+
+    public String key(String title, String inputText, String toolSpecVersion) {
+        String raw = normalize(title) + "\n" + normalize(inputText) + "\n" + toolSpecVersion;
+        return sha256(raw);
+    }
+
+    public Optional<Plan> get(String key) {
+        if (!props.isEnabled()) return Optional.empty();
+
+        Instant now = Instant.now();
+        synchronized (lru) {
+            Entry e = lru.get(key);
+            if (e != null) {
+                if (e.expiresAt().isAfter(now)) {
+                    hits.incrementAndGet();
+                    return Optional.of(e.plan());
+                }
+                lru.remove(key);
+            }
+        }
+
+        if (props.isDbEnabled()) {
+            try {
+                Optional<String> fromDb = db.find(key);
+                if (fromDb.isPresent()) {
+                    Plan plan = om.readValue(fromDb.get(), Plan.class);
+                    dbHits.incrementAndGet();
+                    // DB 쪽 남은 TTL은 모르니 메모리에는 ttl 만큼만 올려둠
+                    putLocal(key, plan, now.plus(props.getTtl()));
+                    return Optional.of(plan);
+                }
+            } catch (DataAccessException | JsonProcessingException ex) {
+                log.warn("plan_cache lookup failed: {}", ex.getMessage());
+            }
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String key, Plan plan, String planJson) {
+        if (!props.isEnabled()) return;
+
+        Instant expiresAt = Instant.now().plus(props.getTtl());
+        putLocal(key, plan, expiresAt);
+        if (props.isDbEnabled()) {
+            try {
+                db.put(key, planJson, expiresAt);
+            } catch (DataAccessException ex) {
+                log.warn("plan_cache store failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        synchronized (lru) {
+            size = lru.size();
+        }
+        long h = hits.get(), d = dbHits.get(), m = misses.get();
+        long total = h + d + m;
+        return Map.of(
+                "enabled", props.isEnabled(),
+                "size", size,
+                "hits", h,
+                "dbHits", d,
+                "misses", m,
+                "hitRate", total == 0 ? 0.0 : (double) (h + d) / total
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("opsagent.plan.cache.size", this, c -> { synchronized (c.lru) { return c.lru.size(); } })
+                .register(registry);
+        FunctionCounter.builder("opsagent.plan.cache.lookups", hits, AtomicLong::get).tag("result", "hit").register(registry);
+        FunctionCounter.builder("opsagent.plan.cache.lookups", dbHits, AtomicLong::get).tag("result", "db_hit").register(registry);
+        FunctionCounter.builder("opsagent.plan.cache.lookups", misses, AtomicLong::get).tag("result", "miss").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT1H")
+    public void purgeExpired() {
+        if (!props.isEnabled() || !props.isDbEnabled()) return;
+        try {
+            db.purgeExpired();
+        } catch (DataAccessException ex) {
+            log.warn("plan_cache purge failed: {}", ex.getMessage());
+        }
+    }
+
+    private void putLocal(String key, Plan plan, Instant expiresAt) {
+        synchronized (lru) {
+            lru.put(key, new Entry(plan, expiresAt));
+        }
+    }
+
+    // 공백/대소문자/전각 문자 차이는 같은 요청으로 취급
+    static String normalize(String s) {
+        if (s == null) return "";
+        String n = Normalizer.normalize(s, Normalizer.Form.NFKC);
+        return n.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    static String sha256(String s) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
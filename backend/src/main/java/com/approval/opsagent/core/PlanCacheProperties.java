@@ -0,0 +1,24 @@
+package com.approval.opsagent.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "plan.cache")
+public class PlanCacheProperties {
+    private boolean enabled = true;
+    // 메모리(1차) 캐시 최대 항목 수 (LRU)
+    private int maxEntries = 1000;
+    private Duration ttl = Duration.ofHours(6);
+    // true면 plan_cache 테이블을 2차 캐시로 사용
+    private boolean dbEnabled = false;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+    public boolean isDbEnabled() { return dbEnabled; }
+    public void setDbEnabled(boolean dbEnabled) { this.dbEnabled = dbEnabled; }
+}
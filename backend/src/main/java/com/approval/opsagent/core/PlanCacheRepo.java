@@ -0,0 +1,35 @@
+package com.approval.opsagent.core;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class PlanCacheRepo {
+    private final JdbcTemplate jdbc;
+
+    public PlanCacheRepo(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Optional<String> find(String key) {
+        List<String> rows = jdbc.queryForList(
+                "SELECT plan_json FROM plan_cache WHERE cache_key=? AND expires_at > now()", String.class, key);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    public void put(String key, String planJson, Instant expiresAt) {
+        jdbc.update("""
+      INSERT INTO plan_cache(cache_key, plan_json, expires_at) VALUES (?,?,?)
+      ON CONFLICT (cache_key) DO UPDATE SET plan_json=EXCLUDED.plan_json, created_at=now(), expires_at=EXCLUDED.expires_at
+    """, key, planJson, Timestamp.from(expiresAt));
+    }
+
+    public int purgeExpired() {
+        return jdbc.update("DELETE FROM plan_cache WHERE expires_at <= now()");
+    }
+}
@@ -0,0 +1,114 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.core.model.PlanStep;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.*;
+
+/**
+ * plan.steps 의존 관계(DAG)
+ * - step.id 가 없으면 순번(1부터)을 id로 사용
+ * - 어떤 step에도 dependsOn 이 없으면 기존처럼 "앞 step 완료 후 실행"(순차)으로 취급
+ * - dependsOn 이 하나라도 있으면, dependsOn 없는 step은 바로 실행 가능한 root
+ */
+public final class PlanDag {
+
+    public record Step(int index, String id, String tool, JsonNode args, List<String> dependsOn) {}
+
+    private final List<Step> steps;
+    private final Map<String, List<Integer>> dependents;
+
+    private PlanDag(List<Step> steps, Map<String, List<Integer>> dependents) {
+        this.steps = steps;
+        this.dependents = dependents;
+    }
+
+    public static PlanDag of(List<PlanStep> planSteps) {
+        if (planSteps == null) {
+            throw new IllegalArgumentException("계획 형식 오류: steps 없음");
+        }
+
+        boolean anyDependsOn = false;
+        for (PlanStep s : planSteps) {
+            if (s != null && s.dependsOn() != null) { anyDependsOn = true; break; }
+        }
+
+        List<Step> steps = new ArrayList<>(planSteps.size());
+        Map<String, Integer> indexById = new HashMap<>();
+        int i = 0;
+        for (PlanStep s : planSteps) {
+            if (s == null) throw new IllegalArgumentException("계획 형식 오류: 빈 step");
+            String id = s.id() != null ? s.id() : String.valueOf(i + 1);
+            if (indexById.putIfAbsent(id, i) != null) {
+                throw new IllegalArgumentException("계획 형식 오류: 중복된 step.id " + id);
+            }
+
+            List<String> deps;
+            if (anyDependsOn) {
+                deps = s.dependsOn() == null ? List.of() : List.copyOf(s.dependsOn());
+            } else if (i > 0) {
+                deps = List.of(steps.get(i - 1).id()); // 레거시 plan: 순차 실행
+            } else {
+                deps = List.of();
+            }
+
+            steps.add(new Step(i, id, s.tool(), s.args(), deps));
+            i++;
+        }
+
+        Map<String, List<Integer>> dependents = new HashMap<>();
+        for (Step s : steps) {
+            for (String dep : s.dependsOn()) {
+                if (!indexById.containsKey(dep)) {
+                    throw new IllegalArgumentException("계획 형식 오류: step " + s.id() + " 의 dependsOn 대상 없음: " + dep);
+                }
+                dependents.computeIfAbsent(dep, k -> new ArrayList<>()).add(s.index());
+            }
+        }
+
+        PlanDag dag = new PlanDag(List.copyOf(steps), dependents);
+        dag.checkAcyclic();
+        return dag;
+    }
+
+    public List<Step> steps() {
+        return steps;
+    }
+
+    public int size() {
+        return steps.size();
+    }
+
+    /** 선행 step이 없는 step들 */
+    public List<Step> roots() {
+        List<Step> out = new ArrayList<>();
+        for (Step s : steps) if (s.dependsOn().isEmpty()) out.add(s);
+        return out;
+    }
+
+    /** 이 step에 의존하는 step들 */
+    public List<Step> dependentsOf(Step step) {
+        List<Step> out = new ArrayList<>();
+        for (int idx : dependents.getOrDefault(step.id(), List.of())) out.add(steps.get(idx));
+        return out;
+    }
+
+    private void checkAcyclic() {
+        // Kahn: 진입차수 0부터 제거해 나가며 모두 방문되는지 확인
+        int[] indegree = new int[steps.size()];
+        for (Step s : steps) indegree[s.index()] = s.dependsOn().size();
+
+        Deque<Step> ready = new ArrayDeque<>(roots());
+        int visited = 0;
+        while (!ready.isEmpty()) {
+            Step s = ready.poll();
+            visited++;
+            for (Step d : dependentsOf(s)) {
+                if (--indegree[d.index()] == 0) ready.add(d);
+            }
+        }
+        if (visited != steps.size()) {
+            throw new IllegalArgumentException("계획 형식 오류: dependsOn 순환 참조");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.approval.opsagent.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "plan.fallback")
+public class PlanFallbackProperties {
+    // AI 서비스를 쓸 수 없을 때(breaker open/timeout/5xx) 기본 planner 로 계획, false 면 그대로 실패
+    private boolean enabled = true;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+}
@@ -1,138 +1,590 @@
 package com.approval.opsagent.core;
 
 import com.approval.opsagent.ai.AiServiceClient;
+import com.approval.opsagent.ai.AiUnavailableException;
 import com.approval.opsagent.ai.dto.PlanRequestPayload;
+import com.approval.opsagent.ai.dto.PlanResponse;
+import com.approval.opsagent.ai.dto.ToolSpecBlock;
+import com.approval.opsagent.core.model.BatchPlanResult;
+import com.approval.opsagent.core.model.Plan;
+import com.approval.opsagent.core.model.RequestStatus;
+import com.approval.opsagent.core.model.WorkRequest;
+import com.approval.opsagent.core.tools.TicketCreateManyTool;
+import com.approval.opsagent.plan.LocalPlanProperties;
 import com.approval.opsagent.plan.PlanGenerator;
+import com.approval.opsagent.plan.Planner;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Service
-public class PlanningService {
+public class PlanningService implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(PlanningService.class);
+    // plan 전체 (source=ai|cache) / 단계별 (stage=ai|validate|persist), span 이름도 plan / plan.<stage>
+    private static final String PLAN_TIMER = "opsagent.plan";
+    private static final String STAGE_TIMER = "opsagent.plan.stage";
+    // 로컬 planner 라우팅 (tags: planner/rule/result=hit|low_confidence|invalid|miss) → hit 비율 = hit / (hit + miss)
+    private static final String LOCAL_COUNTER = "opsagent.plan.local";
+    // AI 대신 기본 planner 로 만든 plan (tags: reason=circuit_open|timeout|io|http_5xx|busy|queue_timeout), audit 은 "plan created (fallback:<reason>)"
+    private static final String FALLBACK_COUNTER = "opsagent.plan.fallback";
+    private static final String SOURCE_AI = "ai", SOURCE_CACHE = "cache", SOURCE_FALLBACK = "fallback";
+
+    /** AI 없이 만든 plan (source: 로컬 planner 이름 | cache | fallback:<reason>) */
+    private record Sourced(Plan plan, String source) {}
 
     private final WorkRepo repo;
     private final PlanGenerator generator;
     private final AiServiceClient ai;
-    private final ObjectMapper om = new ObjectMapper();
+    private final PlanCache cache;
+    private final AuditWriter audit;
+    private final ObjectMapper om;
+    private final ObjectMapper sorted;
+    private final MeterRegistry meters;
+    private final Tracer tracer;
+    private final PlanBatchProperties batch;
+    private final List<Planner> planners;
+    private final LocalPlanProperties local;
+    private final PlanFallbackProperties fallback;
+    private final ToolRegistry tools;
+    // registry version 이 바뀌면 다시 만듦
+    private record ToolSpecs(long registryVersion, ToolSpecBlock block) {}
+    private volatile ToolSpecs toolSpecs;
+    private final ExecutorService saveExecutor;
 
-    public PlanningService(WorkRepo repo, PlanGenerator generator, AiServiceClient ai) {
+    public PlanningService(WorkRepo repo, PlanGenerator generator, AiServiceClient ai, PlanCache cache,
+                           AuditWriter audit, ObjectMapper om, MeterRegistry meters, Tracer tracer,
+                           PlanBatchProperties batch, List<Planner> planners, LocalPlanProperties local,
+                           PlanFallbackProperties fallback, ToolRegistry tools, PlanAsyncProperties async) {
         this.repo = repo;
         this.generator = generator;
         this.ai = ai;
+        this.cache = cache;
+        this.audit = audit;
+        this.om = om;
+        this.sorted = om.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.meters = meters;
+        this.tracer = tracer;
+        this.batch = batch;
+        this.planners = planners;
+        this.local = local;
+        this.fallback = fallback;
+        this.tools = tools;
+        this.saveExecutor = newSaveExecutor(async);
+    }
+
+    @Override
+    public void destroy() {
+        saveExecutor.shutdownNow();
+    }
+
+    // AI 호출은 ai.service.max-in-flight + max-pending 으로 제한되므로 대기열도 그 이상 쌓이지 않음
+    private static ExecutorService newSaveExecutor(PlanAsyncProperties props) {
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(props.getSaveThreads(), r -> {
+            Thread t = new Thread(r, "plan-save-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public Map<String, Object> plan(String actor, long requestId) {
+        long t0 = System.currentTimeMillis();
+        long start = System.nanoTime();
+        String source = "ai";
+        boolean ok = false;
+        Span span = planSpan(requestId);
+        try (Tracer.SpanInScope ws = tracer.withSpan(span)) {
+            PlanRequestPayload payload = payloadFor(actor, requestId);
+
+            // ✅ 0) 규칙으로 바로 만들 수 있거나 같은 내용의 캐시가 있으면 LLM 호출 생략
+            String cacheKey = cacheKey(payload);
+            Optional<Sourced> quick = withoutAi(payload, cacheKey);
+            if (quick.isPresent()) {
+                source = quick.get().source();
+                Map<String, Object> r = savePlan(actor, requestId, payload, quick.get().plan(), cacheKey, source, t0);
+                ok = true;
+                return r;
+            }
+
+            // ✅ 2) AI 서비스 호출 (Spring Boot -> REST -> AI Agent), 서비스를 쓸 수 없으면 기본 planner 로 대체
+            Sourced planned;
+            try {
+                planned = new Sourced(stage("ai", () -> planFromAi(ai.createPlan(payload))), SOURCE_AI);
+            } catch (AiUnavailableException e) {
+                planned = fallbackPlan(payload, e);
+            }
+            source = planned.source();
+            Map<String, Object> r = savePlan(actor, requestId, payload, planned.plan(), cacheKey, source, t0);
+            ok = true;
+            return r;
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            recordPlan(source, start, ok);
+            span.tag("plan.source", source).end();
+        }
+    }
+
+    /**
+     * plan()과 동일하지만 AI 응답을 기다리는 동안 호출 스레드를 점유하지 않음.
+     * 이후 검증/저장(JDBC)은 saveExecutor 에서 수행 (AI 클라이언트 io 스레드를 막지 않도록, plan span을 다시 현재 span으로 잡고 실행)
+     */
+    public CompletableFuture<Map<String, Object>> planAsync(String actor, long requestId) {
+        long t0 = System.currentTimeMillis();
+        long start = System.nanoTime();
+        Span span = planSpan(requestId);
+
+        PlanRequestPayload payload;
+        String cacheKey;
+        Optional<Sourced> quick;
+        try (Tracer.SpanInScope ws = tracer.withSpan(span)) {
+            payload = payloadFor(actor, requestId);
+            cacheKey = cacheKey(payload);
+            quick = withoutAi(payload, cacheKey);
+        } catch (RuntimeException e) {
+            recordPlan("ai", start, false);
+            end(span.tag("plan.source", "ai"), e);
+            throw e;
+        }
+
+        if (quick.isPresent()) {
+            String source = quick.get().source();
+            span.tag("plan.source", source);
+            boolean ok = false;
+            try (Tracer.SpanInScope ws = tracer.withSpan(span)) {
+                Map<String, Object> r = savePlan(actor, requestId, payload, quick.get().plan(), cacheKey, source, t0);
+                ok = true;
+                return CompletableFuture.completedFuture(r);
+            } catch (RuntimeException e) {
+                span.error(e);
+                throw e;
+            } finally {
+                recordPlan(source, start, ok);
+                span.end();
+            }
+        }
+
+        span.tag("plan.source", "ai");
+        long aiStart = System.nanoTime();
+        Span aiSpan = tracer.nextSpan(span).name("plan.ai").start();
+        CompletableFuture<String> call;
+        try (Tracer.SpanInScope ws = tracer.withSpan(aiSpan)) {
+            call = ai.createPlanAsync(payload);
+        }
+        return call
+                .thenApply(this::planFromAi)
+                .whenComplete((p, e) -> {
+                    recordStage("ai", aiStart, e == null);
+                    end(aiSpan, e);
+                })
+                .handle((plan, e) -> e == null ? new Sourced(plan, SOURCE_AI) : fallbackPlan(payload, e))
+                .thenApplyAsync(planned -> {
+                    span.tag("plan.source", planned.source());
+                    try (Tracer.SpanInScope ws = tracer.withSpan(span)) {
+                        return savePlan(actor, requestId, payload, planned.plan(), cacheKey, planned.source(), t0);
+                    }
+                }, saveExecutor)
+                .whenComplete((r, e) -> {
+                    recordPlan(r == null ? SOURCE_AI : (String) r.get("source"), start, e == null);
+                    end(span, e);
+                });
     }
 
-    public Map<String, Object> plan(String actor, long requestId) throws JsonProcessingException {
+    /**
+     * 여러 요청을 한 번에 계획
+     * - 요청 조회 1회 → 규칙/캐시로 만들 수 있으면 바로 사용, 나머지만 AI 호출 (batch.parallelism 개씩 동시에)
+     * - tools 블록은 미리 직렬화된 것을 모든 요청이 공유
+     * - 검증을 통과한 plan은 UPDATE 1회로 저장, audit(PLAN)은 source 별 batch 1회 (메시지는 단건 계획과 같음)
+     * - 한 건이 실패해도 나머지는 계속 (결과는 요청 id 순서대로 건별 outcome)
+     */
+    public BatchPlanResult planAll(String actor, List<Long> requestIds) {
         long t0 = System.currentTimeMillis();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(requestIds));
+        if (ids.size() > batch.getMaxSize()) {
+            throw new IllegalArgumentException("한 번에 계획할 수 있는 요청 수 초과 (max " + batch.getMaxSize() + ")");
+        }
+        Span span = tracer.nextSpan().name("plan.batch").tag("batch.size", ids.size()).start();
+        try (Tracer.SpanInScope ws = tracer.withSpan(span)) {
+            Map<Long, WorkRequest> found = new HashMap<>();
+            for (WorkRequest wr : repo.findAll(ids)) found.put(wr.id(), wr);
+
+            Map<Long, BatchPlanResult.Item> results = new HashMap<>();
+            Map<Long, PlanRequestPayload> payloads = new LinkedHashMap<>();
+            Map<Long, String> cacheKeys = new HashMap<>();
+            Map<Long, Plan> plans = new ConcurrentHashMap<>();
+            Map<Long, String> sources = new ConcurrentHashMap<>();
+            for (long id : ids) {
+                WorkRequest wr = found.get(id);
+                if (wr == null) {
+                    results.put(id, new BatchPlanResult.Item(id, "NOT_FOUND", null, null));
+                } else if (!wr.status().canTransitionTo(RequestStatus.PLANNED)) {
+                    results.put(id, new BatchPlanResult.Item(id, "SKIPPED", null, "현재=" + wr.status()));
+                } else {
+                    PlanRequestPayload payload = payloadFor(actor, wr);
+                    String key = cacheKey(payload);
+                    payloads.put(id, payload);
+                    cacheKeys.put(id, key);
+                    withoutAi(payload, key).ifPresent(q -> {
+                        plans.put(id, q.plan());
+                        sources.put(id, q.source());
+                    });
+                }
+            }
+
+            // ✅ AI 호출: 동시에 최대 parallelism 개 (나머지는 permit 이 날 때까지 대기)
+            Map<Long, String> errors = new ConcurrentHashMap<>();
+            Semaphore permits = new Semaphore(batch.getParallelism());
+            List<CompletableFuture<?>> calls = new ArrayList<>();
+            boolean stalled = false;
+            for (Map.Entry<Long, PlanRequestPayload> e : payloads.entrySet()) {
+                long id = e.getKey();
+                if (plans.containsKey(id)) continue;
+                // 앞선 호출이 acquireTimeout 동안 하나도 안 끝나면 (AI 멈춤) 남은 요청은 호출하지 않고 실패 처리
+                if (stalled || !acquire(permits, batch.getAcquireTimeout())) {
+                    stalled = true;
+                    errors.put(id, "AI 호출 대기 시간 초과 (" + batch.getAcquireTimeout().toSeconds() + "s)");
+                    continue;
+                }
+                long aiStart = System.nanoTime();
+                CompletableFuture<Plan> call;
+                try {
+                    call = ai.createPlanAsync(e.getValue()).thenApply(this::planFromAi);
+                } catch (RuntimeException ex) {
+                    call = CompletableFuture.failedFuture(ex);
+                }
+                PlanRequestPayload payload = e.getValue();
+                calls.add(call.whenComplete((plan, ex) -> {
+                    permits.release();
+                    recordStage("ai", aiStart, ex == null);
+                    if (ex == null) {
+                        plans.put(id, plan);
+                        return;
+                    }
+                    try {
+                        Sourced fb = fallbackPlan(payload, ex);
+                        plans.put(id, fb.plan());
+                        sources.put(id, fb.source());
+                    } catch (RuntimeException notAvailable) {
+                        errors.put(id, rootMessage(ex));
+                    }
+                }).exceptionally(ex -> null));
+            }
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+            // 검증 + 직렬화 후 UPDATE 1회
+            Map<Long, String> planJson = stage("validate", () -> {
+                Map<Long, String> json = new LinkedHashMap<>();
+                for (long id : payloads.keySet()) {
+                    Plan plan = plans.get(id);
+                    if (plan == null) continue;
+                    try {
+                        validatePlan(plan, payloads.get(id).tools().names());
+                        json.put(id, om.writeValueAsString(plan));
+                    } catch (IllegalArgumentException | JsonProcessingException ex) {
+                        errors.put(id, ex.getMessage());
+                    }
+                }
+                return json;
+            });
+            Set<Long> saved = new HashSet<>(stage("persist", () -> repo.savePlans(planJson)));
+
+            Map<String, List<Long>> audited = new LinkedHashMap<>();
+            int planned = 0;
+            for (long id : payloads.keySet()) {
+                String source = sources.getOrDefault(id, SOURCE_AI);
+                if (saved.contains(id)) {
+                    if (SOURCE_AI.equals(source)) cache.put(cacheKeys.get(id), plans.get(id), planJson.get(id));
+                    audited.computeIfAbsent(source, k -> new ArrayList<>()).add(id);
+                    planned++;
+                    results.put(id, new BatchPlanResult.Item(id, "PLANNED", source, null));
+                } else if (errors.containsKey(id)) {
+                    results.put(id, new BatchPlanResult.Item(id, "FAILED", null, errors.get(id)));
+                } else {
+                    results.put(id, new BatchPlanResult.Item(id, "CONFLICT", null, "계획 생성 중 상태가 바뀜"));
+                }
+            }
+            int latencyMs = (int) (System.currentTimeMillis() - t0);
+            audited.forEach((source, sourceIds) ->
+                    audit.auditAll(sourceIds, actor, "PLAN", auditMessage(source), true, latencyMs));
+
+            span.tag("batch.planned", planned);
+            List<BatchPlanResult.Item> items = new ArrayList<>(ids.size());
+            for (long id : ids) items.add(results.get(id));
+            return new BatchPlanResult(ids.size(), planned, items);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /** DRAFT 요청을 오래된 순으로 limit 개 일괄 계획 */
+    public BatchPlanResult planDrafts(String actor, int limit) {
+        return planAll(actor, repo.draftIds(Math.min(limit, batch.getMaxSize())));
+    }
+
+    private static boolean acquire(Semaphore permits, Duration timeout) {
+        try {
+            return permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable c = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return c.getMessage();
+    }
+
+    /**
+     * AI 서비스를 쓸 수 없을 때(AiUnavailableException)만 기본 planner(SimplePlanGenerator)로 대체
+     * 그 외 실패(4xx, 응답 형식 오류 등)나 fallback 비활성화면 원래 예외 그대로
+     * fallback plan 은 캐시하지 않음 (AI 가 돌아오면 같은 요청도 다시 AI 로)
+     */
+    private Sourced fallbackPlan(PlanRequestPayload payload, Throwable e) {
+        Throwable c = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (!(c instanceof AiUnavailableException u) || !fallback.isEnabled()) {
+            if (c instanceof RuntimeException re) throw re;
+            throw new CompletionException(c);
+        }
+        log.warn("AI unavailable ({}), fallback plan. requestId={}", u.reason(), payload.request_id());
+        meters.counter(FALLBACK_COUNTER, "reason", u.reason()).increment();
+        try {
+            Plan plan = om.readValue(generator.makePlanJson(payload.title(), payload.inputText()), Plan.class);
+            return new Sourced(plan, SOURCE_FALLBACK + ":" + u.reason());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("fallback plan parse failed: " + ex.getOriginalMessage(), ex);
+        }
+    }
 
-        Map<String, Object> wr = repo.find(requestId);
-        String title = String.valueOf(wr.get("title"));
-        String input = String.valueOf(wr.get("input_text"));
+    private Optional<Sourced> withoutAi(PlanRequestPayload payload, String cacheKey) {
+        Optional<Sourced> r = planLocally(payload);
+        if (r.isPresent()) return r;
+        return cache.get(cacheKey).map(p -> new Sourced(p, SOURCE_CACHE));
+    }
+
+    /**
+     * 로컬 planner 를 순서대로 시도 → confidence >= min-confidence 이고 validatePlan 을 통과한 첫 결과
+     * (규칙 설정이 잘못돼서 검증에 실패하면 요청을 실패시키지 않고 다음 planner / AI 로 넘김)
+     */
+    private Optional<Sourced> planLocally(PlanRequestPayload payload) {
+        if (!local.isEnabled() || planners.isEmpty()) return Optional.empty();
+        for (Planner p : planners) {
+            Optional<Planner.Result> r = p.plan(payload.title(), payload.inputText());
+            if (r.isEmpty()) continue;
+            Planner.Result res = r.get();
+            if (res.confidence() < local.getMinConfidence()) {
+                countLocal(p.name(), res.rule(), "low_confidence");
+                continue;
+            }
+            try {
+                validatePlan(res.plan(), payload.tools().names());
+            } catch (IllegalArgumentException e) {
+                log.warn("local plan rejected ({}:{}): {}", p.name(), res.rule(), e.getMessage());
+                countLocal(p.name(), res.rule(), "invalid");
+                continue;
+            }
+            countLocal(p.name(), res.rule(), "hit");
+            return Optional.of(new Sourced(res.plan(), p.name()));
+        }
+        countLocal("none", "none", "miss");
+        return Optional.empty();
+    }
+
+    private void countLocal(String planner, String rule, String result) {
+        meters.counter(LOCAL_COUNTER, "planner", planner, "rule", rule == null ? "none" : rule, "result", result).increment();
+    }
+
+    public Map<String, Object> cacheStats() {
+        return cache.stats();
+    }
+
+    private PlanRequestPayload payloadFor(String actor, long requestId) {
+        WorkRequest wr = repo.find(requestId);
+        // LLM 호출 전에 먼저 확인 (저장 시점에 한 번 더 조건부 UPDATE로 확인)
+        if (!wr.status().canTransitionTo(RequestStatus.PLANNED)) {
+            throw new ConflictException("계획을 만들 수 없는 상태. 현재=" + wr.status());
+        }
+        return payloadFor(actor, wr);
+    }
+
+    private PlanRequestPayload payloadFor(String actor, WorkRequest wr) {
+        String title = wr.title();
+        String input = wr.inputText();
 
         // 하드코딩
         // String planJson = generator.makePlanJson(title, input);
 
-        // ✅ 1) LLM에게 "허용된 도구 목록 + 인자 스키마" 제공 (에이전트의 도구 목록)
-        List<PlanRequestPayload.ToolSpec> tools = toolsForAi();
+        // ✅ 1) LLM에게 "허용된 도구 목록 + 인자 스키마" 제공 (에이전트의 도구 목록) - 미리 직렬화해 둔 블록
+        ToolSpecBlock tools = toolSpecs();
 
         // requester는 DB에 없을 수도 있으니 actor로 통일(안전)
-        var payload = new PlanRequestPayload(
-                requestId,
+        return new PlanRequestPayload(
+                wr.id(),
                 actor,
                 title,
                 input,
                 tools,
                 4
         );
+    }
 
-        // ✅ 2) AI 서비스 호출 (Spring Boot -> REST -> AI Agent)
-        String aiJson = ai.createPlan(payload);
-        JsonNode aiResult = om.readTree(aiJson);
-        JsonNode planNode = aiResult.path("plan");
-        if (planNode.isMissingNode() || planNode.isNull()) {
-            throw new IllegalStateException("AI plan missing. aiResult=" + aiResult);
+    // AI 응답을 바로 Plan으로 (중간 JsonNode 트리 없음)
+    private Plan planFromAi(String aiJson) {
+        Plan plan;
+        try {
+            plan = om.readValue(aiJson, PlanResponse.class).plan();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("AI response parse failed: " + e.getOriginalMessage(), e);
+        }
+        if (plan == null) {
+            throw new IllegalStateException("AI plan missing. aiResult=" + aiJson);
         }
+        return plan;
+    }
 
-        // ✅ 3) 최소 안전장치: 허용된 tool만 쓰는지 검증(진짜 실무 포인트)
-        validatePlan(planNode, tools);
+    private Map<String, Object> savePlan(String actor, long requestId, PlanRequestPayload payload, Plan plan,
+                                         String cacheKey, String source, long t0) {
+        // ✅ 3) 최소 안전장치: 허용된 tool만 쓰는지 검증(진짜 실무 포인트) - 캐시 hit도 동일하게 검증
+        stage("validate", () -> {
+            validatePlan(plan, payload.tools().names());
+            return plan;
+        });
 
-        // ✅ 4) plan JSON 문자열로 저장
-        String planJson;
-        try {
-            planJson = om.writeValueAsString(planNode);
-        } catch (Exception e) {
-            throw new IllegalStateException("plan json serialize failed: " + e.getMessage(), e);
-        }
+        // ✅ 4) plan JSON으로 저장 (jsonb)
+        String planJson = stage("persist", () -> {
+            String json;
+            try {
+                json = om.writeValueAsString(plan);
+            } catch (Exception e) {
+                throw new IllegalStateException("plan json serialize failed: " + e.getMessage(), e);
+            }
+            if (!repo.savePlan(requestId, json)) {
+                throw new ConflictException("계획 생성 중 상태가 바뀜. id=" + requestId);
+            }
+            if (SOURCE_AI.equals(source)) cache.put(cacheKey, plan, json);
+            return json;
+        });
 
-        repo.savePlan(requestId, planJson);
-        repo.audit(requestId, actor, "PLAN", "plan created", true, (int) (System.currentTimeMillis() - t0));
+        audit.audit(requestId, actor, "PLAN", auditMessage(source), true,
+                (int) (System.currentTimeMillis() - t0));
 
         return Map.of(
                 "requestId", requestId,
-                "planJson", planJson
+                "planJson", planJson,
+                "cached", SOURCE_CACHE.equals(source),
+                "source", source
         );
     }
 
-    private void validatePlan(JsonNode plan, List<PlanRequestPayload.ToolSpec> toolSpecs) {
-        Set<String> allowed = new HashSet<>();
-        for (PlanRequestPayload.ToolSpec t : toolSpecs) allowed.add(t.name());
+    /** audit PLAN 메시지: ai → "plan created", 캐시 → "(cached)", 그 외(규칙 planner, fallback:<reason>) → "(<source>)" */
+    private static String auditMessage(String source) {
+        return switch (source) {
+            case SOURCE_AI -> "plan created";
+            case SOURCE_CACHE -> "plan created (cached)";
+            default -> "plan created (" + source + ")";
+        };
+    }
 
-        JsonNode steps = plan.path("steps");
-        if (!steps.isArray()) {
-            throw new IllegalArgumentException("계획 형식 오류: steps 없음");
+    private Span planSpan(long requestId) {
+        return tracer.nextSpan().name("plan").tag("request.id", requestId).start();
+    }
+
+    /** 단계 하나를 stage 타이머 + 현재 span의 자식 span(plan.<stage>)으로 감싸서 실행 */
+    private <T> T stage(String stage, Supplier<T> body) {
+        Span span = tracer.nextSpan().name("plan." + stage).start();
+        long t0 = System.nanoTime();
+        boolean ok = false;
+        try (Tracer.SpanInScope ws = tracer.withSpan(span)) {
+            T r = body.get();
+            ok = true;
+            return r;
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            recordStage(stage, t0, ok);
+            span.end();
         }
+    }
+
+    private static void end(Span span, Throwable e) {
+        if (e != null) span.error(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+        span.end();
+    }
+
+    private void recordPlan(String source, long startNanos, boolean ok) {
+        Timer.builder(PLAN_TIMER).tag("source", source).tag("outcome", ok ? "success" : "failure")
+                .register(meters).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
 
-        for (JsonNode s : steps) {
-            String tool = s.path("tool").asText(null);
+    private void recordStage(String stage, long startNanos, boolean ok) {
+        Timer.builder(STAGE_TIMER).tag("stage", stage).tag("outcome", ok ? "success" : "failure")
+                .register(meters).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String cacheKey(PlanRequestPayload payload) {
+        return cache.key(payload.title(), payload.inputText(), payload.tools().version());
+    }
+
+    /**
+     * tools 블록은 한 번만 직렬화해서 재사용
+     * tool 목록/설명/스키마가 바뀌면 캐시 key도 바뀌도록 spec 내용 해시를 버전으로 사용
+     */
+    private ToolSpecBlock toolSpecs() {
+        ToolSpecs cur = toolSpecs;
+        long v = tools.version();
+        if (cur == null || cur.registryVersion() != v) {
+            List<PlanRequestPayload.ToolSpec> specs = tools.specs();
+            try {
+                // Map.of 순회 순서는 JVM마다 달라서 key 정렬 후 직렬화 (재기동 후에도 DB 캐시 key 유지)
+                String json = sorted.writeValueAsString(specs);
+                cur = new ToolSpecs(v, new ToolSpecBlock(specs, json, PlanCache.sha256(json)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("tool spec serialize failed: " + e.getMessage(), e);
+            }
+            toolSpecs = cur;
+        }
+        return cur.block();
+    }
+
+    // package-private: src/jmh 벤치마크에서 직접 호출
+    static void validatePlan(Plan plan, Set<String> allowed) {
+        // steps 배열 / step.id 중복 / dependsOn 대상·순환 검증
+        PlanDag dag = PlanDag.of(plan.steps());
+
+        for (PlanDag.Step s : dag.steps()) {
+            String tool = s.tool();
             if (tool == null || tool.isBlank()) {
                 throw new IllegalArgumentException("계획 형식 오류: step.tool 없음");
             }
             if (!allowed.contains(tool)) {
                 throw new IllegalArgumentException("허용되지 않은 tool: " + tool);
             }
+            if (TicketCreateManyTool.NAME.equals(tool)) TicketCreateManyTool.checkArgs(s.args());
         }
     }
-
-    private List<PlanRequestPayload.ToolSpec> toolsForAi() {
-        // ✅ LLM이 스키마(type/properties/required)를 args로 복사하지 않도록
-        //    args_schema를 "값 예시 형태"로 단순화
-
-        Map<String, Object> ticketSchema = Map.of(
-                "mode", "string (items | count) - 선택",
-                "items", List.of(
-                        Map.of(
-                                "title", "string (예: ApprovalOpsAgent - 원인분석)",
-                                "desc", "string (예: 배포 오류 원인 파악: 로그/지표/재현 조건 정리)"
-                        )
-                ),
-                "count", "number (예: 5)",
-                "titlePrefix", "string (예: 이번 주 안전점검)",
-                "desc", "string (예: 점검 항목 확인)"
-        );
-
-        Map<String, Object> wikiSchema = Map.of(
-                "title", "string (예: ApprovalOpsAgent - 배포 후 오류 대응)",
-                "body", "string (예: 변경 배경/영향도/롤백 방법을 포함한 본문)"
-        );
-
-        return List.of(
-                new PlanRequestPayload.ToolSpec(
-                        "ticket.createMany",
-                        "티켓을 여러 개 생성한다. args는 다음 중 하나의 형태로 작성한다.\n" +
-                                "A) items 방식(서로 다른 티켓): {\"items\":[{\"title\":\"...\",\"desc\":\"...\"}, ...]}\n" +
-                                "B) count 방식(유사 티켓 N개): {\"count\":5,\"titlePrefix\":\"...\",\"desc\":\"...\"}\n" +
-                                "args에 type/properties/required 같은 스키마 정의는 넣지 말 것.",
-                        ticketSchema
-                ),
-                new PlanRequestPayload.ToolSpec(
-                        "wiki.createPage",
-                        "위키 문서를 생성한다. args는 반드시 {\"title\":\"...\",\"body\":\"...\"} 형태의 '값'만 포함해야 한다. " +
-                                "type/properties/required 같은 스키마 정의를 args에 절대 넣지 말 것." +
-                                "body에는 변경 배경/영향도/롤백 방법을 포함할 것.",
-                        wikiSchema
-                )
-        );
-    }
 }
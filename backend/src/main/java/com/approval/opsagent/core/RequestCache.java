@@ -0,0 +1,236 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.core.model.RequestStatus;
+import com.approval.opsagent.core.model.Ticket;
+import com.approval.opsagent.core.model.WikiPage;
+import com.approval.opsagent.core.model.WorkRequest;
+import com.approval.opsagent.events.ChangeEvent;
+import com.approval.opsagent.events.ChangeListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 종료 상태 요청의 읽기 캐시 (WorkRepo find / tickets / wiki / detailJson)
+ * - DONE/REJECTED 요청만 보관 (진행 중인 요청은 계속 바뀌니 항상 DB)
+ *   FAILED 는 resume 으로 다시 EXECUTING 이 될 수 있어서 최종 상태가 아님 → 캐시 안 함
+ *   tickets/wiki 는 같은 요청의 row 나 상세가 이미 캐시에 있을 때(= 종료 상태 확인됨)만 보관
+ * - 항목 수 + 추정 크기 둘 다 상한, 넘으면 오래 안 쓴 것부터 제거 (LRU)
+ * - WorkRepo 쓰기 → 해당 요청 무효화 (트랜잭션 안이면 커밋 후 한 번 더)
+ *   다른 노드의 쓰기 → 변경 이벤트(V11 NOTIFY)로 무효화 (crossNode)
+ * - DB 에서 읽는 동안 같은 요청이 무효화됐으면 읽은 값은 넣지 않음 (stripe 별 세대 번호)
+ */
+@Component
+public class RequestCache implements MeterBinder, ChangeListener {
+    public enum Kind { REQUEST, TICKETS, WIKI, DETAIL, DETAIL_LITE }
+
+    static final Set<RequestStatus> CACHEABLE = EnumSet.of(RequestStatus.DONE, RequestStatus.REJECTED);
+    private static final int STRIPES = 256;
+
+    private record Key(long id, Kind kind) {}
+    private record Slot(Object value, long weight) {}
+
+    private final RequestCacheProperties props;
+    private final LinkedHashMap<Key, Slot> lru = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight; // guarded by lru
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public RequestCache(RequestCacheProperties props) {
+        this.props = props;
+    }
+
+    /** 캐시 없이 항상 DB (벤치마크/테스트용) */
+    public static RequestCache disabled() {
+        RequestCacheProperties p = new RequestCacheProperties();
+        p.setEnabled(false);
+        return new RequestCache(p);
+    }
+
+    public static boolean cacheable(RequestStatus status) {
+        return CACHEABLE.contains(status);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(long id, Kind kind) {
+        if (!props.isEnabled()) return null;
+        Slot s;
+        synchronized (lru) {
+            s = lru.get(new Key(id, kind));
+        }
+        if (s == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return (T) s.value();
+    }
+
+    /** DB 읽기 전에 받아 두고 put 에 넘김 */
+    public long stamp(long id) {
+        return generations.get(stripe(id));
+    }
+
+    /** 종료 상태가 확인된 요청인지 (row 또는 상세가 캐시에 있음) */
+    public boolean knownTerminal(long id) {
+        if (!props.isEnabled()) return false;
+        synchronized (lru) {
+            return lru.containsKey(new Key(id, Kind.REQUEST))
+                    || lru.containsKey(new Key(id, Kind.DETAIL))
+                    || lru.containsKey(new Key(id, Kind.DETAIL_LITE));
+        }
+    }
+
+    public void put(long id, Kind kind, Object value, long weight, long stamp) {
+        if (!props.isEnabled() || weight > props.getMaxWeight().toBytes()) return;
+        synchronized (lru) {
+            // 읽는 동안 무효화됐으면 버림 (lock 안에서 확인 → invalidate 와 순서 보장)
+            if (generations.get(stripe(id)) != stamp) return;
+            Slot old = lru.put(new Key(id, kind), new Slot(value, weight));
+            this.weight += weight - (old == null ? 0 : old.weight());
+            evict();
+        }
+    }
+
+    public void invalidate(long id) {
+        evictNow(id);
+        afterCommit(() -> evictNow(id));
+    }
+
+    public void invalidateAll(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        for (long id : ids) evictNow(id);
+        afterCommit(() -> { for (long id : ids) evictNow(id); });
+    }
+
+    public void clear() {
+        synchronized (lru) {
+            for (int i = 0; i < STRIPES; i++) generations.incrementAndGet(i);
+            lru.clear();
+            weight = 0;
+        }
+    }
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (props.isCrossNode() && event.requestId() > 0) evictNow(event.requestId());
+    }
+
+    @Override
+    public void onReset() {
+        if (props.isCrossNode()) clear();
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        long w;
+        synchronized (lru) {
+            size = lru.size();
+            w = weight;
+        }
+        long h = hits.get(), m = misses.get();
+        return Map.of(
+                "enabled", props.isEnabled(),
+                "size", size,
+                "weightBytes", w,
+                "hits", h,
+                "misses", m,
+                "hitRate", h + m == 0 ? 0.0 : (double) h / (h + m),
+                "evictions", evictions.get(),
+                "invalidations", invalidations.get()
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("opsagent.request.cache.size", this, c -> { synchronized (c.lru) { return c.lru.size(); } })
+                .register(registry);
+        Gauge.builder("opsagent.request.cache.weight", this, c -> { synchronized (c.lru) { return c.weight; } })
+                .baseUnit("bytes").register(registry);
+        FunctionCounter.builder("opsagent.request.cache.lookups", hits, AtomicLong::get).tag("result", "hit").register(registry);
+        FunctionCounter.builder("opsagent.request.cache.lookups", misses, AtomicLong::get).tag("result", "miss").register(registry);
+        FunctionCounter.builder("opsagent.request.cache.evictions", evictions, AtomicLong::get)
+                .description("크기/항목 수 상한으로 제거된 항목").register(registry);
+        FunctionCounter.builder("opsagent.request.cache.invalidations", invalidations, AtomicLong::get).register(registry);
+    }
+
+    // 추정 크기: 문자열은 UTF-16 기준 2바이트/문자 + 객체 오버헤드 대략치
+    static long weigh(String s) {
+        return s == null ? 0 : 40 + 2L * s.length();
+    }
+
+    static long weigh(WorkRequest r) {
+        return 96 + weigh(r.requester()) + weigh(r.title()) + weigh(r.inputText()) + weigh(r.planJson())
+                + weigh(r.approvedBy()) + weigh(r.resultJson());
+    }
+
+    static long weighTickets(List<Ticket> tickets) {
+        long w = 32;
+        for (Ticket t : tickets) w += 64 + weigh(t.title()) + weigh(t.description());
+        return w;
+    }
+
+    static long weighWiki(List<WikiPage> pages) {
+        long w = 32;
+        for (WikiPage p : pages) w += 64 + weigh(p.title()) + weigh(p.body());
+        return w;
+    }
+
+    private void evictNow(long id) {
+        if (!props.isEnabled()) return;
+        synchronized (lru) {
+            generations.incrementAndGet(stripe(id));
+            for (Kind k : Kind.values()) {
+                Slot s = lru.remove(new Key(id, k));
+                if (s != null) {
+                    weight -= s.weight();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // guarded by lru
+    private void evict() {
+        long maxWeight = props.getMaxWeight().toBytes();
+        Iterator<Slot> it = lru.values().iterator();
+        while ((lru.size() > props.getMaxEntries() || weight > maxWeight) && it.hasNext()) {
+            weight -= it.next().weight();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    // 커밋 전에 다른 스레드가 옛 값을 읽어 넣을 수 있어서 커밋 후 한 번 더
+    private static void afterCommit(Runnable r) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                r.run();
+            }
+        });
+    }
+
+    private static int stripe(long id) {
+        return (int) (id & (STRIPES - 1));
+    }
+}
@@ -0,0 +1,24 @@
+package com.approval.opsagent.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "request.cache")
+public class RequestCacheProperties {
+    private boolean enabled = true;
+    // 최대 항목 수 (요청 하나에 row / tickets / wiki / 상세 JSON 이 각각 한 항목)
+    private int maxEntries = 20_000;
+    // 추정 크기(문자열 길이 기준) 합계 상한, 넘으면 오래 안 쓴 항목부터 제거
+    private DataSize maxWeight = DataSize.ofMegabytes(64);
+    // 다른 노드의 쓰기도 변경 이벤트(NOTIFY, events.enabled)로 무효화
+    private boolean crossNode = true;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+    public DataSize getMaxWeight() { return maxWeight; }
+    public void setMaxWeight(DataSize maxWeight) { this.maxWeight = maxWeight; }
+    public boolean isCrossNode() { return crossNode; }
+    public void setCrossNode(boolean crossNode) { this.crossNode = crossNode; }
+}
@@ -0,0 +1,200 @@
+package com.approval.opsagent.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NDJSON 일괄 적재
+ * - 본문을 한 줄씩 읽고 줄마다 Jackson streaming parser로 title/inputText만 뽑아서 검증 (본문 전체를 버퍼링하지 않음)
+ * - 유효한 줄이 batchSize 만큼 모이면 createAll 1회 + audit 1회, 그 구간 결과를 바로 써서 flush
+ *   → 메모리에는 최대 batchSize 줄만 남아서 업로드 크기와 무관
+ * - 결과도 NDJSON: 입력 줄 순서대로 {"line":n,"id":..} | {"line":n,"id":..,"existing":true} | {"line":n,"error":".."},
+ *   마지막에 {"done":true,..}
+ * - 구간마다 따로 커밋 (중간에 DB 오류가 나면 그 구간부터는 error로 응답하고 중단)
+ *   → 앞 구간은 이미 저장됨. 재시도는 첫 error 줄부터 다시 보내거나,
+ *     줄마다 idempotencyKey 를 넣어 두면 전체를 다시 보내도 이미 만든 줄은 기존 id 로(existing) 돌려줌
+ */
+@Service
+public class RequestIngestService {
+    private static final Logger log = LoggerFactory.getLogger(RequestIngestService.class);
+    private static final int MAX_KEY_CHARS = 200;
+
+    private record Line(int no, WorkRepo.CreateRequest row, String error) {}
+
+    private final WorkRepo repo;
+    private final AuditWriter audit;
+    private final IngestProperties props;
+    private final ObjectMapper om;
+
+    public RequestIngestService(WorkRepo repo, AuditWriter audit, IngestProperties props, ObjectMapper om) {
+        this.repo = repo;
+        this.audit = audit;
+        this.props = props;
+        this.om = om;
+    }
+
+    public Map<String, Object> ingest(String actor, Reader in, Writer out) throws IOException {
+        List<Line> pending = new ArrayList<>(props.getBatchSize());
+        StringBuilder buf = new StringBuilder();
+        int no = 0, accepted = 0, existing = 0, rejected = 0;
+        boolean aborted = false;
+
+        int status;
+        while ((status = readLine(in, buf, props.getMaxLineChars())) != EOF) {
+            no++;
+            Line line;
+            if (status == TOO_LONG) {
+                line = new Line(no, null, "줄이 너무 김 (max " + props.getMaxLineChars() + "자)");
+            } else if (buf.toString().isBlank()) {
+                continue;
+            } else {
+                line = parse(no, buf.toString());
+            }
+            pending.add(line);
+
+            if (pending.size() >= props.getBatchSize()) {
+                int[] r = flush(actor, pending, out);
+                accepted += r[0];
+                existing += r[1];
+                rejected += r[2];
+                if (r[3] != 0) { aborted = true; break; }
+            }
+        }
+        if (!aborted && !pending.isEmpty()) {
+            int[] r = flush(actor, pending, out);
+            accepted += r[0];
+            existing += r[1];
+            rejected += r[2];
+            aborted = r[3] != 0;
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("done", !aborted);
+        summary.put("lines", no);
+        summary.put("accepted", accepted);
+        summary.put("existing", existing);
+        summary.put("rejected", rejected);
+        write(out, summary);
+        out.flush();
+        return summary;
+    }
+
+    /** @return {accepted, existing, rejected, aborted(0|1)} */
+    private int[] flush(String actor, List<Line> pending, Writer out) throws IOException {
+        long t0 = System.currentTimeMillis();
+        List<WorkRepo.CreateRequest> rows = new ArrayList<>(pending.size());
+        for (Line l : pending) if (l.row() != null) rows.add(l.row());
+
+        List<WorkRepo.Created> ids;
+        String dbError = null;
+        try {
+            ids = repo.createAll(actor, rows);
+            List<Long> created = ids.stream().filter(c -> !c.existing()).map(WorkRepo.Created::id).toList();
+            audit.auditAll(created, actor, "CREATE", "ingested", true, (int) (System.currentTimeMillis() - t0));
+        } catch (DataAccessException e) {
+            log.warn("ingest batch failed (lines {}..{}): {}", pending.get(0).no(), pending.get(pending.size() - 1).no(), e.getMessage());
+            ids = List.of();
+            dbError = "저장 실패: " + e.getMostSpecificCause().getMessage();
+        }
+
+        int accepted = 0, existing = 0, rejected = 0, i = 0;
+        for (Line l : pending) {
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("line", l.no());
+            if (l.row() == null) {
+                r.put("error", l.error());
+                rejected++;
+            } else if (dbError != null) {
+                r.put("error", dbError);
+                rejected++;
+            } else {
+                WorkRepo.Created c = ids.get(i++);
+                r.put("id", c.id());
+                if (c.existing()) {
+                    r.put("existing", true);
+                    existing++;
+                } else {
+                    accepted++;
+                }
+            }
+            write(out, r);
+        }
+        out.flush();
+        pending.clear();
+        return new int[]{accepted, existing, rejected, dbError == null ? 0 : 1};
+    }
+
+    // requests.jsonl 형식도 그대로 받도록 body 를 inputText, request_id 를 idempotencyKey 별칭으로 허용, 나머지 필드는 무시
+    private Line parse(int no, String text) {
+        String title = null, inputText = null, key = null;
+        try (JsonParser p = om.getFactory().createParser(text)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return new Line(no, null, "JSON object 가 아님");
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken v = p.nextToken();
+                switch (field) {
+                    case "title" -> title = v.isScalarValue() ? p.getValueAsString() : skip(p);
+                    case "inputText", "input_text", "body" -> inputText = v.isScalarValue() ? p.getValueAsString() : skip(p);
+                    case "idempotencyKey", "request_id" -> key = v.isScalarValue() ? p.getValueAsString() : skip(p);
+                    default -> p.skipChildren();
+                }
+            }
+            if (p.nextToken() != null) return new Line(no, null, "한 줄에 JSON 값이 여러 개");
+        } catch (JsonProcessingException e) {
+            return new Line(no, null, "JSON 파싱 실패: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            return new Line(no, null, e.getMessage());
+        }
+
+        if (title == null || title.isBlank()) return new Line(no, null, "title 필수");
+        if (inputText == null || inputText.isBlank()) return new Line(no, null, "inputText 필수");
+        if (key != null && key.isBlank()) key = null;
+        if (key != null && key.length() > MAX_KEY_CHARS) return new Line(no, null, "idempotencyKey 가 너무 김 (max " + MAX_KEY_CHARS + "자)");
+        return new Line(no, new WorkRepo.CreateRequest(title, inputText, key), null);
+    }
+
+    private static String skip(JsonParser p) throws IOException {
+        p.skipChildren();
+        return null;
+    }
+
+    private void write(Writer out, Map<String, Object> r) throws IOException {
+        out.write(om.writeValueAsString(r));
+        out.write('\n');
+    }
+
+    static final int EOF = -1, OK = 0, TOO_LONG = 1;
+
+    /** 다음 줄을 buf 에 읽음 (\n, \r\n 구분). max 를 넘는 부분은 버리고 TOO_LONG */
+    static int readLine(Reader in, StringBuilder buf, int max) throws IOException {
+        buf.setLength(0);
+        boolean any = false, tooLong = false, cr = false;
+        int c;
+        while ((c = in.read()) != -1) {
+            any = true;
+            if (c == '\n') break;
+            if (cr) tooLong = true; // max 자 뒤의 \r 이 줄 끝이 아니었음
+            cr = false;
+            if (buf.length() < max) buf.append((char) c);
+            else if (c == '\r') cr = true; // 딱 max 자인 CRLF 줄은 정상
+            else tooLong = true;
+        }
+        if (!any) return EOF;
+        if (!buf.isEmpty() && buf.charAt(buf.length() - 1) == '\r') buf.setLength(buf.length() - 1);
+        return tooLong ? TOO_LONG : OK;
+    }
+}
@@ -2,7 +2,23 @@ package com.approval.opsagent.core;
 
 import java.util.Map;
 
-public interface Tool {
+/**
+ * 실행 가능한 도구
+ * - 실행은 항상 ToolRegistry.invoke 를 거침 (descriptor 의 동시 실행 수 / rate limit / timeout 적용)
+ * @param <A> args 타입 (plan step의 args JSON이 실행 직전에 이 타입으로 한 번 변환됨)
+ */
+public interface Tool<A> {
     String name();
-    Object run(long requestId, Map<String, Object> args);
+    Class<A> argsType();
+
+    /** LLM 에 넘길 설명/args 예시 + 실행 한도, 선언하지 않은 한도는 tools.defaults */
+    default ToolDescriptor descriptor() {
+        return ToolDescriptor.of(name(), Map.of());
+    }
+
+    /**
+     * @param idempotencyKey step 단위 키 (요청 id + step id). 재개/재시도로 같은 step이 다시 실행될 수 있으므로
+     *                       외부에 남는 결과(티켓/위키 등)는 이 키로 중복 생성을 막아야 함
+     */
+    Object run(long requestId, String idempotencyKey, A args);
 }
@@ -0,0 +1,33 @@
+package com.approval.opsagent.core;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * tool 이 선언하는 메타데이터
+ * - description / argsSchema: LLM 에 넘기는 tool 목록 (PlanningService, ToolRegistry.specs)
+ * - maxConcurrency / ratePerSecond / timeout: ToolRegistry 가 강제 (0 / null 이면 tools.defaults)
+ *   tools.overrides.[이름].* 또는 POST /api/ops/tools/{name}/limits 가 있으면 그 값이 우선
+ * - idempotent: 같은 idempotencyKey 로 다시 실행해도 결과가 한 번만 남는지
+ *   false 면 timeout 으로 끝난 step 은 resume 하지 않음 (실제로 실행됐는지 알 수 없음)
+ */
+public record ToolDescriptor(
+        String description,
+        Map<String, Object> argsSchema,
+        int maxConcurrency,
+        double ratePerSecond,
+        Duration timeout,
+        boolean idempotent
+) {
+    public static ToolDescriptor of(String description, Map<String, Object> argsSchema) {
+        return new ToolDescriptor(description, argsSchema, 0, 0, null, false);
+    }
+
+    public ToolDescriptor withLimits(int maxConcurrency, double ratePerSecond, Duration timeout) {
+        return new ToolDescriptor(description, argsSchema, maxConcurrency, ratePerSecond, timeout, idempotent);
+    }
+
+    public ToolDescriptor withIdempotent(boolean idempotent) {
+        return new ToolDescriptor(description, argsSchema, maxConcurrency, ratePerSecond, timeout, idempotent);
+    }
+}
@@ -0,0 +1,53 @@
+package com.approval.opsagent.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "tools")
+public class ToolProperties {
+    // tool 이 한도를 선언하지 않았을 때
+    private Limits defaults = new Limits(4, 0.0, Duration.ofSeconds(30));
+    // bulkhead 자리 / rate limit 토큰을 기다리는 최대 시간, 넘으면 step 실패 (plan-step 스레드를 오래 잡지 않도록)
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+    // tool 이름별 한도 (tools.overrides[ticket.createMany].timeout=10s), 선언값보다 우선
+    private Map<String, Limits> overrides = new HashMap<>();
+    // tool 실행 스레드 상한 (모든 tool 합계, timeout 뒤 아직 안 끝난 호출 포함), 다 차면 step 실패
+    private int runnerThreads = 64;
+
+    public Limits getDefaults() { return defaults; }
+    public void setDefaults(Limits defaults) { this.defaults = defaults; }
+    public Duration getAcquireTimeout() { return acquireTimeout; }
+    public void setAcquireTimeout(Duration acquireTimeout) { this.acquireTimeout = acquireTimeout; }
+    public Map<String, Limits> getOverrides() { return overrides; }
+    public void setOverrides(Map<String, Limits> overrides) { this.overrides = overrides; }
+    public int getRunnerThreads() { return runnerThreads; }
+    public void setRunnerThreads(int runnerThreads) { this.runnerThreads = runnerThreads; }
+
+    /** null 인 항목은 다음 단계(선언값 → defaults)를 따름 */
+    public static class Limits {
+        // 동시 실행 수 (bulkhead)
+        private Integer maxConcurrency;
+        // 초당 실행 수, 0 이면 제한 없음
+        private Double ratePerSecond;
+        // 한 번 실행 제한 시간
+        private Duration timeout;
+
+        public Limits() {}
+
+        public Limits(Integer maxConcurrency, Double ratePerSecond, Duration timeout) {
+            this.maxConcurrency = maxConcurrency;
+            this.ratePerSecond = ratePerSecond;
+            this.timeout = timeout;
+        }
+
+        public Integer getMaxConcurrency() { return maxConcurrency; }
+        public void setMaxConcurrency(Integer maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+        public Double getRatePerSecond() { return ratePerSecond; }
+        public void setRatePerSecond(Double ratePerSecond) { this.ratePerSecond = ratePerSecond; }
+        public Duration getTimeout() { return timeout; }
+        public void setTimeout(Duration timeout) { this.timeout = timeout; }
+    }
+}
@@ -1,22 +1,406 @@
 package com.approval.opsagent.core;
 
+import com.approval.opsagent.ai.dto.PlanRequestPayload;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * tool 목록 + 실행 한도
+ * - tool 마다 bulkhead(동시 실행 수) / rate limit(초당 실행 수) / timeout → 느린 외부 tool 이 있어도
+ *   다른 tool(ticket.createMany 등)의 자리는 그대로 남음
+ * - 자리/토큰은 tools.acquire-timeout 까지만 기다림 (plan-step 스레드를 오래 잡지 않도록)
+ * - timeout 이 나면 step 은 바로 실패, tool 스레드에는 interrupt 만 보내고 실제로 끝날 때 자리 반납
+ *   (멈춘 외부 호출이 계속 자리를 차지 → 같은 tool 만 막히고 나머지로 번지지 않음)
+ *   JDBC/HTTP 호출은 interrupt 로 멈추지 않아서 timeout 뒤에 커밋될 수 있음 → 실제 결과는 lateOutcome 으로 넘겨 journal 에 남김
+ * - 실행 스레드는 tools.runner-threads 까지 (bulkhead 합계와 별개인 전체 상한, 다 차면 runner 로 거절)
+ * - 실행 중 register / unregister / reload / 한도 변경 가능, spec 이 바뀌면 version() 증가 (PlanningService 가 tool 목록 다시 만듦)
+ */
 @Component
-public class ToolRegistry {
-    private final Map<String, Tool> tools = new HashMap<>();
+public class ToolRegistry implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ToolRegistry.class);
 
-    public ToolRegistry(List<Tool> toolList) {
-        for (Tool t : toolList) tools.put(t.name(), t);
+    /** 이름별 실행 상태 (unregister 해도 남겨 둠 → 같은 이름을 다시 등록해도 metric 이 이어짐) */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // POST /api/ops/tools/{name}/limits 로 바꾼 한도 (설정 overrides 보다 우선)
+    private final Map<String, ToolProperties.Limits> runtimeLimits = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private final ToolProperties props;
+    private final MeterRegistry meters;
+    private final Tracer tracer;
+    // timeout 뒤에도 끝나지 않은 호출이 스레드를 계속 잡고 있으므로 bulkhead 와 별개로 전체 상한
+    private final ThreadPoolExecutor runner;
+
+    public ToolRegistry(List<Tool<?>> toolList, ToolProperties props, MeterRegistry meters, Tracer tracer) {
+        this.props = props;
+        this.meters = meters;
+        this.tracer = tracer;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.runner = new ThreadPoolExecutor(0, props.getRunnerThreads(), 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread t = new Thread(r, "tool-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        for (Tool<?> t : toolList) {
+            if (entries.containsKey(t.name())) throw new IllegalStateException("duplicate tool: " + t.name());
+            register(t);
+        }
     }
 
-    public Tool get(String name) {
-        Tool t = tools.get(name);
+    public Tool<?> get(String name) {
+        Entry e = entries.get(name);
+        Tool<?> t = e == null ? null : e.tool;
         if (t == null) throw new IllegalArgumentException("unknown tool: " + name);
         return t;
     }
+
+    /** 등록 안 된 tool 은 false */
+    public boolean idempotent(String name) {
+        Entry e = entries.get(name);
+        return e != null && e.tool != null && e.descriptor.idempotent();
+    }
+
+    /** tool 목록/spec 이 바뀔 때마다 증가 */
+    public long version() {
+        return version.get();
+    }
+
+    /** LLM 에 넘기는 tool 목록 (이름순) */
+    public List<PlanRequestPayload.ToolSpec> specs() {
+        List<PlanRequestPayload.ToolSpec> out = new ArrayList<>();
+        for (Entry e : new TreeMap<>(entries).values()) {
+            if (e.tool == null) continue;
+            ToolDescriptor d = e.descriptor;
+            out.add(new PlanRequestPayload.ToolSpec(e.name, d.description(), d.argsSchema()));
+        }
+        return out;
+    }
+
+    // ---------------------------------------------------------------- 실행
+
+    /**
+     * 한도 안에서 tool 실행 (현재 span 을 tool 스레드로 넘김)
+     * @throws ToolUnavailableException 자리/토큰을 못 얻었거나 timeout
+     */
+    public <A> Object invoke(Tool<A> tool, long requestId, String idempotencyKey, A args) {
+        String name = tool.name();
+        Entry e = entries.get(name);
+        if (e == null || e.tool == null) throw new IllegalArgumentException("unknown tool: " + name);
+        Limits lim = e.limits;
+
+        long deadline = System.nanoTime() + props.getAcquireTimeout().toNanos();
+        try {
+            RateLimiter rl = e.rateLimiter;
+            if (rl != null && !rl.acquire(deadline)) {
+                e.rejectedRate.incrementAndGet();
+                throw new ToolUnavailableException(name, "rate_limit",
+                        "tool rate limited: " + name + " (" + lim.ratePerSecond() + "/s)");
+            }
+            if (!e.permits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                e.rejectedBulkhead.incrementAndGet();
+                throw new ToolUnavailableException(name, "bulkhead",
+                        "tool busy: " + name + " (max " + lim.maxConcurrency() + " concurrent)");
+            }
+        } catch (InterruptedException ie) {
+            // fail-fast 로 취소된 형제 step
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("tool interrupted: " + name, ie);
+        }
+
+        e.calls.incrementAndGet();
+        e.inFlight.incrementAndGet();
+        Span span = tracer.currentSpan();
+        // 실제 결과 (timeout 으로 먼저 돌아간 뒤에도 tool 이 끝나면 완료됨)
+        CompletableFuture<Object> outcome = new CompletableFuture<>();
+        // 시작 전에 취소되면 tool 은 아예 실행되지 않음 → 그 경우 outcome 을 취소로 완료 (둘 중 하나만)
+        AtomicBoolean started = new AtomicBoolean();
+        Future<Object> f;
+        try {
+            f = runner.submit(() -> {
+                if (!started.compareAndSet(false, true)) return null;
+                try {
+                    Object r;
+                    if (span == null) r = tool.run(requestId, idempotencyKey, args);
+                    else try (Tracer.SpanInScope ws = tracer.withSpan(span)) {
+                        r = tool.run(requestId, idempotencyKey, args);
+                    }
+                    outcome.complete(r);
+                    return r;
+                } catch (Throwable t) {
+                    outcome.completeExceptionally(t);
+                    throw t;
+                } finally {
+                    e.inFlight.decrementAndGet();
+                    e.permits.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            e.inFlight.decrementAndGet();
+            e.permits.release();
+            if (runner.isShutdown()) throw new ToolUnavailableException(name, "closed", "tool runner closed: " + name);
+            e.rejectedRunner.incrementAndGet();
+            throw new ToolUnavailableException(name, "runner",
+                    "tool runner busy: " + name + " (max " + props.getRunnerThreads() + " threads)");
+        }
+
+        long timeoutMs = lim.timeout().toMillis();
+        try {
+            return f.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            cancel(e, f, started, outcome);
+            e.timeouts.incrementAndGet();
+            throw new ToolUnavailableException(name, "timeout",
+                    ToolUnavailableException.TIMEOUT_PREFIX + name + " (" + timeoutMs + "ms)", outcome);
+        } catch (InterruptedException ex) {
+            cancel(e, f, started, outcome);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("tool interrupted: " + name, ex);
+        } catch (ExecutionException ex) {
+            Throwable c = ex.getCause();
+            if (c instanceof RuntimeException re) throw re;
+            if (c instanceof Error err) throw err;
+            throw new IllegalStateException(c.getMessage(), c);
+        }
+    }
+
+    // 아직 시작 안 했으면 실행 자체를 막고 자리도 여기서 반납 (시작했으면 tool 스레드 finally 에서)
+    private static void cancel(Entry e, Future<Object> f, AtomicBoolean started, CompletableFuture<Object> outcome) {
+        if (started.compareAndSet(false, true)) {
+            e.inFlight.decrementAndGet();
+            e.permits.release();
+            outcome.completeExceptionally(new CancellationException("tool not started"));
+        }
+        f.cancel(true);
+    }
+
+    // ---------------------------------------------------------------- 실행 중 변경
+
+    /** 추가 또는 같은 이름 교체 (descriptor 를 다시 읽고 한도 재계산) */
+    public void register(Tool<?> tool) {
+        Entry e = entries.computeIfAbsent(tool.name(), Entry::new);
+        e.apply(tool, tool.descriptor());
+        version.incrementAndGet();
+        log.info("tool registered: {} {}", tool.name(), e.limits);
+    }
+
+    /** 실행 중인 호출은 그대로 끝남 */
+    public boolean unregister(String name) {
+        Entry e = entries.get(name);
+        if (e == null || e.tool == null) return false;
+        e.remove();
+        version.incrementAndGet();
+        log.info("tool unregistered: {}", name);
+        return true;
+    }
+
+    /** descriptor / 설정 overrides 다시 반영, 등록 안 된 tool 이면 empty */
+    public Optional<Map<String, Object>> reload(String name) {
+        return registered(name).map(e -> {
+            e.apply(e.tool, e.tool.descriptor());
+            version.incrementAndGet();
+            return stats(e);
+        });
+    }
+
+    /**
+     * 이 노드의 한도 변경 (null 항목은 그대로 설정/선언값), 등록 안 된 tool 이면 empty
+     * @throws IllegalArgumentException 한도 값이 범위 밖
+     */
+    public Optional<Map<String, Object>> updateLimits(String name, ToolProperties.Limits limits) {
+        if (limits.getMaxConcurrency() != null && limits.getMaxConcurrency() < 1) {
+            throw new IllegalArgumentException("maxConcurrency 는 1 이상");
+        }
+        if (limits.getRatePerSecond() != null && limits.getRatePerSecond() < 0) {
+            throw new IllegalArgumentException("ratePerSecond 는 0 이상 (0 = 제한 없음)");
+        }
+        if (limits.getTimeout() != null && (limits.getTimeout().isZero() || limits.getTimeout().isNegative())) {
+            throw new IllegalArgumentException("timeout 은 0 보다 커야 함");
+        }
+        return registered(name).map(e -> {
+            runtimeLimits.put(name, limits);
+            e.apply(e.tool, e.descriptor);
+            log.info("tool limits updated: {} {}", name, e.limits);
+            return stats(e);
+        });
+    }
+
+    public List<Map<String, Object>> stats() {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (Entry e : new TreeMap<>(entries).values()) {
+            if (e.tool != null) out.add(stats(e));
+        }
+        return out;
+    }
+
+    @Override
+    public void destroy() {
+        runner.shutdownNow();
+    }
+
+    private Map<String, Object> stats(Entry e) {
+        Limits lim = e.limits;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("name", e.name);
+        m.put("idempotent", e.descriptor.idempotent());
+        m.put("maxConcurrency", lim.maxConcurrency());
+        m.put("ratePerSecond", lim.ratePerSecond());
+        m.put("timeoutMs", lim.timeout().toMillis());
+        m.put("inFlight", e.inFlight.get());
+        m.put("calls", e.calls.get());
+        m.put("timeouts", e.timeouts.get());
+        m.put("rejected", Map.of("bulkhead", e.rejectedBulkhead.get(), "rate_limit", e.rejectedRate.get(),
+                "runner", e.rejectedRunner.get()));
+        return m;
+    }
+
+    private Optional<Entry> registered(String name) {
+        Entry e = entries.get(name);
+        return e == null || e.tool == null ? Optional.empty() : Optional.of(e);
+    }
+
+    // 우선순위: 실행 중 변경 > 설정 overrides > tool 선언 > 설정 defaults
+    private Limits resolve(String name, ToolDescriptor d) {
+        ToolProperties.Limits rt = runtimeLimits.get(name);
+        ToolProperties.Limits cfg = props.getOverrides().get(name);
+        ToolProperties.Limits def = props.getDefaults();
+        int max = first(rt == null ? null : rt.getMaxConcurrency(), cfg == null ? null : cfg.getMaxConcurrency(),
+                d.maxConcurrency() > 0 ? d.maxConcurrency() : null, def.getMaxConcurrency(), 1);
+        double rate = first(rt == null ? null : rt.getRatePerSecond(), cfg == null ? null : cfg.getRatePerSecond(),
+                d.ratePerSecond() > 0 ? d.ratePerSecond() : null, def.getRatePerSecond(), 0.0);
+        Duration timeout = first(rt == null ? null : rt.getTimeout(), cfg == null ? null : cfg.getTimeout(),
+                d.timeout(), def.getTimeout(), Duration.ofSeconds(30));
+        return new Limits(Math.max(1, max), Math.max(0, rate), timeout);
+    }
+
+    @SafeVarargs
+    private static <T> T first(T... values) {
+        for (T v : values) if (v != null) return v;
+        return null;
+    }
+
+    private record Limits(int maxConcurrency, double ratePerSecond, Duration timeout) {}
+
+    private final class Entry {
+        final String name;
+        volatile Tool<?> tool;
+        volatile ToolDescriptor descriptor;
+        volatile Limits limits = new Limits(0, 0, Duration.ZERO);
+        volatile RateLimiter rateLimiter;
+        // 한도를 바꿔도 같은 semaphore 를 늘리거나 줄임 → 실행 중인 호출 수가 그대로 반영됨
+        final ResizableSemaphore permits = new ResizableSemaphore();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+        final AtomicLong rejectedBulkhead = new AtomicLong();
+        final AtomicLong rejectedRate = new AtomicLong();
+        final AtomicLong rejectedRunner = new AtomicLong();
+
+        Entry(String name) {
+            this.name = name;
+            Gauge.builder("opsagent.tool.inflight", inFlight, AtomicInteger::get).tag("tool", name).register(meters);
+            Gauge.builder("opsagent.tool.max_concurrency", this, x -> x.limits.maxConcurrency()).tag("tool", name).register(meters);
+            FunctionCounter.builder("opsagent.tool.calls", calls, AtomicLong::get).tag("tool", name).register(meters);
+            FunctionCounter.builder("opsagent.tool.timeouts", timeouts, AtomicLong::get).tag("tool", name).register(meters);
+            FunctionCounter.builder("opsagent.tool.rejected", rejectedBulkhead, AtomicLong::get)
+                    .tag("tool", name).tag("reason", "bulkhead").register(meters);
+            FunctionCounter.builder("opsagent.tool.rejected", rejectedRate, AtomicLong::get)
+                    .tag("tool", name).tag("reason", "rate_limit").register(meters);
+            FunctionCounter.builder("opsagent.tool.rejected", rejectedRunner, AtomicLong::get)
+                    .tag("tool", name).tag("reason", "runner").register(meters);
+        }
+
+        synchronized void apply(Tool<?> tool, ToolDescriptor d) {
+            Limits next = resolve(name, d);
+            permits.resize(limits.maxConcurrency(), next.maxConcurrency());
+            RateLimiter rl = rateLimiter;
+            if (next.ratePerSecond() <= 0) rateLimiter = null;
+            else if (rl == null || rl.rate != next.ratePerSecond()) rateLimiter = new RateLimiter(next.ratePerSecond());
+            this.descriptor = d;
+            this.limits = next;
+            this.tool = tool;
+        }
+
+        synchronized void remove() {
+            this.tool = null;
+        }
+    }
+
+    private static final class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore() {
+            super(0);
+        }
+
+        // 줄일 때 이미 실행 중인 만큼은 반납될 때 사라짐 (음수 permit)
+        void resize(int from, int to) {
+            if (to > from) release(to - from);
+            else if (to < from) reducePermits(from - to);
+        }
+    }
+
+    /** token bucket (burst = 초당 실행 수, 최소 1) */
+    private static final class RateLimiter {
+        final double rate;
+        private final double perNano;
+        private final double burst;
+        private double tokens; // guarded by this
+        private long last;     // guarded by this
+
+        RateLimiter(double rate) {
+            this.rate = rate;
+            this.perNano = rate / TimeUnit.SECONDS.toNanos(1);
+            this.burst = Math.max(1, rate);
+            this.tokens = burst;
+            this.last = System.nanoTime();
+        }
+
+        /** deadline(nanoTime) 전에 토큰을 얻으면 true */
+        boolean acquire(long deadline) throws InterruptedException {
+            while (true) {
+                long wait;
+                synchronized (this) {
+                    long now = System.nanoTime();
+                    tokens = Math.min(burst, tokens + (now - last) * perNano);
+                    last = now;
+                    if (tokens >= 1) {
+                        tokens -= 1;
+                        return true;
+                    }
+                    wait = (long) Math.ceil((1 - tokens) / perNano);
+                    if (now + wait > deadline) return false;
+                }
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+    }
 }
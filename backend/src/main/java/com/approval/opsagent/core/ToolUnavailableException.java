@@ -0,0 +1,33 @@
+package com.approval.opsagent.core;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ToolRegistry 가 tool 실행을 막거나 끊은 경우
+ * reason: bulkhead (동시 실행 한도) | rate_limit | timeout | runner (실행 스레드 상한) | closed
+ * timeout 은 tool 이 실제로 끝까지 실행됐을 수도 있음 → lateOutcome 으로 실제 결과를 받아 journal 에 남김
+ */
+public class ToolUnavailableException extends IllegalStateException {
+    // execution_step.error 에 그대로 남는 메시지 prefix (resume 때 timeout step 구분)
+    public static final String TIMEOUT_PREFIX = "tool timeout: ";
+
+    private final String tool;
+    private final String reason;
+    private final CompletableFuture<Object> lateOutcome;
+
+    public ToolUnavailableException(String tool, String reason, String message) {
+        this(tool, reason, message, null);
+    }
+
+    public ToolUnavailableException(String tool, String reason, String message, CompletableFuture<Object> lateOutcome) {
+        super(message);
+        this.tool = tool;
+        this.reason = reason;
+        this.lateOutcome = lateOutcome;
+    }
+
+    public String tool() { return tool; }
+    public String reason() { return reason; }
+    /** timeout 일 때만: 아직 돌고 있는 tool 이 실제로 끝나면 완료 (결과 또는 예외) */
+    public CompletableFuture<Object> lateOutcome() { return lateOutcome; }
+}
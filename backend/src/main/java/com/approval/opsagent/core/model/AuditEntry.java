@@ -0,0 +1,15 @@
+package com.approval.opsagent.core.model;
+
+import java.time.Instant;
+
+/** audit_log 한 줄 (at = 이벤트 발생 시각, DB 기록 시각이 아님 / traceId = 기록 시점의 현재 trace, 없으면 null) */
+public record AuditEntry(
+        long requestId,
+        String actor,
+        String action,
+        String message,
+        boolean success,
+        int latencyMs,
+        Instant at,
+        String traceId
+) {}
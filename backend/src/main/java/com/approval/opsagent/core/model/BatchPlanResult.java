@@ -0,0 +1,19 @@
+package com.approval.opsagent.core.model;
+
+import java.util.List;
+
+/**
+ * 일괄 계획 결과
+ * planned: 이번에 PLANNED 로 저장된 건수 / results: 요청한 id 순서대로 한 건씩
+ */
+public record BatchPlanResult(
+        int requested,
+        int planned,
+        List<Item> results
+) {
+    /**
+     * outcome: PLANNED / SKIPPED (계획할 수 없는 상태) / NOT_FOUND / FAILED (AI 호출·검증 실패) / CONFLICT (저장 전에 상태가 바뀜)
+     * source: ai | cache (PLANNED 일 때만), error: 실패 사유
+     */
+    public record Item(long id, String outcome, String source, String error) {}
+}
@@ -0,0 +1,20 @@
+package com.approval.opsagent.core.model;
+
+import java.util.List;
+
+/**
+ * 일괄 승인/반려 결과
+ * updated: 실제로 상태가 바뀐 건수 / results: 요청한 id 순서대로 한 건씩
+ */
+public record BulkDecisionResult(
+        String decision,
+        int requested,
+        int updated,
+        List<Item> results
+) {
+    /**
+     * outcome: APPROVED | REJECTED (이번에 변경) / SKIPPED (PLANNED가 아니라 변경 안 함) / NOT_FOUND
+     * status: 처리 후 현재 상태 (NOT_FOUND면 null)
+     */
+    public record Item(long id, String outcome, String status) {}
+}
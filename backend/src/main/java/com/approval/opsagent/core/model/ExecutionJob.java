@@ -0,0 +1,16 @@
+package com.approval.opsagent.core.model;
+
+import java.time.OffsetDateTime;
+
+/** execution_job 한 줄 (GET /api/jobs/{id}, SSE 응답 형태 그대로) */
+public record ExecutionJob(
+        long id,
+        long request_id,
+        String actor,
+        String status,
+        String error,
+        String claimed_by,
+        OffsetDateTime created_at,
+        OffsetDateTime started_at,
+        OffsetDateTime finished_at
+) {}
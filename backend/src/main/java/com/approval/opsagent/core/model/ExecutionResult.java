@@ -0,0 +1,12 @@
+package com.approval.opsagent.core.model;
+
+import com.fasterxml.jackson.annotation.JsonView;
+
+import java.util.List;
+
+/** 동기 실행 결과 (API는 Summary view로 응답 → 위키 본문 등 큰 필드는 상세 조회에서) */
+public record ExecutionResult(
+        @JsonView(Views.Summary.class) long requestId,
+        @JsonView(Views.Summary.class) List<Ticket> tickets,
+        @JsonView(Views.Summary.class) List<WikiPage> wikiPages
+) {}
@@ -0,0 +1,18 @@
+package com.approval.opsagent.core.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * 실행 계획 (work_request.plan_json, jsonb)
+ * AI 응답 스키마(version/approval_required/steps)와 SimplePlanGenerator(goal/riskNotes)를 모두 수용
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Plan(
+        String version,
+        String goal,
+        Boolean approval_required,
+        List<PlanStep> steps,
+        List<String> riskNotes
+) {}
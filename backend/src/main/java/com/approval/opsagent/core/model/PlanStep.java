@@ -0,0 +1,20 @@
+package com.approval.opsagent.core.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * plan 한 step
+ * - args는 tool마다 형태가 달라서 트리로 보관 → 실행 시 tool의 argsType()으로 한 번만 변환
+ * - dependsOn == null 이면 "지정 안 함"(레거시 순차 plan), 빈 배열이면 "선행 없음"
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PlanStep(
+        String id,
+        String tool,
+        JsonNode args,
+        List<String> dependsOn,
+        String why
+) {}
@@ -0,0 +1,11 @@
+package com.approval.opsagent.core.model;
+
+import java.time.OffsetDateTime;
+
+/** 요청 목록 필터 (null = 조건 없음) */
+public record RequestFilter(
+        String status,
+        String requester,
+        OffsetDateTime from,
+        OffsetDateTime to
+) {}
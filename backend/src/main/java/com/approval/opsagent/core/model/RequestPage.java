@@ -0,0 +1,12 @@
+package com.approval.opsagent.core.model;
+
+import java.util.List;
+
+/**
+ * keyset 페이지
+ * nextCursor: 다음 페이지 요청 시 cursor로 넘길 값 (마지막 페이지면 null)
+ */
+public record RequestPage(
+        List<RequestSummary> items,
+        Long nextCursor
+) {}
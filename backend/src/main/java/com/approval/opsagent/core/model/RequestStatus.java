@@ -0,0 +1,46 @@
+package com.approval.opsagent.core.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * work_request.status 상태 머신
+ * DRAFT → PLANNED → APPROVED → EXECUTING → DONE | FAILED
+ * PLANNED → REJECTED, PLANNED | REJECTED → PLANNED (재계획), FAILED → EXECUTING (재개)
+ * 전이는 WorkRepo 의 조건부 UPDATE(WHERE status = 허용된 이전 상태)로만 수행
+ */
+public enum RequestStatus {
+    DRAFT, PLANNED, APPROVED, REJECTED, EXECUTING, DONE, FAILED;
+
+    private static final Map<RequestStatus, Set<RequestStatus>> NEXT = new EnumMap<>(RequestStatus.class);
+
+    static {
+        NEXT.put(DRAFT, EnumSet.of(PLANNED));
+        NEXT.put(PLANNED, EnumSet.of(PLANNED, APPROVED, REJECTED)); // 재계획 허용
+        NEXT.put(REJECTED, EnumSet.of(PLANNED));
+        NEXT.put(APPROVED, EnumSet.of(EXECUTING));
+        NEXT.put(EXECUTING, EnumSet.of(DONE, FAILED));
+        NEXT.put(DONE, EnumSet.noneOf(RequestStatus.class));
+        NEXT.put(FAILED, EnumSet.of(EXECUTING)); // resume: 완료된 step은 건너뛰고 이어서 실행
+    }
+
+    public boolean canTransitionTo(RequestStatus next) {
+        return NEXT.get(this).contains(next);
+    }
+
+    public Set<RequestStatus> next() {
+        return Collections.unmodifiableSet(NEXT.get(this));
+    }
+
+    /** target 으로 갈 수 있는 이전 상태들 (조건부 UPDATE의 WHERE status = ANY(...)에 사용) */
+    public static Set<RequestStatus> sourcesOf(RequestStatus target) {
+        Set<RequestStatus> from = EnumSet.noneOf(RequestStatus.class);
+        NEXT.forEach((s, next) -> {
+            if (next.contains(target)) from.add(s);
+        });
+        return from;
+    }
+}
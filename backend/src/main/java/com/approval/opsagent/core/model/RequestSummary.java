@@ -0,0 +1,13 @@
+package com.approval.opsagent.core.model;
+
+import java.time.OffsetDateTime;
+
+/** 요청 목록 한 줄 (plan_json/result_json 같은 큰 컬럼은 제외) */
+public record RequestSummary(
+        long id,
+        String title,
+        String status,
+        String requester,
+        OffsetDateTime created_at,
+        OffsetDateTime updated_at
+) {}
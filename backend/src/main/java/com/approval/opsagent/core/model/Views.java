@@ -0,0 +1,14 @@
+package com.approval.opsagent.core.model;
+
+/**
+ * 응답 JSON view
+ * - Summary: 목록/실행 결과처럼 id·제목만 필요한 응답
+ * - Detail: 본문/설명까지 포함
+ */
+public final class Views {
+    private Views() {}
+
+    public interface Summary {}
+
+    public interface Detail extends Summary {}
+}
@@ -0,0 +1,14 @@
+package com.approval.opsagent.core.model;
+
+import com.fasterxml.jackson.annotation.JsonView;
+
+import java.time.OffsetDateTime;
+
+/** wiki_page 한 줄 */
+public record WikiPage(
+        @JsonView(Views.Summary.class) long id,
+        @JsonView(Views.Detail.class) long request_id,
+        @JsonView(Views.Summary.class) String title,
+        @JsonView(Views.Detail.class) String body,
+        @JsonView(Views.Detail.class) OffsetDateTime created_at
+) {}
@@ -0,0 +1,20 @@
+package com.approval.opsagent.core.model;
+
+import java.time.OffsetDateTime;
+
+/** work_request 한 줄 (내부 처리용, plan_json/result_json은 JSON 문자열 그대로 / version: 상태 전이 optimistic lock) */
+public record WorkRequest(
+        long id,
+        String requester,
+        String title,
+        String inputText,
+        RequestStatus status,
+        String planJson,
+        String approvedBy,
+        OffsetDateTime approvedAt,
+        OffsetDateTime executedAt,
+        String resultJson,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        long version
+) {}
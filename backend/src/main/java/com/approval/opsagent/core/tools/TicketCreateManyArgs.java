@@ -0,0 +1,18 @@
+package com.approval.opsagent.core.tools;
+
+import java.util.List;
+
+/**
+ * ticket.createMany args
+ * A) items 방식: {"items":[{"title":"...","desc":"..."}]}
+ * B) count 방식: {"count":5,"titlePrefix":"...","desc":"..."}
+ */
+public record TicketCreateManyArgs(
+        String mode,
+        List<Item> items,
+        Integer count,
+        String titlePrefix,
+        String desc
+) {
+    public record Item(String title, String desc) {}
+}
@@ -1,13 +1,21 @@
 package com.approval.opsagent.core.tools;
 
 import com.approval.opsagent.core.Tool;
+import com.approval.opsagent.core.ToolDescriptor;
 import com.approval.opsagent.core.WorkRepo;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 
 @Component
-public class TicketCreateManyTool implements Tool {
+public class TicketCreateManyTool implements Tool<TicketCreateManyArgs> {
+    public static final String NAME = "ticket.createMany";
+    // count 방식 한 step 에서 만들 수 있는 최대 티켓 수 (planner 들의 count 상한과 같음)
+    public static final int MAX_COUNT = 50;
+    private static final int DEFAULT_COUNT = 3;
+
     private final WorkRepo repo;
 
     public TicketCreateManyTool(WorkRepo repo) {
@@ -16,38 +24,101 @@ public class TicketCreateManyTool implements Tool {
 
     @Override
     public String name() {
-        return "ticket.createMany";
+        return NAME;
     }
 
     @Override
-    public Object run(long requestId, Map<String, Object> args) {
-        Object itemsObj = args.get("items");
-        if (itemsObj instanceof List<?> list && !list.isEmpty()) {
-            int created = 0;
-            for (Object o : list) {
-                if (!(o instanceof Map<?, ?> m)) continue;
-
-                Object titleObj = m.get("title");
-                String title = (titleObj == null) ? "작업 티켓" : String.valueOf(titleObj);
+    public Class<TicketCreateManyArgs> argsType() {
+        return TicketCreateManyArgs.class;
+    }
 
-                Object descObj = m.get("desc");
-                String desc = (descObj == null) ? "" : String.valueOf(descObj);
+    // ✅ LLM이 스키마(type/properties/required)를 args로 복사하지 않도록
+    //    args_schema를 "값 예시 형태"로 단순화
+    // 티켓마다 멱등 키가 있어서 timeout 후 재개해도 중복 생성 없음
+    @Override
+    public ToolDescriptor descriptor() {
+        return ToolDescriptor.of(
+                "티켓을 여러 개 생성한다. args는 다음 중 하나의 형태로 작성한다.\n" +
+                        "A) items 방식(서로 다른 티켓): {\"items\":[{\"title\":\"...\",\"desc\":\"...\"}, ...]}\n" +
+                        "B) count 방식(유사 티켓 N개): {\"count\":5,\"titlePrefix\":\"...\",\"desc\":\"...\"}\n" +
+                        "args에 type/properties/required 같은 스키마 정의는 넣지 말 것.",
+                Map.of(
+                        "mode", "string (items | count) - 선택",
+                        "items", List.of(
+                                Map.of(
+                                        "title", "string (예: ApprovalOpsAgent - 원인분석)",
+                                        "desc", "string (예: 배포 오류 원인 파악: 로그/지표/재현 조건 정리)"
+                                )
+                        ),
+                        "count", "number (예: 5)",
+                        "titlePrefix", "string (예: 이번 주 안전점검)",
+                        "desc", "string (예: 점검 항목 확인)"
+                )
+        ).withIdempotent(true);
+    }
 
-                repo.insertTicket(requestId, title, desc);
-                created++;
+    // ✅ 한 step = 한 트랜잭션, 티켓은 배열 INSERT로 한 번에
+    // 결과: created = 이번 실행에서 실제로 만든 수, skipped = 이전 시도에서 이미 만들어져 있던 수
+    // 티켓마다 "<step 키>#<순번>" 멱등 키 → 같은 step 재실행 시 이미 만든 티켓은 건너뜀
+    @Override
+    @Transactional
+    public Object run(long requestId, String idempotencyKey, TicketCreateManyArgs args) {
+        List<TicketCreateManyArgs.Item> items = args.items();
+        if (items != null && !items.isEmpty()) {
+            List<WorkRepo.NewTicket> tickets = new ArrayList<>(items.size());
+            int seq = 0;
+            for (TicketCreateManyArgs.Item it : items) {
+                seq++;
+                if (it == null) continue;
+                String title = (it.title() == null) ? "작업 티켓" : it.title();
+                String desc = (it.desc() == null) ? "" : it.desc();
+                tickets.add(new WorkRepo.NewTicket(title, desc, key(idempotencyKey, seq)));
             }
-            return Map.of("created", created);
+            int created = repo.insertTickets(requestId, tickets);
+            return Map.of("created", created, "skipped", tickets.size() - created);
+        }
+
+        int count = args.count() == null ? DEFAULT_COUNT : args.count();
+        checkCount(count); // 번호 예약(ticket_seq 증가) 전에 거름
+        String prefix = args.titlePrefix() == null ? "운영 작업" : args.titlePrefix();
+        String desc = args.desc() == null ? "작업 내용" : args.desc();
+
+        // ✅ 번호는 요청별 sequence(ticket_seq)에서 받음 → 동시에 도는 형제 step 과 겹치지 않음
+        //    재개된 step 은 이미 만든 티켓(같은 멱등 키)을 빼고 나머지만 새 번호
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) keys.add(key(idempotencyKey, i));
+        Set<String> existing = idempotencyKey == null ? Set.of() : repo.existingTicketKeys(keys);
+        int n = repo.reserveTicketNumbers(requestId, count - existing.size());
+
+        List<WorkRepo.NewTicket> tickets = new ArrayList<>(count - existing.size());
+        for (String k : keys) {
+            if (k != null && existing.contains(k)) continue;
+            tickets.add(new WorkRepo.NewTicket(prefix + " #" + n, desc + " (단계 " + n + ")", k));
+            n++;
         }
+        int created = repo.insertTickets(requestId, tickets);
+        return Map.of("created", created, "skipped", count - created);
+    }
 
-        int count = ((Number) args.getOrDefault("count", 3)).intValue();
-        String prefix = String.valueOf(args.getOrDefault("titlePrefix", "운영 작업"));
-        String desc = String.valueOf(args.getOrDefault("desc", "작업 내용"));
+    /**
+     * plan 검증용: count 방식 args 의 count 가 범위 밖이면 IllegalArgumentException
+     * (items 가 있으면 count 는 쓰이지 않으므로 검사 안 함)
+     */
+    public static void checkArgs(JsonNode args) {
+        if (args == null || !args.isObject()) return;
+        JsonNode items = args.get("items");
+        if (items != null && items.isArray() && !items.isEmpty()) return;
+        JsonNode count = args.get("count");
+        if (count != null && !count.isNull()) checkCount(count.asInt(0));
+    }
 
-        int base = repo.tickets(requestId).size(); // 이미 생성된 티켓 수
-        for (int i = 1; i <= count; i++) {
-            int n = base + i;
-            repo.insertTicket(requestId, prefix + " #" + n, desc + " (단계 " + n + ")");
+    private static void checkCount(int count) {
+        if (count < 1 || count > MAX_COUNT) {
+            throw new IllegalArgumentException(NAME + " count 는 1~" + MAX_COUNT + " 사이여야 함. count=" + count);
         }
-        return Map.of("created", count);
+    }
+
+    private static String key(String stepKey, int seq) {
+        return stepKey == null ? null : stepKey + "#" + seq;
     }
 }
@@ -0,0 +1,4 @@
+package com.approval.opsagent.core.tools;
+
+/** wiki.createPage args (body가 비어 있으면 티켓 목록으로 본문 자동 생성) */
+public record WikiCreatePageArgs(String title, String body) {}
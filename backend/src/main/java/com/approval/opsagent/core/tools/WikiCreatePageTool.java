@@ -1,7 +1,9 @@
 package com.approval.opsagent.core.tools;
 
 import com.approval.opsagent.core.Tool;
+import com.approval.opsagent.core.ToolDescriptor;
 import com.approval.opsagent.core.WorkRepo;
+import com.approval.opsagent.core.model.Ticket;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -9,7 +11,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
-public class WikiCreatePageTool implements Tool {
+public class WikiCreatePageTool implements Tool<WikiCreatePageArgs> {
     private final WorkRepo repo;
 
     public WikiCreatePageTool(WorkRepo repo) {
@@ -22,15 +24,34 @@ public class WikiCreatePageTool implements Tool {
     }
 
     @Override
-    public Object run(long requestId, Map<String, Object> args) {
-        String title = String.valueOf(args.getOrDefault("title", "운영 요약"));
+    public Class<WikiCreatePageArgs> argsType() {
+        return WikiCreatePageArgs.class;
+    }
+
+    // step 멱등 키로 insert → 재개해도 문서는 하나
+    @Override
+    public ToolDescriptor descriptor() {
+        return ToolDescriptor.of(
+                "위키 문서를 생성한다. args는 반드시 {\"title\":\"...\",\"body\":\"...\"} 형태의 '값'만 포함해야 한다. " +
+                        "type/properties/required 같은 스키마 정의를 args에 절대 넣지 말 것." +
+                        "body에는 변경 배경/영향도/롤백 방법을 포함할 것.",
+                Map.of(
+                        "title", "string (예: ApprovalOpsAgent - 배포 후 오류 대응)",
+                        "body", "string (예: 변경 배경/영향도/롤백 방법을 포함한 본문)"
+                )
+        ).withIdempotent(true);
+    }
+
+    @Override
+    public Object run(long requestId, String idempotencyKey, WikiCreatePageArgs args) {
+        String title = args.title() == null ? "운영 요약" : args.title();
 
         // ✅ args.body가 비어있으면, 현재 requestId의 티켓을 기반으로 자동 본문 생성
-        String body = String.valueOf(args.getOrDefault("body", "")).trim();
+        String body = args.body() == null ? "" : args.body().trim();
         if (body.isBlank()) {
-            List<Map<String, Object>> tickets = repo.tickets(requestId);
+            List<Ticket> tickets = repo.tickets(requestId);
             String ticketLines = tickets.stream()
-                    .map(t -> "- " + t.get("title"))
+                    .map(t -> "- " + t.title())
                     .collect(Collectors.joining("\n"));
 
             body =
@@ -43,7 +64,7 @@ public class WikiCreatePageTool implements Tool {
                             "- 검증 완료 전 배포 확정 금지\n";
         }
 
-        repo.insertWiki(requestId, title, body);
-        return Map.of("created", 1, "title", title);
+        boolean created = repo.insertWiki(requestId, title, body, idempotencyKey);
+        return Map.of("created", created ? 1 : 0, "skipped", created ? 0 : 1, "title", title);
     }
 }
@@ -0,0 +1,7 @@
+package com.approval.opsagent.events;
+
+/**
+ * DB trigger(V11)가 보낸 변경 이벤트 한 건
+ * seq: 이 노드에서 받은 순서 (SSE id = epoch-seq), json: trigger 가 만든 JSON 그대로
+ */
+public record ChangeEvent(long seq, String type, long requestId, String json) {}
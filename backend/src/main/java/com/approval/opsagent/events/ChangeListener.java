@@ -0,0 +1,12 @@
+package com.approval.opsagent.events;
+
+/**
+ * 변경 이벤트를 SSE 구독자 말고 노드 안에서 받는 쪽 (캐시 무효화 등)
+ * LISTEN 스레드에서 호출되니 오래 걸리는 일은 하지 말 것
+ */
+public interface ChangeListener {
+    void onChange(ChangeEvent event);
+
+    /** LISTEN 이 끊겼다 다시 붙음 → 그 사이 이벤트를 놓쳤을 수 있음 */
+    default void onReset() {}
+}
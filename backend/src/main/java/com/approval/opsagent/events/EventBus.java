@@ -0,0 +1,442 @@
+package com.approval.opsagent.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 변경 이벤트 feed (GET /api/events)
+ * - 노드마다 LISTEN 커넥션 1개 → 받은 이벤트를 ring buffer 에 넣고 구독자들에게 fan-out (구독자 수와 DB 부하 무관)
+ * - 구독자마다 bounded 큐 + 공용 sender 스레드로 전송 → 느린 클라이언트가 다른 구독자/LISTEN 스레드를 막지 않음
+ *   큐가 넘치면 연결을 끊음 → EventSource 가 Last-Event-ID 로 재접속해서 buffer 에서 이어받음
+ *   전송 한 번이 sendTimeout 을 넘기면 그 구독자를 끊고, 막힌 sender 스레드가 풀려날 때까지 스레드를 하나 더 씀
+ *   (막힌 write 는 서블릿 컨테이너 write timeout 에 풀림) → 멈춘 클라이언트 몇 개가 sender 를 다 잡지 못함
+ *   끊을 때 emitter.complete() 는 그 구독자의 drain 이 끝난 뒤 sender 스레드에서 (막힌 send 와 같은 lock 을 기다림)
+ * - listener/구독자 쪽 예외는 로그만 남기고 LISTEN 루프는 계속
+ * - Last-Event-ID 가 buffer 범위 밖이거나 다른 노드(epoch) 것이면 reset 이벤트 → 클라이언트가 전체 다시 조회
+ * - 유휴 구독자는 heartbeat 주석 외에 비용 없음 (polling 없음)
+ * - 노드 안의 ChangeListener(캐시 무효화 등)에도 같은 이벤트 전달
+ */
+@Component
+public class EventBus implements SmartLifecycle, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(EventBus.class);
+    // V11 trigger 의 pg_notify 채널
+    static final String CHANNEL = "opsagent_events";
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long RETRY_MS = 3000;
+
+    private final DataSource ds;
+    private final EventProperties props;
+    private final ObjectMapper om;
+    private final List<ChangeListener> listeners;
+
+    // 재기동/다른 노드의 event id 를 구분
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ChangeEvent[] ring;
+    private long nextSeq = 1; // guarded by this
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // drain 이 돌고 있는 구독자 (끊긴 뒤에도 막힌 send 가 풀릴 때까지 남음 → stuck 감시 대상)
+    private final Set<Subscriber> draining = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor sender;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong sendTimeouts = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread listener;
+
+    public EventBus(DataSource ds, EventProperties props, ObjectMapper om, List<ChangeListener> listeners) {
+        this.ds = ds;
+        this.props = props;
+        this.om = om;
+        this.listeners = listeners;
+        this.ring = new ChangeEvent[props.getBufferSize()];
+
+        AtomicInteger seq = new AtomicInteger();
+        int threads = props.getSenderThreads();
+        this.sender = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "events-sender-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @param requestId null 이면 전체, 아니면 그 요청 이벤트만
+     * @param lastEventId 마지막으로 받은 event id (없으면 지금부터)
+     */
+    public SseEmitter subscribe(Long requestId, String lastEventId) {
+        if (!props.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "이벤트 feed 비활성화 상태");
+        }
+        return subscribe(new SseEmitter(props.getTimeout().toMillis()), requestId, lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long requestId, String lastEventId) {
+        Subscriber sub = new Subscriber(emitter, requestId);
+        emitter.onCompletion(sub::close);
+        emitter.onTimeout(sub::close);
+        emitter.onError(e -> sub.close());
+
+        // replay 와 등록을 publish 와 같은 lock 안에서 → 그 사이 이벤트 누락/중복 없음
+        synchronized (this) {
+            sub.offer(SseEmitter.event().reconnectTime(RETRY_MS).comment("connected"));
+            if (lastEventId != null && !lastEventId.isBlank()) replay(sub, lastEventId);
+            subscribers.add(sub);
+        }
+        return emitter;
+    }
+
+    // guarded by this
+    private void replay(Subscriber sub, String lastEventId) {
+        long after = seqOf(lastEventId);
+        long oldest = Math.max(1, nextSeq - ring.length);
+        if (after < 0 || after + 1 < oldest || after >= nextSeq) {
+            sub.offer(reset("gap"));
+            return;
+        }
+        int matching = 0;
+        for (long s = after + 1; s < nextSeq; s++) if (sub.accepts(ring[slot(s)])) matching++;
+        // 큐보다 많이 밀렸으면 하나씩 보내느니 전체 재조회가 나음
+        if (matching >= props.getClientQueue()) {
+            sub.offer(reset("gap"));
+            return;
+        }
+        for (long s = after + 1; s < nextSeq; s++) {
+            ChangeEvent ev = ring[slot(s)];
+            if (sub.accepts(ev)) sub.offer(toSse(ev));
+        }
+    }
+
+    /** NOTIFY payload(JSON 배열) 하나를 buffer + 구독자들에게 */
+    void publish(String payload) {
+        JsonNode events;
+        try {
+            events = om.readTree(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("invalid event payload: {}", e.getOriginalMessage());
+            return;
+        }
+        synchronized (this) {
+            for (JsonNode n : events) {
+                ChangeEvent ev = new ChangeEvent(nextSeq, n.path("type").asText(), n.path("requestId").asLong(), n.toString());
+                ring[slot(nextSeq)] = ev;
+                nextSeq++;
+                received.incrementAndGet();
+                for (ChangeListener l : listeners) {
+                    try {
+                        l.onChange(ev);
+                    } catch (RuntimeException e) {
+                        log.warn("change listener {} failed: {}", l.getClass().getSimpleName(), e.toString());
+                    }
+                }
+                for (Subscriber sub : subscribers) {
+                    if (sub.accepts(ev)) sub.offer(toSse(ev));
+                }
+            }
+        }
+    }
+
+    /** LISTEN 이 끊겼던 동안의 이벤트는 알 수 없으니 전체 재조회 요청 */
+    private void resetAll(String reason) {
+        for (ChangeListener l : listeners) {
+            try {
+                l.onReset();
+            } catch (RuntimeException e) {
+                log.warn("change listener {} reset failed: {}", l.getClass().getSimpleName(), e.toString());
+            }
+        }
+        synchronized (this) {
+            for (Subscriber sub : subscribers) sub.offer(reset(reason));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${events.heartbeat:20s}", fixedDelayString = "${events.heartbeat:20s}")
+    public void heartbeat() {
+        for (Subscriber sub : subscribers) sub.offer(SseEmitter.event().comment("ping"));
+    }
+
+    /** 전송이 sendTimeout 넘게 막힌 구독자를 끊고 막힌 sender 스레드만큼 스레드를 늘림 */
+    @Scheduled(initialDelayString = "${events.send-timeout:5s}", fixedDelayString = "${events.send-timeout:5s}")
+    public void evictStuckSenders() {
+        long limit = props.getSendTimeout().toNanos();
+        long now = System.nanoTime();
+        for (Subscriber sub : draining) sub.evictIfStuck(now, limit);
+    }
+
+    private void resizeSender(int delta) {
+        synchronized (sender) {
+            int n = sender.getCorePoolSize() + delta;
+            // core <= max 를 지키는 순서로
+            if (delta > 0) {
+                sender.setMaximumPoolSize(n);
+                sender.setCorePoolSize(n);
+            } else {
+                sender.setCorePoolSize(n);
+                sender.setMaximumPoolSize(n);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long seq;
+        synchronized (this) {
+            seq = nextSeq - 1;
+        }
+        return Map.of(
+                "enabled", props.isEnabled(),
+                "listening", listener != null && listener.isAlive(),
+                "subscribers", subscribers.size(),
+                "lastSeq", seq,
+                "received", received.get(),
+                "overflows", overflows.get(),
+                "sendTimeouts", sendTimeouts.get(),
+                "senderThreads", sender.getCorePoolSize()
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("opsagent.events.subscribers", subscribers, List::size).register(registry);
+        FunctionCounter.builder("opsagent.events.received", received, AtomicLong::get).register(registry);
+        FunctionCounter.builder("opsagent.events.overflows", overflows, AtomicLong::get)
+                .description("큐가 넘쳐서 끊은 구독자 수").register(registry);
+        FunctionCounter.builder("opsagent.events.send.timeouts", sendTimeouts, AtomicLong::get)
+                .description("전송이 막혀서 끊은 구독자 수").register(registry);
+    }
+
+    private void listenLoop() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection con = ds.getConnection()) {
+                con.setAutoCommit(true);
+                try (Statement st = con.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pg = con.unwrap(PGConnection.class);
+                if (reconnect) {
+                    log.info("event listener reconnected");
+                    resetAll("reconnect");
+                }
+                while (running) {
+                    PGNotification[] ns = pg.getNotifications(POLL_TIMEOUT_MS);
+                    if (ns == null) continue;
+                    for (PGNotification n : ns) {
+                        try {
+                            publish(n.getParameter());
+                        } catch (RuntimeException e) {
+                            log.warn("event publish failed, skipped: {}", e.toString());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) break;
+                reconnect = true;
+                log.warn("event listener failed, retry in {}: {}", props.getReconnectDelay(), e.getMessage());
+                try {
+                    Thread.sleep(props.getReconnectDelay().toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % ring.length);
+    }
+
+    private long seqOf(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) return -1;
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSse(ChangeEvent ev) {
+        return SseEmitter.event().id(epoch + "-" + ev.seq()).name(ev.type()).data(ev.json());
+    }
+
+    private static SseEmitter.SseEventBuilder reset(String reason) {
+        return SseEmitter.event().name("reset").data("{\"reason\":\"" + reason + "\"}");
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!props.isEnabled()) return;
+        Thread t = new Thread(this::listenLoop, "events-listener");
+        t.setDaemon(true);
+        listener = t;
+        t.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread t = listener;
+        if (t != null) {
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // complete() 는 막힌 send 가 풀릴 때까지 기다리므로 sender 스레드에 맡김
+        for (Subscriber sub : subscribers) sub.evict();
+        sender.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long requestId;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(props.getClientQueue());
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile boolean closed;
+        // true 면 drain 이 끝날 때 emitter.complete() (우리가 끊은 경우)
+        private volatile boolean finish;
+        // guarded by this: 보내는 중인 send 시작 시각 (0 = 안 보내는 중) / 막혀서 sender 스레드를 하나 늘렸는지
+        private long sendStart;
+        private boolean stuck;
+
+        Subscriber(SseEmitter emitter, Long requestId) {
+            this.emitter = emitter;
+            this.requestId = requestId;
+        }
+
+        boolean accepts(ChangeEvent ev) {
+            return requestId == null || requestId == ev.requestId();
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) return;
+            if (!queue.offer(event)) {
+                // 느린 클라이언트: 끊고 재접속 때 buffer 에서 이어받게 함
+                overflows.incrementAndGet();
+                evict();
+                return;
+            }
+            schedule();
+        }
+
+        /**
+         * 더 보내지 않고 끊음, emitter.complete() 는 sender 스레드의 drain 끝에서
+         * (complete() 는 막힌 send 와 같은 lock 을 기다리므로 LISTEN/heartbeat 스레드에서 부르면 같이 멈춤)
+         */
+        void evict() {
+            finish = true;
+            close();
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                draining.add(this);
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // 종료 중
+                    draining.remove(this);
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder e;
+                while (!closed && (e = queue.poll()) != null) {
+                    synchronized (this) {
+                        sendStart = System.nanoTime();
+                    }
+                    emitter.send(e);
+                    synchronized (this) {
+                        sendStart = 0;
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                close();
+            } finally {
+                synchronized (this) {
+                    sendStart = 0;
+                    if (stuck) {
+                        stuck = false;
+                        resizeSender(-1);
+                    }
+                }
+                if (finish && completed.compareAndSet(false, true)) {
+                    try {
+                        emitter.complete();
+                    } catch (RuntimeException ex) {
+                        log.debug("event subscriber complete failed: {}", ex.toString());
+                    }
+                }
+                draining.remove(this);
+                scheduled.set(false);
+            }
+            // 끝나는 사이에 들어온 이벤트/evict 처리
+            if ((!closed && !queue.isEmpty()) || (finish && !completed.get())) schedule();
+        }
+
+        synchronized void evictIfStuck(long now, long limitNanos) {
+            if (sendStart == 0 || stuck || now - sendStart < limitNanos) return;
+            stuck = true;
+            sendTimeouts.incrementAndGet();
+            log.info("event subscriber send blocked over {}, evicted", props.getSendTimeout());
+            // emitter.complete() 는 막힌 send 가 풀린 뒤 drain 끝에서
+            finish = true;
+            close();
+            resizeSender(+1);
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
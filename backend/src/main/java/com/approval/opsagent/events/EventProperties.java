@@ -0,0 +1,42 @@
+package com.approval.opsagent.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "events")
+public class EventProperties {
+    // false면 LISTEN 커넥션을 열지 않고 /api/events 는 503
+    private boolean enabled = true;
+    // 최근 이벤트 ring buffer 크기 (Last-Event-ID 재개는 이 범위 안에서만)
+    private int bufferSize = 4096;
+    // 구독자별 전송 대기 이벤트 한도 (넘치면 연결을 끊고 재접속 시 buffer 에서 이어받게 함)
+    private int clientQueue = 256;
+    // 프록시가 유휴 연결을 끊지 않도록 보내는 주석 주기
+    private Duration heartbeat = Duration.ofSeconds(20);
+    // SSE 연결 최대 유지 시간 (끊기면 브라우저 EventSource 가 Last-Event-ID 로 재접속)
+    private Duration timeout = Duration.ofMinutes(30);
+    // 구독자에게 보내는 공용 sender 스레드 수
+    private int senderThreads = 2;
+    // 한 번의 전송이 이보다 오래 걸리면 그 구독자를 끊음 (막힌 스레드는 대체 스레드를 하나 더 띄워 다른 구독자를 계속 처리)
+    private Duration sendTimeout = Duration.ofSeconds(5);
+    // LISTEN 커넥션이 끊겼을 때 재접속 대기
+    private Duration reconnectDelay = Duration.ofSeconds(2);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getBufferSize() { return bufferSize; }
+    public void setBufferSize(int bufferSize) { this.bufferSize = bufferSize; }
+    public int getClientQueue() { return clientQueue; }
+    public void setClientQueue(int clientQueue) { this.clientQueue = clientQueue; }
+    public Duration getHeartbeat() { return heartbeat; }
+    public void setHeartbeat(Duration heartbeat) { this.heartbeat = heartbeat; }
+    public Duration getTimeout() { return timeout; }
+    public void setTimeout(Duration timeout) { this.timeout = timeout; }
+    public int getSenderThreads() { return senderThreads; }
+    public void setSenderThreads(int senderThreads) { this.senderThreads = senderThreads; }
+    public Duration getSendTimeout() { return sendTimeout; }
+    public void setSendTimeout(Duration sendTimeout) { this.sendTimeout = sendTimeout; }
+    public Duration getReconnectDelay() { return reconnectDelay; }
+    public void setReconnectDelay(Duration reconnectDelay) { this.reconnectDelay = reconnectDelay; }
+}
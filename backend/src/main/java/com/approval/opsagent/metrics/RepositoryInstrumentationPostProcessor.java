@@ -0,0 +1,100 @@
+package com.approval.opsagent.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Repository 빈의 public 메서드(= 쿼리 단위)마다 opsagent.db.query 타이머 기록 + CLIENT span
+ * tags: repository(클래스명), method, outcome(success/failure)
+ * - repo 코드는 손대지 않고 프록시로 감쌈 → 새 쿼리 메서드도 자동으로 측정됨
+ * - span은 현재 span이 있을 때만 (job poll 같은 백그라운드 쿼리가 root trace를 만들지 않도록)
+ * - MeterRegistry/Tracer는 호출 시점에 꺼냄 (BeanPostProcessor가 registry를 일찍 만들면 registry 설정이 빠짐)
+ */
+@Component
+public class RepositoryInstrumentationPostProcessor implements BeanPostProcessor {
+    static final String TIMER = "opsagent.db.query";
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private final ObjectProvider<Tracer> tracer;
+
+    public RepositoryInstrumentationPostProcessor(ObjectProvider<MeterRegistry> registry, ObjectProvider<Tracer> tracer) {
+        this.registry = registry;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> type = ClassUtils.getUserClass(AopUtils.getTargetClass(bean));
+        if (AnnotationUtils.findAnnotation(type, Repository.class) == null) return bean;
+
+        String repository = type.getSimpleName();
+        Map<Method, Timer> success = new ConcurrentHashMap<>();
+        Map<Method, Timer> failure = new ConcurrentHashMap<>();
+
+        ProxyFactory pf = new ProxyFactory(bean);
+        pf.setProxyTargetClass(true);
+        pf.addAdvice((MethodInterceptor) inv -> {
+            Method m = inv.getMethod();
+            if (m.getDeclaringClass() == Object.class) return inv.proceed();
+
+            long t0 = System.nanoTime();
+            boolean ok = false;
+            Span span = span(repository, m.getName());
+            try (Tracer.SpanInScope ws = span == null ? null : tracer.getObject().withSpan(span)) {
+                Object r = inv.proceed();
+                ok = true;
+                return r;
+            } catch (Throwable e) {
+                if (span != null) span.error(e);
+                throw e;
+            } finally {
+                if (span != null) span.end();
+                long elapsed = System.nanoTime() - t0;
+                Timer t = ok
+                        ? success.computeIfAbsent(m, k -> timer(repository, k.getName(), "success"))
+                        : failure.computeIfAbsent(m, k -> timer(repository, k.getName(), "failure"));
+                t.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        });
+        return pf.getProxy();
+    }
+
+    private Span span(String repository, String method) {
+        Tracer t = tracer.getIfAvailable();
+        if (t == null) return null;
+        Span parent = t.currentSpan();
+        if (parent == null) return null;
+        return t.spanBuilder()
+                .setParent(parent.context())
+                .name(repository + "." + method)
+                .kind(Span.Kind.CLIENT)
+                .remoteServiceName("postgresql")
+                .tag("db.system.name", "postgresql")
+                .start();
+    }
+
+    private Timer timer(String repository, String method, String outcome) {
+        return Timer.builder(TIMER)
+                .description("repository 쿼리 지연")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(registry.getObject());
+    }
+}
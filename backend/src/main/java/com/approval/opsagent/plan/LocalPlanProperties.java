@@ -0,0 +1,63 @@
+package com.approval.opsagent.plan;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 로컬 planner 설정 (규칙은 plan-rules.yml)
+ * 템플릿 치환: {title}, {input}, {count}
+ */
+@ConfigurationProperties(prefix = "plan.local")
+public class LocalPlanProperties {
+    private boolean enabled = true;
+    // 이 값 이상인 로컬 결과만 사용 (미만이면 AI 호출)
+    private double minConfidence = 0.8;
+    private List<Rule> rules = new ArrayList<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public double getMinConfidence() { return minConfidence; }
+    public void setMinConfidence(double minConfidence) { this.minConfidence = minConfidence; }
+    public List<Rule> getRules() { return rules; }
+    public void setRules(List<Rule> rules) { this.rules = rules; }
+
+    public static class Rule {
+        private String name;
+        // title + 줄바꿈 + inputText 에서 find (대소문자 무시, '.' 은 줄바꿈도 포함)
+        private String pattern;
+        // 개수("N개")가 있을 때 / 없을 때 confidence
+        private double confidence = 0.9;
+        private double confidenceWithoutCount = 0.5;
+        private int defaultCount = 5;
+        // ticket.createMany 한도(50)보다 크게 잡아도 50 으로 잘림
+        private int maxCount = 50;
+        private String ticketTitlePrefix = "{title}";
+        private String ticketDesc = "";
+        // 비우면 wiki step 없음
+        private String wikiTitle;
+        private String wikiBody;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getPattern() { return pattern; }
+        public void setPattern(String pattern) { this.pattern = pattern; }
+        public double getConfidence() { return confidence; }
+        public void setConfidence(double confidence) { this.confidence = confidence; }
+        public double getConfidenceWithoutCount() { return confidenceWithoutCount; }
+        public void setConfidenceWithoutCount(double confidenceWithoutCount) { this.confidenceWithoutCount = confidenceWithoutCount; }
+        public int getDefaultCount() { return defaultCount; }
+        public void setDefaultCount(int defaultCount) { this.defaultCount = defaultCount; }
+        public int getMaxCount() { return maxCount; }
+        public void setMaxCount(int maxCount) { this.maxCount = maxCount; }
+        public String getTicketTitlePrefix() { return ticketTitlePrefix; }
+        public void setTicketTitlePrefix(String ticketTitlePrefix) { this.ticketTitlePrefix = ticketTitlePrefix; }
+        public String getTicketDesc() { return ticketDesc; }
+        public void setTicketDesc(String ticketDesc) { this.ticketDesc = ticketDesc; }
+        public String getWikiTitle() { return wikiTitle; }
+        public void setWikiTitle(String wikiTitle) { this.wikiTitle = wikiTitle; }
+        public String getWikiBody() { return wikiBody; }
+        public void setWikiBody(String wikiBody) { this.wikiBody = wikiBody; }
+    }
+}
@@ -0,0 +1,18 @@
+package com.approval.opsagent.plan;
+
+import com.approval.opsagent.core.model.Plan;
+
+import java.util.Optional;
+
+/**
+ * LLM 호출 전에 먼저 시도하는 로컬 planner (PlanningService 가 @Order 순으로 실행)
+ * confidence 가 plan.local.min-confidence 이상인 첫 결과를 사용, 없으면 AI 로 넘김
+ */
+public interface Planner {
+    String name();
+
+    Optional<Result> plan(String title, String inputText);
+
+    /** rule: 매칭된 규칙 이름 (metric/audit 용) */
+    record Result(String rule, Plan plan, double confidence) {}
+}
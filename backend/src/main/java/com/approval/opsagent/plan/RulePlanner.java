@@ -0,0 +1,92 @@
+package com.approval.opsagent.plan;
+
+import com.approval.opsagent.core.model.Plan;
+import com.approval.opsagent.core.model.PlanStep;
+import com.approval.opsagent.core.tools.TicketCreateManyArgs;
+import com.approval.opsagent.core.tools.WikiCreatePageArgs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * 정규식 규칙 + 템플릿으로 plan 생성 (LLM 호출 없음, 마이크로초 단위)
+ * - 규칙은 기동 시 한 번만 compile
+ * - 여러 규칙이 맞으면 confidence 가 가장 높은 것 (같으면 먼저 선언된 규칙)
+ */
+@Component
+@Order(0)
+public class RulePlanner implements Planner {
+    private record Compiled(LocalPlanProperties.Rule rule, Pattern pattern) {}
+
+    private final List<Compiled> rules = new ArrayList<>();
+    private final ObjectMapper om;
+
+    public RulePlanner(LocalPlanProperties props, ObjectMapper om) {
+        this.om = om;
+        for (LocalPlanProperties.Rule r : props.getRules()) {
+            if (r.getPattern() == null || r.getPattern().isBlank()) {
+                throw new IllegalArgumentException("plan.local.rules 의 pattern 이 비어 있음. rule=" + r.getName());
+            }
+            // DOTALL: '.*' 가 제목/본문 경계와 본문 속 줄바꿈을 넘어서도 맞도록
+            rules.add(new Compiled(r, Pattern.compile(r.getPattern(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL)));
+        }
+    }
+
+    @Override
+    public String name() {
+        return "rule";
+    }
+
+    @Override
+    public Optional<Result> plan(String title, String inputText) {
+        String text = (title == null ? "" : title) + "\n" + (inputText == null ? "" : inputText);
+        Compiled best = null;
+        Integer bestCount = null;
+        double bestConfidence = 0;
+        for (Compiled c : rules) {
+            if (!c.pattern().matcher(text).find()) continue;
+            Integer count = TicketCount.extract(inputText, c.rule().getMaxCount());
+            double confidence = count != null ? c.rule().getConfidence() : c.rule().getConfidenceWithoutCount();
+            if (best == null || confidence > bestConfidence) {
+                best = c;
+                bestCount = count;
+                bestConfidence = confidence;
+            }
+        }
+        if (best == null) return Optional.empty();
+
+        LocalPlanProperties.Rule r = best.rule();
+        int count = bestCount != null ? bestCount : r.getDefaultCount();
+        return Optional.of(new Result(r.getName(), build(r, title, inputText, count), bestConfidence));
+    }
+
+    private Plan build(LocalPlanProperties.Rule r, String title, String input, int count) {
+        List<PlanStep> steps = new ArrayList<>(2);
+        steps.add(new PlanStep("1", "ticket.createMany",
+                om.valueToTree(new TicketCreateManyArgs(null, null, count,
+                        fill(r.getTicketTitlePrefix(), title, input, count),
+                        fill(r.getTicketDesc(), title, input, count))),
+                List.of(), "rule:" + r.getName()));
+        if (r.getWikiTitle() != null && !r.getWikiTitle().isBlank()) {
+            steps.add(new PlanStep("2", "wiki.createPage",
+                    om.valueToTree(new WikiCreatePageArgs(
+                            fill(r.getWikiTitle(), title, input, count),
+                            fill(r.getWikiBody(), title, input, count))),
+                    List.of("1"), "rule:" + r.getName()));
+        }
+        return new Plan(null, title, true, steps, List.of("승인 전 실행 금지"));
+    }
+
+    private static String fill(String template, String title, String input, int count) {
+        if (template == null) return "";
+        return template
+                .replace("{title}", title == null ? "" : title)
+                .replace("{input}", input == null ? "" : input)
+                .replace("{count}", String.valueOf(count));
+    }
+}
@@ -1,21 +1,27 @@
 package com.approval.opsagent.plan;
 
+import com.approval.opsagent.core.model.Plan;
+import com.approval.opsagent.core.model.PlanStep;
+import com.approval.opsagent.core.tools.TicketCreateManyArgs;
+import com.approval.opsagent.core.tools.TicketCreateManyTool;
+import com.approval.opsagent.core.tools.WikiCreatePageArgs;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Component
 public class SimplePlanGenerator implements PlanGenerator {
-    private static final Pattern COUNT = Pattern.compile("(\\d+)\\s*개");
-    private final ObjectMapper om = new ObjectMapper();
+    private final ObjectMapper om;
+
+    public SimplePlanGenerator(ObjectMapper om) {
+        this.om = om;
+    }
 
     @Override
     public String makePlanJson(String title, String inputText) {
-        int count = extractCount(inputText, 5);
+        Integer found = TicketCount.extract(inputText, TicketCreateManyTool.MAX_COUNT);
+        int count = found == null ? 5 : found;
 
         String desc = "점검 항목: 보호구, 추락방지, 전기, 장비, 화재 (요청 기반)";
         String wikiBody = """
@@ -31,15 +37,17 @@ public class SimplePlanGenerator implements PlanGenerator {
 - 근거 없는 내용은 추가 확인 필요
 """.formatted(inputText, count);
 
-        Map<String, Object> plan = Map.of(
-                "goal", title,
-                "steps", List.of(
-                        Map.of("id", 1, "tool", "ticket.createMany",
-                                "args", Map.of("count", count, "titlePrefix", title, "desc", desc)),
-                        Map.of("id", 2, "tool", "wiki.createPage",
-                                "args", Map.of("title", title + " 요약", "body", wikiBody))
+        Plan plan = new Plan(
+                null,
+                title,
+                null,
+                List.of(
+                        new PlanStep("1", "ticket.createMany",
+                                om.valueToTree(new TicketCreateManyArgs(null, null, count, title, desc)), null, null),
+                        new PlanStep("2", "wiki.createPage",
+                                om.valueToTree(new WikiCreatePageArgs(title + " 요약", wikiBody)), null, null)
                 ),
-                "riskNotes", List.of("승인 전 실행 금지", "근거 없는 내용 생성 주의")
+                List.of("승인 전 실행 금지", "근거 없는 내용 생성 주의")
         );
 
         try {
@@ -51,16 +59,4 @@ public class SimplePlanGenerator implements PlanGenerator {
 """.formatted(title, count);
         }
     }
-
-    private int extractCount(String s, int def) {
-        if (s == null) return def;
-        Matcher m = COUNT.matcher(s);
-        if (m.find()) {
-            try {
-                int v = Integer.parseInt(m.group(1));
-                return Math.max(1, Math.min(v, 50));
-            } catch (Exception ignored) {}
-        }
-        return def;
-    }
 }
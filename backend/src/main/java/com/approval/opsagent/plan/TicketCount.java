@@ -0,0 +1,28 @@
+package com.approval.opsagent.plan;
+
+import com.approval.opsagent.core.tools.TicketCreateManyTool;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/** 요청 문장에서 티켓 개수("N개") 추출 - RulePlanner / SimplePlanGenerator 공용 */
+final class TicketCount {
+    private static final Pattern COUNT = Pattern.compile("(\\d+)\\s*개");
+
+    private TicketCount() {}
+
+    /**
+     * 첫 "N개" 를 1..max 로 잘라서 반환 (max 는 ticket.createMany 한도 이하로 다시 자름)
+     * @return 개수 표현이 없거나 숫자가 int 범위를 넘으면 null
+     */
+    static Integer extract(String text, int max) {
+        if (text == null) return null;
+        Matcher m = COUNT.matcher(text);
+        if (!m.find()) return null;
+        try {
+            return Math.max(1, Math.min(Integer.parseInt(m.group(1)), Math.min(max, TicketCreateManyTool.MAX_COUNT)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
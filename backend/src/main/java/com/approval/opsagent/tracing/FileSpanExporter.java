@@ -0,0 +1,114 @@
+package com.approval.opsagent.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 끝난 span을 한 줄에 하나씩 JSON으로 append (OTLP collector 대용)
+ * - BatchSpanProcessor가 묶어서 넘겨준 단위로 write + flush
+ * - jq / pandas 로 traceId 기준 묶어서 보면 됨 (audit_log.trace_id 와 join 가능)
+ */
+public class FileSpanExporter implements SpanExporter {
+    private static final Logger log = LoggerFactory.getLogger(FileSpanExporter.class);
+
+    private final ObjectMapper om;
+    private final BufferedWriter out;
+
+    public FileSpanExporter(Path path, ObjectMapper om) {
+        this.om = om;
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            this.out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("span 파일 열기 실패: " + path, e);
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            for (SpanData s : spans) {
+                out.write(om.writeValueAsString(toJson(s)));
+                out.write('\n');
+            }
+            out.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("span export failed ({} spans dropped): {}", spans.size(), e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private static Map<String, Object> toJson(SpanData s) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("traceId", s.getTraceId());
+        m.put("spanId", s.getSpanId());
+        m.put("parentSpanId", s.getParentSpanContext().isValid() ? s.getParentSpanId() : null);
+        m.put("name", s.getName());
+        m.put("kind", s.getKind().name());
+        m.put("startEpochNanos", s.getStartEpochNanos());
+        m.put("durationMicros", (s.getEndEpochNanos() - s.getStartEpochNanos()) / 1_000);
+        m.put("status", s.getStatus().getStatusCode().name());
+        m.put("attributes", attributes(s.getAttributes().asMap()));
+        if (!s.getEvents().isEmpty()) {
+            List<String> events = new ArrayList<>(s.getEvents().size());
+            s.getEvents().forEach(e -> events.add(e.getName()));
+            m.put("events", events);
+        }
+        if (!s.getLinks().isEmpty()) {
+            List<String> links = new ArrayList<>(s.getLinks().size());
+            for (LinkData l : s.getLinks()) links.add(l.getSpanContext().getTraceId() + "-" + l.getSpanContext().getSpanId());
+            m.put("links", links);
+        }
+        return m;
+    }
+
+    private static Map<String, Object> attributes(Map<AttributeKey<?>, Object> attrs) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        attrs.forEach((k, v) -> m.put(k.getKey(), v));
+        return m;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        synchronized (this) {
+            try {
+                out.flush();
+                return CompletableResultCode.ofSuccess();
+            } catch (IOException e) {
+                return CompletableResultCode.ofFailure();
+            }
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        try {
+            out.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+}
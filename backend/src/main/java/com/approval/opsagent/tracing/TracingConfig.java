@@ -0,0 +1,32 @@
+package com.approval.opsagent.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.nio.file.Path;
+
+/**
+ * 분산 추적 설정
+ * - span 생성/전파는 Boot OpenTelemetry 자동 설정 (W3C traceparent)
+ * - export: tracing.file.enabled=true 이면 NDJSON 파일, OTLP endpoint 설정 시 collector 로도 전송
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "tracing.file", name = "enabled", havingValue = "true")
+    public FileSpanExporter fileSpanExporter(TracingFileProperties props, ObjectMapper om) {
+        return new FileSpanExporter(Path.of(props.getPath()), om);
+    }
+
+    // /actuator 스크레이프(prometheus 등)는 trace로 남기지 않음
+    @Bean
+    public ObservationPredicate skipActuatorObservations() {
+        return (name, ctx) -> !(ctx instanceof ServerRequestObservationContext req
+                && req.getCarrier().getRequestURI().startsWith("/actuator"));
+    }
+}
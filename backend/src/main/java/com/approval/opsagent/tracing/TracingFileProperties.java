@@ -0,0 +1,16 @@
+package com.approval.opsagent.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "tracing.file")
+public class TracingFileProperties {
+    // 끝난 span을 NDJSON 파일로 기록 (collector 없이 오프라인 분석용)
+    private boolean enabled = false;
+    // 한 줄에 span 하나, 재기동 시 이어서 씀
+    private String path = "logs/spans.ndjson";
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+}
@@ -0,0 +1,25 @@
+-- plan step 실행 journal: 재개(resume) 시 DONE step은 건너뛰고 저장된 결과 재사용
+CREATE TABLE IF NOT EXISTS execution_step (
+    request_id   BIGINT NOT NULL REFERENCES work_request(id) ON DELETE CASCADE,
+    step_id      TEXT NOT NULL,
+    tool         TEXT NOT NULL,
+    status       TEXT NOT NULL,                  -- RUNNING / DONE / FAILED
+    attempt      INT NOT NULL DEFAULT 1,
+    result_json  JSONB,
+    error        TEXT,
+    started_at   TIMESTAMPTZ NOT NULL DEFAULT now(),
+    finished_at  TIMESTAMPTZ,
+    PRIMARY KEY (request_id, step_id)
+);
+
+-- tool 멱등 키: 같은 step을 다시 실행해도 (journal에 DONE 기록 전에 죽은 경우 등) 중복 생성 안 함
+ALTER TABLE ticket    ADD COLUMN IF NOT EXISTS idempotency_key TEXT;
+ALTER TABLE wiki_page ADD COLUMN IF NOT EXISTS idempotency_key TEXT;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_ticket_idempotency_key
+    ON ticket(idempotency_key) WHERE idempotency_key IS NOT NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_wiki_page_idempotency_key
+    ON wiki_page(idempotency_key) WHERE idempotency_key IS NOT NULL;
+
+-- reaper: heartbeat(updated_at)가 끊긴 EXECUTING 요청 찾기
+CREATE INDEX IF NOT EXISTS ix_work_request_executing
+    ON work_request(updated_at) WHERE status = 'EXECUTING';
@@ -0,0 +1,83 @@
+-- 변경 이벤트 feed (GET /api/events, SSE)
+-- statement 단위 trigger + transition table 로 이벤트를 모아서 pg_notify('opsagent_events', '[...]')
+-- 노드마다 LISTEN 커넥션 1개(EventBus)가 받아서 구독자들에게 fan-out
+-- NOTIFY payload 한도(8000 bytes) 때문에 7000 bytes 근처에서 나눠 보냄 (NOTIFY 는 commit 시점에 전달)
+
+CREATE OR REPLACE FUNCTION ops_events_notify(events text[]) RETURNS void LANGUAGE plpgsql AS $$
+DECLARE
+    buf text := '';
+    ev  text;
+BEGIN
+    IF events IS NULL THEN RETURN; END IF;
+    FOREACH ev IN ARRAY events LOOP
+        IF buf <> '' AND octet_length(buf) + octet_length(ev) > 7000 THEN
+            PERFORM pg_notify('opsagent_events', '[' || buf || ']');
+            buf := '';
+        END IF;
+        buf := CASE WHEN buf = '' THEN ev ELSE buf || ',' || ev END;
+    END LOOP;
+    IF buf <> '' THEN
+        PERFORM pg_notify('opsagent_events', '[' || buf || ']');
+    END IF;
+END $$;
+
+CREATE OR REPLACE FUNCTION ops_events_request() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM ops_events_notify(ARRAY(
+            SELECT json_build_object('type', 'request.created', 'requestId', id, 'status', status,
+                                     'title', left(title, 200))::text
+            FROM new_rows ORDER BY id));
+    ELSE
+        PERFORM ops_events_notify(ARRAY(
+            SELECT json_build_object('type', 'request.status', 'requestId', nw.id, 'from', o.status,
+                                     'to', nw.status, 'version', nw.version)::text
+            FROM old_rows o JOIN new_rows nw ON nw.id = o.id
+            WHERE o.status <> nw.status ORDER BY nw.id));
+    END IF;
+    RETURN NULL;
+END $$;
+
+CREATE OR REPLACE FUNCTION ops_events_audit() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM ops_events_notify(ARRAY(
+        SELECT json_build_object('type', 'audit', 'requestId', request_id, 'action', action, 'actor', actor,
+                                 'success', success, 'at', at)::text
+        FROM new_rows ORDER BY id));
+    RETURN NULL;
+END $$;
+
+-- ticket / wiki_page 공통 (type = ticket.created | wiki.created)
+CREATE OR REPLACE FUNCTION ops_events_artifact() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM ops_events_notify(ARRAY(
+        SELECT json_build_object('type', TG_ARGV[0], 'requestId', request_id, 'id', id,
+                                 'title', left(title, 200))::text
+        FROM new_rows ORDER BY id));
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS ops_events_request_ins ON work_request;
+CREATE TRIGGER ops_events_request_ins AFTER INSERT ON work_request
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_events_request();
+
+DROP TRIGGER IF EXISTS ops_events_request_upd ON work_request;
+CREATE TRIGGER ops_events_request_upd AFTER UPDATE ON work_request
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_events_request();
+
+DROP TRIGGER IF EXISTS ops_events_audit_ins ON audit_log;
+CREATE TRIGGER ops_events_audit_ins AFTER INSERT ON audit_log
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_events_audit();
+
+DROP TRIGGER IF EXISTS ops_events_ticket_ins ON ticket;
+CREATE TRIGGER ops_events_ticket_ins AFTER INSERT ON ticket
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_events_artifact('ticket.created');
+
+DROP TRIGGER IF EXISTS ops_events_wiki_ins ON wiki_page;
+CREATE TRIGGER ops_events_wiki_ins AFTER INSERT ON wiki_page
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_events_artifact('wiki.created');
@@ -0,0 +1,72 @@
+-- audit_log → at 기준 월별 range partition (audit_log_yYYYYmMM)
+-- - partition 마다 (request_id, at) 인덱스 (부모에 만든 partitioned index 가 자동 생성)
+-- - 앞으로의 partition 생성 / 보관기간 지난 partition 분리·보관은 AuditPartitionMaintainer 가 주기적으로
+-- - default partition 은 두지 않음 (DETACH ... CONCURRENTLY 가 불가능해짐) → 미래 partition 을 미리 만들어 둠
+-- - PK 는 partition key 를 포함해야 해서 (id, at)
+
+ALTER TABLE audit_log RENAME TO audit_log_unpartitioned;
+DROP TRIGGER IF EXISTS ops_stats_audit_ins ON audit_log_unpartitioned;
+DROP TRIGGER IF EXISTS ops_events_audit_ins ON audit_log_unpartitioned;
+ALTER SEQUENCE audit_log_id_seq OWNED BY NONE;
+
+CREATE TABLE audit_log (
+    id           BIGINT NOT NULL DEFAULT nextval('audit_log_id_seq'),
+    request_id   BIGINT NOT NULL REFERENCES work_request(id) ON DELETE CASCADE,
+    at           TIMESTAMPTZ NOT NULL DEFAULT now(),
+    actor        TEXT NOT NULL,
+    action       TEXT NOT NULL,
+    message      TEXT NOT NULL,
+    success      BOOLEAN NOT NULL,
+    latency_ms   INT NOT NULL,
+    trace_id     TEXT,
+    PRIMARY KEY (id, at)
+) PARTITION BY RANGE (at);
+
+ALTER SEQUENCE audit_log_id_seq OWNED BY audit_log.id;
+
+CREATE INDEX IF NOT EXISTS idx_audit_log_request ON audit_log (request_id, at);
+
+-- from_month 가 속한 달부터 months 개월치 partition 생성 (이미 있으면 건너뜀), 새로 만든 이름 반환
+-- 월 경계는 UTC 기준 (세션 timezone 이 달라도 범위가 겹치지 않도록)
+CREATE OR REPLACE FUNCTION audit_log_ensure_partitions(from_month timestamptz, months int)
+RETURNS SETOF text LANGUAGE plpgsql AS $$
+DECLARE
+    m    timestamp := date_trunc('month', from_month AT TIME ZONE 'UTC');
+    name text;
+BEGIN
+    FOR i IN 1 .. months LOOP
+        name := 'audit_log_' || to_char(m, '"y"YYYY"m"MM');
+        IF to_regclass(name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF audit_log FOR VALUES FROM (%L) TO (%L)',
+                           name, m AT TIME ZONE 'UTC', (m + interval '1 month') AT TIME ZONE 'UTC');
+            RETURN NEXT name;
+        END IF;
+        m := m + interval '1 month';
+    END LOOP;
+END $$;
+
+-- 기존 데이터가 있는 첫 달부터 이번 달 + 3개월까지
+DO $$
+DECLARE
+    first timestamp := date_trunc('month', COALESCE((SELECT min(at) FROM audit_log_unpartitioned), now()) AT TIME ZONE 'UTC');
+    last  timestamp := date_trunc('month', now() AT TIME ZONE 'UTC') + interval '3 months';
+BEGIN
+    PERFORM audit_log_ensure_partitions(first AT TIME ZONE 'UTC',
+        (SELECT count(*)::int FROM generate_series(first, last, interval '1 month')));
+END $$;
+
+-- trigger 를 붙이기 전에 옮김 (집계/이벤트는 이미 반영된 데이터)
+INSERT INTO audit_log(id, request_id, at, actor, action, message, success, latency_ms, trace_id)
+SELECT id, request_id, at, actor, action, message, success, latency_ms, trace_id FROM audit_log_unpartitioned;
+
+DROP TABLE audit_log_unpartitioned;
+
+-- V5 / V11 statement trigger 재생성 (partitioned table 의 transition table 은 모든 partition 의 행을 담음)
+-- partition 에 직접 INSERT 하는 경우(보관 파일 복원)에는 발동하지 않음 → 집계 중복/이벤트 폭주 없음
+CREATE TRIGGER ops_stats_audit_ins AFTER INSERT ON audit_log
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_stats_audit_insert();
+
+CREATE TRIGGER ops_events_audit_ins AFTER INSERT ON audit_log
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_events_audit();
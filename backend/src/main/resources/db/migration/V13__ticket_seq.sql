@@ -0,0 +1,11 @@
+-- 요청별 티켓 번호 (ticket.createMany count 방식의 "#n")
+-- 번호는 tool 트랜잭션 안에서 이 row 를 잠그고 받아감 → 동시에 도는 형제 step 끼리 같은 번호를 받지 않음
+CREATE TABLE IF NOT EXISTS ticket_seq (
+    request_id  BIGINT PRIMARY KEY REFERENCES work_request(id) ON DELETE CASCADE,
+    last        INT NOT NULL
+);
+
+-- 기존 요청은 지금까지 만든 티켓 수부터 이어서
+INSERT INTO ticket_seq(request_id, last)
+SELECT request_id, count(*) FROM ticket GROUP BY request_id
+ON CONFLICT (request_id) DO NOTHING;
@@ -0,0 +1,7 @@
+-- execution_job lease: RUNNING job 은 잡고 있는 노드가 heartbeat 로 updated_at 을 갱신
+-- 갱신이 끊긴 job 은 reaper 가 요청 상태와 무관하게 회수 (APPROVED 그대로면 다시 QUEUED, 아니면 FAILED)
+-- → claim 직후 노드가 죽어도 ux_execution_job_active 에 막혀 새 job 을 못 넣는 일이 없음
+ALTER TABLE execution_job ADD COLUMN IF NOT EXISTS attempt INT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS ix_execution_job_running
+    ON execution_job(updated_at) WHERE status = 'RUNNING';
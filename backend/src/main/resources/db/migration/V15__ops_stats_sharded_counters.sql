@@ -0,0 +1,84 @@
+-- V5 집계 테이블을 shard 로 나눔
+-- 모든 writer 가 같은 행(상태별 1행, action별 1행, 이번 시간 bucket)을 upsert 해서 row lock 에 줄 서던 문제
+-- - shard = backend pid % 16 → 동시에 쓰는 connection 끼리는 대부분 다른 행을 잠금
+-- - 읽을 때 shard 를 합침 (sum, max_ms 는 max), 상태가 다른 shard 에서 바뀌면 shard 하나의 n 은 음수일 수 있음
+-- - 기존 행은 shard 0
+
+CREATE OR REPLACE FUNCTION ops_stats_shard() RETURNS smallint LANGUAGE sql STABLE AS $$
+    SELECT (pg_backend_pid() % 16)::smallint
+$$;
+
+ALTER TABLE request_status_count ADD COLUMN IF NOT EXISTS shard SMALLINT NOT NULL DEFAULT 0;
+ALTER TABLE request_status_count DROP CONSTRAINT request_status_count_pkey;
+ALTER TABLE request_status_count ADD PRIMARY KEY (status, shard);
+
+ALTER TABLE audit_action_total ADD COLUMN IF NOT EXISTS shard SMALLINT NOT NULL DEFAULT 0;
+ALTER TABLE audit_action_total DROP CONSTRAINT audit_action_total_pkey;
+ALTER TABLE audit_action_total ADD PRIMARY KEY (action, shard);
+
+ALTER TABLE audit_latency_hist ADD COLUMN IF NOT EXISTS shard SMALLINT NOT NULL DEFAULT 0;
+ALTER TABLE audit_latency_hist DROP CONSTRAINT audit_latency_hist_pkey;
+ALTER TABLE audit_latency_hist ADD PRIMARY KEY (action, le_ms, shard);
+
+ALTER TABLE audit_rollup_hourly ADD COLUMN IF NOT EXISTS shard SMALLINT NOT NULL DEFAULT 0;
+ALTER TABLE audit_rollup_hourly DROP CONSTRAINT audit_rollup_hourly_pkey;
+ALTER TABLE audit_rollup_hourly ADD PRIMARY KEY (bucket_start, action, shard);
+
+-- V5 와 같은 집계, conflict key 에 shard 추가 (key 순서대로 잠그는 ORDER BY 는 그대로)
+CREATE OR REPLACE FUNCTION ops_stats_audit_insert() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    s smallint := ops_stats_shard();
+BEGIN
+    INSERT INTO audit_action_total(action, shard, n, fail_n, sum_ms)
+    SELECT action, s, count(*), count(*) FILTER (WHERE NOT success), sum(latency_ms)
+    FROM new_rows GROUP BY action ORDER BY action
+    ON CONFLICT (action, shard) DO UPDATE
+        SET n = audit_action_total.n + EXCLUDED.n,
+            fail_n = audit_action_total.fail_n + EXCLUDED.fail_n,
+            sum_ms = audit_action_total.sum_ms + EXCLUDED.sum_ms;
+
+    INSERT INTO audit_latency_hist(action, le_ms, shard, n)
+    SELECT r.action, b.le_ms, s, count(*)
+    FROM new_rows r
+    CROSS JOIN LATERAL (SELECT min(le_ms) AS le_ms FROM latency_bucket WHERE le_ms >= r.latency_ms) b
+    GROUP BY r.action, b.le_ms ORDER BY r.action, b.le_ms
+    ON CONFLICT (action, le_ms, shard) DO UPDATE
+        SET n = audit_latency_hist.n + EXCLUDED.n;
+
+    INSERT INTO audit_rollup_hourly(bucket_start, action, shard, n, fail_n, sum_ms, max_ms)
+    SELECT date_trunc('hour', at), action, s, count(*), count(*) FILTER (WHERE NOT success), sum(latency_ms), max(latency_ms)
+    FROM new_rows GROUP BY 1, 2 ORDER BY 1, 2
+    ON CONFLICT (bucket_start, action, shard) DO UPDATE
+        SET n = audit_rollup_hourly.n + EXCLUDED.n,
+            fail_n = audit_rollup_hourly.fail_n + EXCLUDED.fail_n,
+            sum_ms = audit_rollup_hourly.sum_ms + EXCLUDED.sum_ms,
+            max_ms = GREATEST(audit_rollup_hourly.max_ms, EXCLUDED.max_ms);
+    RETURN NULL;
+END $$;
+
+CREATE OR REPLACE FUNCTION ops_stats_request_status() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    s smallint := ops_stats_shard();
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO request_status_count(status, shard, n)
+        SELECT status, s, count(*) FROM new_rows GROUP BY status ORDER BY status
+        ON CONFLICT (status, shard) DO UPDATE SET n = request_status_count.n + EXCLUDED.n;
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO request_status_count(status, shard, n)
+        SELECT status, s, sum(d) FROM (
+            SELECT o.status, -1 AS d FROM old_rows o JOIN new_rows nw ON nw.id = o.id WHERE o.status <> nw.status
+            UNION ALL
+            SELECT nw.status, 1 AS d FROM old_rows o JOIN new_rows nw ON nw.id = o.id WHERE o.status <> nw.status
+        ) x
+        GROUP BY status ORDER BY status
+        ON CONFLICT (status, shard) DO UPDATE SET n = request_status_count.n + EXCLUDED.n;
+    ELSE
+        INSERT INTO request_status_count(status, shard, n)
+        SELECT status, s, -count(*) FROM old_rows GROUP BY status ORDER BY status
+        ON CONFLICT (status, shard) DO UPDATE SET n = request_status_count.n + EXCLUDED.n;
+    END IF;
+    RETURN NULL;
+END $$;
+
+-- rebuild_ops_stats() 는 그대로 (재계산 결과는 shard 0 에 한 행씩)
@@ -0,0 +1,6 @@
+-- NDJSON 적재(POST /api/requests/bulk) 줄별 idempotency key
+-- 같은 requester 가 같은 key 로 다시 보내면 새로 만들지 않고 기존 요청 id 를 돌려줌 (중간에 끊긴 업로드 재전송)
+ALTER TABLE work_request ADD COLUMN IF NOT EXISTS ingest_key TEXT;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_work_request_ingest_key
+    ON work_request(requester, ingest_key) WHERE ingest_key IS NOT NULL;
@@ -0,0 +1,92 @@
+-- audit_log default partition + 보관/복원 시 집계 보정
+-- - 미리 만든 partition 범위 밖의 at(과거로 찍힌 이벤트, maintainer 가 몇 달 멈춘 경우)도 INSERT 가 실패하지 않도록
+--   default partition 에 받아두고, AuditPartitionMaintainer 가 다음 주기에 월별 partition 으로 옮김
+-- - default partition 이 있으면 DETACH ... CONCURRENTLY 가 안 돼서 보관 분리는 일반 DETACH (월 1회, 짧은 잠금)
+-- - 집계(V5/V15)는 "지금 audit_log 에 있는 행" 기준 (rebuild_ops_stats 와 같은 기준)
+--   보관 후 DROP 할 때 빼고, 복원(partition 에 직접 INSERT → 부모 trigger 발동 안 함)할 때 더함
+
+CREATE TABLE IF NOT EXISTS audit_log_default PARTITION OF audit_log DEFAULT;
+
+-- V12 와 같지만, 그 달 행이 default 에 이미 있으면 새 테이블로 옮긴 뒤 ATTACH
+-- (partition 끼리 옮기는 거라 부모의 집계/이벤트 trigger 는 발동하지 않음 = 이미 반영된 행)
+CREATE OR REPLACE FUNCTION audit_log_ensure_partitions(from_month timestamptz, months int)
+RETURNS SETOF text LANGUAGE plpgsql AS $$
+DECLARE
+    m    timestamp := date_trunc('month', from_month AT TIME ZONE 'UTC');
+    lo   timestamptz;
+    hi   timestamptz;
+    name text;
+BEGIN
+    FOR i IN 1 .. months LOOP
+        name := 'audit_log_' || to_char(m, '"y"YYYY"m"MM');
+        lo := m AT TIME ZONE 'UTC';
+        hi := (m + interval '1 month') AT TIME ZONE 'UTC';
+        IF to_regclass(name) IS NULL THEN
+            IF EXISTS (SELECT 1 FROM audit_log_default WHERE at >= lo AND at < hi) THEN
+                EXECUTE format('CREATE TABLE %I (LIKE audit_log INCLUDING DEFAULTS)', name);
+                EXECUTE format('WITH moved AS (DELETE FROM audit_log_default WHERE at >= %L AND at < %L RETURNING *) '
+                               'INSERT INTO %I SELECT * FROM moved', lo, hi, name);
+                EXECUTE format('ALTER TABLE audit_log ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', name, lo, hi);
+            ELSE
+                EXECUTE format('CREATE TABLE %I PARTITION OF audit_log FOR VALUES FROM (%L) TO (%L)', name, lo, hi);
+            END IF;
+            RETURN NEXT name;
+        END IF;
+        m := m + interval '1 month';
+    END LOOP;
+END $$;
+
+-- default partition 에 들어간 행이 있는 달마다 partition 을 만들어 옮김, 새로 만든 이름 반환
+CREATE OR REPLACE FUNCTION audit_log_split_default() RETURNS SETOF text LANGUAGE plpgsql AS $$
+DECLARE
+    m timestamp;
+BEGIN
+    FOR m IN SELECT DISTINCT date_trunc('month', at AT TIME ZONE 'UTC') FROM audit_log_default ORDER BY 1 LOOP
+        RETURN QUERY SELECT audit_log_ensure_partitions(m AT TIME ZONE 'UTC', 1);
+    END LOOP;
+END $$;
+
+-- partition 하나의 행 전체를 집계에 더하거나(sign=1, 복원) 뺌(sign=-1, 보관 후 DROP 직전)
+-- 한 달 = partition 하나라서 빼는 쪽은 그 달 시간 bucket 을 통째로 지움 (max_ms 는 되돌릴 수 없으므로)
+CREATE OR REPLACE FUNCTION ops_stats_audit_partition(part regclass, sign int) RETURNS void LANGUAGE plpgsql AS $$
+DECLARE
+    s smallint := ops_stats_shard();
+BEGIN
+    EXECUTE format($q$
+        INSERT INTO audit_action_total(action, shard, n, fail_n, sum_ms)
+        SELECT action, %2$s, %3$s * count(*), %3$s * count(*) FILTER (WHERE NOT success), %3$s * sum(latency_ms)
+        FROM %1$s GROUP BY action ORDER BY action
+        ON CONFLICT (action, shard) DO UPDATE
+            SET n = audit_action_total.n + EXCLUDED.n,
+                fail_n = audit_action_total.fail_n + EXCLUDED.fail_n,
+                sum_ms = audit_action_total.sum_ms + EXCLUDED.sum_ms
+    $q$, part, s, sign);
+
+    EXECUTE format($q$
+        INSERT INTO audit_latency_hist(action, le_ms, shard, n)
+        SELECT r.action, b.le_ms, %2$s, %3$s * count(*)
+        FROM %1$s r
+        CROSS JOIN LATERAL (SELECT min(le_ms) AS le_ms FROM latency_bucket WHERE le_ms >= r.latency_ms) b
+        GROUP BY r.action, b.le_ms ORDER BY r.action, b.le_ms
+        ON CONFLICT (action, le_ms, shard) DO UPDATE
+            SET n = audit_latency_hist.n + EXCLUDED.n
+    $q$, part, s, sign);
+
+    IF sign > 0 THEN
+        EXECUTE format($q$
+            INSERT INTO audit_rollup_hourly(bucket_start, action, shard, n, fail_n, sum_ms, max_ms)
+            SELECT date_trunc('hour', at), action, %2$s, count(*), count(*) FILTER (WHERE NOT success), sum(latency_ms), max(latency_ms)
+            FROM %1$s GROUP BY 1, 2 ORDER BY 1, 2
+            ON CONFLICT (bucket_start, action, shard) DO UPDATE
+                SET n = audit_rollup_hourly.n + EXCLUDED.n,
+                    fail_n = audit_rollup_hourly.fail_n + EXCLUDED.fail_n,
+                    sum_ms = audit_rollup_hourly.sum_ms + EXCLUDED.sum_ms,
+                    max_ms = GREATEST(audit_rollup_hourly.max_ms, EXCLUDED.max_ms)
+        $q$, part, s);
+    ELSE
+        EXECUTE format($q$
+            DELETE FROM audit_rollup_hourly
+            WHERE bucket_start IN (SELECT DISTINCT date_trunc('hour', at) FROM %1$s)
+        $q$, part);
+    END IF;
+END $$;
@@ -0,0 +1,29 @@
+-- execution_job 상태 변화도 변경 이벤트 feed(V11) 로 → 어느 노드가 job 을 실행/회수해도 모든 노드의 job SSE 구독자가 받음
+-- type = job.status, heartbeat(updated_at 만 갱신)는 status 가 안 바뀌어서 이벤트 없음
+
+CREATE OR REPLACE FUNCTION ops_events_job() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM ops_events_notify(ARRAY(
+            SELECT json_build_object('type', 'job.status', 'requestId', request_id, 'jobId', id,
+                                     'status', status)::text
+            FROM new_rows ORDER BY id));
+    ELSE
+        PERFORM ops_events_notify(ARRAY(
+            SELECT json_build_object('type', 'job.status', 'requestId', nw.request_id, 'jobId', nw.id,
+                                     'from', o.status, 'status', nw.status)::text
+            FROM old_rows o JOIN new_rows nw ON nw.id = o.id
+            WHERE o.status <> nw.status ORDER BY nw.id));
+    END IF;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS ops_events_job_ins ON execution_job;
+CREATE TRIGGER ops_events_job_ins AFTER INSERT ON execution_job
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_events_job();
+
+DROP TRIGGER IF EXISTS ops_events_job_upd ON execution_job;
+CREATE TRIGGER ops_events_job_upd AFTER UPDATE ON execution_job
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_events_job();
@@ -0,0 +1,20 @@
+-- 비동기 실행 job 큐 (여러 backend 인스턴스가 FOR UPDATE SKIP LOCKED로 나눠서 처리)
+CREATE TABLE IF NOT EXISTS execution_job (
+    id           BIGSERIAL PRIMARY KEY,
+    request_id   BIGINT NOT NULL REFERENCES work_request(id) ON DELETE CASCADE,
+    actor        TEXT NOT NULL,
+    status       TEXT NOT NULL DEFAULT 'QUEUED',   -- QUEUED / RUNNING / DONE / FAILED
+    error        TEXT,
+    claimed_by   TEXT,
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT now(),
+    started_at   TIMESTAMPTZ,
+    finished_at  TIMESTAMPTZ,
+    updated_at   TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- claim 대상(QUEUED)만 빠르게 찾기
+CREATE INDEX IF NOT EXISTS ix_execution_job_queued ON execution_job(id) WHERE status = 'QUEUED';
+
+-- 같은 요청에 대해 대기/실행 중인 job은 하나만
+CREATE UNIQUE INDEX IF NOT EXISTS ux_execution_job_active
+    ON execution_job(request_id) WHERE status IN ('QUEUED', 'RUNNING');
@@ -0,0 +1,9 @@
+-- plan 캐시 2차 저장소 (재기동 후에도 유지, plan.cache.db-enabled=true 일 때만 사용)
+CREATE TABLE IF NOT EXISTS plan_cache (
+    cache_key    TEXT PRIMARY KEY,          -- sha256(정규화 title + input_text + tool spec 버전)
+    plan_json    TEXT NOT NULL,
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT now(),
+    expires_at   TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_plan_cache_expires ON plan_cache(expires_at);
@@ -0,0 +1,4 @@
+-- GET /api/requests keyset 페이지네이션(id DESC) + 필터용 인덱스
+CREATE INDEX IF NOT EXISTS ix_work_request_status_id    ON work_request(status, id DESC);
+CREATE INDEX IF NOT EXISTS ix_work_request_requester_id ON work_request(requester, id DESC);
+CREATE INDEX IF NOT EXISTS ix_work_request_created_at   ON work_request(created_at);
@@ -0,0 +1,148 @@
+-- /api/ops/stats 용 증분 집계 테이블 (원본 테이블 full scan 대신 trigger로 유지)
+-- statement 단위 trigger + transition table 이라서 batch insert/COPY도 문장당 한 번만 집계
+
+-- 상태별 요청 수
+CREATE TABLE IF NOT EXISTS request_status_count (
+    status  TEXT PRIMARY KEY,
+    n       BIGINT NOT NULL DEFAULT 0
+);
+
+-- latency histogram bucket 상한(ms, 이하)
+CREATE TABLE IF NOT EXISTS latency_bucket (
+    le_ms   INT PRIMARY KEY
+);
+INSERT INTO latency_bucket(le_ms) VALUES
+    (1), (2), (5), (10), (20), (50), (100), (200), (500),
+    (1000), (2000), (5000), (10000), (30000), (60000), (2147483647)
+ON CONFLICT DO NOTHING;
+
+-- action별 전체 기간 합계
+CREATE TABLE IF NOT EXISTS audit_action_total (
+    action  TEXT PRIMARY KEY,
+    n       BIGINT NOT NULL DEFAULT 0,
+    fail_n  BIGINT NOT NULL DEFAULT 0,
+    sum_ms  BIGINT NOT NULL DEFAULT 0
+);
+
+-- action별 latency histogram (p50/p95/p99 계산용)
+CREATE TABLE IF NOT EXISTS audit_latency_hist (
+    action  TEXT NOT NULL,
+    le_ms   INT  NOT NULL,
+    n       BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (action, le_ms)
+);
+
+-- 시간(1h) bucket별 rollup
+CREATE TABLE IF NOT EXISTS audit_rollup_hourly (
+    bucket_start TIMESTAMPTZ NOT NULL,
+    action       TEXT NOT NULL,
+    n            BIGINT NOT NULL DEFAULT 0,
+    fail_n       BIGINT NOT NULL DEFAULT 0,
+    sum_ms       BIGINT NOT NULL DEFAULT 0,
+    max_ms       INT    NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_start, action)
+);
+
+-- 여러 row를 upsert할 때 key 순서대로 잠가서 동시 insert 간 deadlock 방지 (ORDER BY)
+CREATE OR REPLACE FUNCTION ops_stats_audit_insert() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO audit_action_total(action, n, fail_n, sum_ms)
+    SELECT action, count(*), count(*) FILTER (WHERE NOT success), sum(latency_ms)
+    FROM new_rows GROUP BY action ORDER BY action
+    ON CONFLICT (action) DO UPDATE
+        SET n = audit_action_total.n + EXCLUDED.n,
+            fail_n = audit_action_total.fail_n + EXCLUDED.fail_n,
+            sum_ms = audit_action_total.sum_ms + EXCLUDED.sum_ms;
+
+    INSERT INTO audit_latency_hist(action, le_ms, n)
+    SELECT r.action, b.le_ms, count(*)
+    FROM new_rows r
+    CROSS JOIN LATERAL (SELECT min(le_ms) AS le_ms FROM latency_bucket WHERE le_ms >= r.latency_ms) b
+    GROUP BY r.action, b.le_ms ORDER BY r.action, b.le_ms
+    ON CONFLICT (action, le_ms) DO UPDATE
+        SET n = audit_latency_hist.n + EXCLUDED.n;
+
+    INSERT INTO audit_rollup_hourly(bucket_start, action, n, fail_n, sum_ms, max_ms)
+    SELECT date_trunc('hour', at), action, count(*), count(*) FILTER (WHERE NOT success), sum(latency_ms), max(latency_ms)
+    FROM new_rows GROUP BY 1, 2 ORDER BY 1, 2
+    ON CONFLICT (bucket_start, action) DO UPDATE
+        SET n = audit_rollup_hourly.n + EXCLUDED.n,
+            fail_n = audit_rollup_hourly.fail_n + EXCLUDED.fail_n,
+            sum_ms = audit_rollup_hourly.sum_ms + EXCLUDED.sum_ms,
+            max_ms = GREATEST(audit_rollup_hourly.max_ms, EXCLUDED.max_ms);
+    RETURN NULL;
+END $$;
+
+CREATE OR REPLACE FUNCTION ops_stats_request_status() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO request_status_count(status, n)
+        SELECT status, count(*) FROM new_rows GROUP BY status ORDER BY status
+        ON CONFLICT (status) DO UPDATE SET n = request_status_count.n + EXCLUDED.n;
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO request_status_count(status, n)
+        SELECT status, sum(d) FROM (
+            SELECT o.status, -1 AS d FROM old_rows o JOIN new_rows nw ON nw.id = o.id WHERE o.status <> nw.status
+            UNION ALL
+            SELECT nw.status, 1 AS d FROM old_rows o JOIN new_rows nw ON nw.id = o.id WHERE o.status <> nw.status
+        ) x
+        GROUP BY status ORDER BY status
+        ON CONFLICT (status) DO UPDATE SET n = request_status_count.n + EXCLUDED.n;
+    ELSE
+        INSERT INTO request_status_count(status, n)
+        SELECT status, -count(*) FROM old_rows GROUP BY status ORDER BY status
+        ON CONFLICT (status) DO UPDATE SET n = request_status_count.n + EXCLUDED.n;
+    END IF;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS ops_stats_audit_ins ON audit_log;
+CREATE TRIGGER ops_stats_audit_ins AFTER INSERT ON audit_log
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_stats_audit_insert();
+
+DROP TRIGGER IF EXISTS ops_stats_request_ins ON work_request;
+CREATE TRIGGER ops_stats_request_ins AFTER INSERT ON work_request
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_stats_request_status();
+
+DROP TRIGGER IF EXISTS ops_stats_request_upd ON work_request;
+CREATE TRIGGER ops_stats_request_upd AFTER UPDATE ON work_request
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_stats_request_status();
+
+DROP TRIGGER IF EXISTS ops_stats_request_del ON work_request;
+CREATE TRIGGER ops_stats_request_del AFTER DELETE ON work_request
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION ops_stats_request_status();
+
+-- 원본 데이터로 전체 재계산 (POST /api/ops/stats/rebuild)
+-- 재계산 중 집계가 어긋나지 않도록 원본 테이블 쓰기를 잠시 막음
+CREATE OR REPLACE FUNCTION rebuild_ops_stats() RETURNS void LANGUAGE plpgsql AS $$
+BEGIN
+    LOCK TABLE work_request, audit_log IN SHARE MODE;
+
+    DELETE FROM request_status_count;
+    INSERT INTO request_status_count(status, n)
+    SELECT status, count(*) FROM work_request GROUP BY status;
+
+    DELETE FROM audit_action_total;
+    INSERT INTO audit_action_total(action, n, fail_n, sum_ms)
+    SELECT action, count(*), count(*) FILTER (WHERE NOT success), sum(latency_ms)
+    FROM audit_log GROUP BY action;
+
+    DELETE FROM audit_latency_hist;
+    INSERT INTO audit_latency_hist(action, le_ms, n)
+    SELECT a.action, b.le_ms, count(*)
+    FROM audit_log a
+    CROSS JOIN LATERAL (SELECT min(le_ms) AS le_ms FROM latency_bucket WHERE le_ms >= a.latency_ms) b
+    GROUP BY a.action, b.le_ms;
+
+    DELETE FROM audit_rollup_hourly;
+    INSERT INTO audit_rollup_hourly(bucket_start, action, n, fail_n, sum_ms, max_ms)
+    SELECT date_trunc('hour', at), action, count(*), count(*) FILTER (WHERE NOT success), sum(latency_ms), max(latency_ms)
+    FROM audit_log GROUP BY 1, 2;
+END $$;
+
+-- 기존 데이터 반영
+SELECT rebuild_ops_stats();
@@ -0,0 +1,4 @@
+-- plan_json: TEXT → jsonb
+-- (기존 값은 모두 ObjectMapper로 직렬화된 JSON이라 그대로 캐스팅 가능. 테이블 rewrite가 일어나므로 트래픽 적을 때 적용)
+ALTER TABLE work_request
+    ALTER COLUMN plan_json TYPE jsonb USING plan_json::jsonb;
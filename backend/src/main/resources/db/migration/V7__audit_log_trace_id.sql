@@ -0,0 +1,4 @@
+-- audit_log → 분산 trace 연결 (W3C trace-id 32자리 hex, span 밖에서 기록된 행은 NULL)
+-- 인덱스는 두지 않음: trace 기준 조회는 오프라인 분석용이고, INSERT 경로 비용을 늘리지 않기 위해
+ALTER TABLE audit_log
+    ADD COLUMN IF NOT EXISTS trace_id TEXT;
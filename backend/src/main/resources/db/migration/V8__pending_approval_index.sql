@@ -0,0 +1,3 @@
+-- 승인 대기함(GET /api/approvals/pending): status='PLANNED' 행만 담는 partial index
+-- 전체 (status, id) 인덱스보다 훨씬 작아서 아침 승인 몰림 때도 메모리에 올라가 있음
+CREATE INDEX IF NOT EXISTS ix_work_request_pending ON work_request(id) WHERE status = 'PLANNED';
@@ -0,0 +1,4 @@
+-- 상태 전이 optimistic lock: 전이(UPDATE)마다 version+1
+-- 조건부 UPDATE(WHERE status = 기대값 [AND version = 읽은 값])의 row count로 동시 전이 중 하나만 성공
+ALTER TABLE work_request
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
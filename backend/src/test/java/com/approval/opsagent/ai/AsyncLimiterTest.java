@@ -0,0 +1,102 @@
+package com.approval.opsagent.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncLimiterTest {
+
+    @Test
+    void startsUpToMaxInFlightAndQueuesTheRest() {
+        AsyncLimiter limiter = new AsyncLimiter(2, 10);
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+        AtomicInteger started = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(limiter.submit(() -> {
+                started.incrementAndGet();
+                CompletableFuture<Integer> call = new CompletableFuture<>();
+                calls.add(call);
+                return call;
+            }));
+        }
+
+        assertThat(started).hasValue(2);
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(limiter.pending()).isEqualTo(1);
+
+        // 하나가 끝나면 대기 중이던 호출이 시작됨
+        calls.get(0).complete(1);
+        assertThat(results.get(0)).isCompletedWithValue(1);
+        assertThat(started).hasValue(3);
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(limiter.pending()).isZero();
+
+        calls.get(1).complete(2);
+        calls.get(2).complete(3);
+        assertThat(results.get(2)).isCompletedWithValue(3);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void rejectsWhenPendingQueueIsFull() {
+        AsyncLimiter limiter = new AsyncLimiter(1, 1);
+        limiter.submit(CompletableFuture::new);
+        limiter.submit(CompletableFuture::new);
+
+        CompletableFuture<Object> rejected = limiter.submit(CompletableFuture::new);
+
+        assertThatThrownBy(rejected::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(limiter.pending()).isEqualTo(1);
+    }
+
+    @Test
+    void releasesPermitWhenCallFailsOrThrows() {
+        AsyncLimiter limiter = new AsyncLimiter(1, 0);
+
+        CompletableFuture<Object> thrown = limiter.submit(() -> { throw new IllegalStateException("boom"); });
+        assertThat(thrown).isCompletedExceptionally();
+        assertThat(limiter.inFlight()).isZero();
+
+        CompletableFuture<Object> failed = limiter.submit(() -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void queuedCallAbandonedByCallerIsNeverStarted() {
+        AsyncLimiter limiter = new AsyncLimiter(1, 10);
+        CompletableFuture<Integer> running = new CompletableFuture<>();
+        limiter.submit(() -> running);
+        AtomicInteger started = new AtomicInteger();
+
+        CompletableFuture<Integer> queued = limiter.submit(() -> {
+            started.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        assertThat(limiter.pending()).isEqualTo(1);
+
+        // orTimeout 처럼 호출자가 대기 중에 포기
+        queued.completeExceptionally(new TimeoutException());
+        assertThat(limiter.pending()).isZero();
+
+        running.complete(1);
+        assertThat(started).hasValue(0);
+        assertThat(limiter.inFlight()).isZero();
+        // permit 이 새지 않음
+        CompletableFuture<Integer> next = limiter.submit(() -> CompletableFuture.completedFuture(2));
+        assertThat(next).isCompletedWithValue(2);
+    }
+}
@@ -0,0 +1,130 @@
+package com.approval.opsagent.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final long LONG_OPEN = TimeUnit.HOURS.toNanos(1);
+
+    /** 실패 기록으로 OPEN 시킨 뒤 openNanos=0 이라 다음 tryAcquire 가 바로 HALF_OPEN */
+    private static CircuitBreaker halfOpen(int halfOpenCalls) {
+        CircuitBreaker b = new CircuitBreaker(4, 2, 0.5, 0, halfOpenCalls);
+        b.record(false);
+        b.record(false);
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        return b;
+    }
+
+    @Test
+    void staysClosedBelowMinCalls() {
+        CircuitBreaker b = new CircuitBreaker(10, 5, 0.5, LONG_OPEN, 1);
+        for (int i = 0; i < 4; i++) b.record(false);
+
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(b.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void opensAtFailureRateAndRejectsWhileOpen() {
+        CircuitBreaker b = new CircuitBreaker(4, 4, 0.5, LONG_OPEN, 1);
+        b.record(true);
+        b.record(true);
+        b.record(false);
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        b.record(false);
+
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(b.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void oldFailuresSlideOutOfWindow() {
+        CircuitBreaker b = new CircuitBreaker(4, 4, 0.75, LONG_OPEN, 1);
+        b.record(false);
+        b.record(false);
+        b.record(true);
+        b.record(true);
+        // 앞의 실패 2건이 밀려나서 실패율이 올라가지 않음
+        b.record(false);
+        b.record(true);
+
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenHandsOutOnlyTrialPermits() {
+        CircuitBreaker b = halfOpen(2);
+
+        assertThat(b.tryAcquire()).isTrue();
+        assertThat(b.tryAcquire()).isTrue();
+        assertThat(b.tryAcquire()).isFalse();
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void closesOnlyAfterAllTrialsSucceed() {
+        CircuitBreaker b = halfOpen(2);
+        b.tryAcquire();
+        b.tryAcquire();
+
+        b.record(true);
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        b.record(true);
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(b.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void closingResetsWindow() {
+        CircuitBreaker b = halfOpen(1);
+        b.tryAcquire();
+        b.record(true);
+
+        // 닫히기 전 실패 2건이 남아 있으면 실패 1건으로 바로 다시 OPEN 됨
+        b.record(false);
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void trialFailureReopens() {
+        CircuitBreaker b = halfOpen(2);
+        b.tryAcquire();
+        b.tryAcquire();
+        b.record(true);
+        b.record(false);
+        // openNanos=0 이라 다시 OPEN 되자마자 HALF_OPEN 으로 보이지만 시험 호출/성공 수는 새로 셈
+        assertThat(b.tryAcquire()).isTrue();
+        assertThat(b.tryAcquire()).isTrue();
+        assertThat(b.tryAcquire()).isFalse();
+        b.record(true);
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void releaseReturnsTrialPermit() {
+        CircuitBreaker b = halfOpen(1);
+        assertThat(b.tryAcquire()).isTrue();
+        assertThat(b.tryAcquire()).isFalse();
+
+        // 로컬 대기열 초과처럼 결과를 모르는 호출은 시험 횟수에서 빼줌
+        b.release();
+        assertThat(b.tryAcquire()).isTrue();
+        b.record(true);
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void releaseWhileClosedDoesNothing() {
+        CircuitBreaker b = new CircuitBreaker(4, 2, 0.5, LONG_OPEN, 1);
+        assertThat(b.tryAcquire()).isTrue();
+        b.release();
+        b.record(true);
+        b.record(false);
+
+        assertThat(b.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
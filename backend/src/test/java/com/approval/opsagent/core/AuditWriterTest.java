@@ -0,0 +1,111 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.core.model.AuditEntry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AuditWriterTest {
+
+    private WorkRepo repo;
+    private AuditProperties props;
+    private AuditWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(WorkRepo.class);
+        props = new AuditProperties();
+        props.setBatchSize(3);
+        props.setFlushInterval(Duration.ofHours(1));
+        props.setFlushRetryBackoff(Duration.ofMillis(1));
+        props.setSyncActions(Set.of("APPROVE"));
+        writer = new AuditWriter(repo, props, Tracer.NOOP);
+    }
+
+    @Test
+    void queuedEntriesAreWrittenInBatchesOfAtMostBatchSize() {
+        List<Integer> sizes = new ArrayList<>();
+        doAnswer(inv -> { sizes.add(inv.<List<AuditEntry>>getArgument(0).size()); return null; })
+                .when(repo).auditBatch(anyList());
+
+        writer.start();
+        for (int i = 0; i < 7; i++) writer.audit(i, "a", "TOOL", "m", true, 1);
+        writer.stop();
+
+        assertThat(sizes).allMatch(n -> n <= 3);
+        assertThat(sizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(7);
+        assertThat(writer.stats()).containsEntry("written", 7L).containsEntry("dropped", 0L);
+    }
+
+    @Test
+    void syncActionsBypassTheQueue() {
+        writer.start();
+        writer.audit(1, "a", "APPROVE", "m", true, 1);
+
+        verify(repo).audit(eq(1L), eq("a"), eq("APPROVE"), eq("m"), eq(true), eq(1), any());
+        assertThat(writer.stats()).containsEntry("queueDepth", 0);
+        writer.stop();
+        verify(repo, never()).auditBatch(anyList());
+    }
+
+    @Test
+    void failedFlushIsRetriedBeforeDropping() {
+        doThrow(new TransientDataAccessResourceException("down"))
+                .doThrow(new TransientDataAccessResourceException("down"))
+                .doNothing()
+                .when(repo).auditBatch(anyList());
+
+        writer.start();
+        writer.audit(1, "a", "TOOL", "m", true, 1);
+        writer.stop();
+
+        verify(repo, times(3)).auditBatch(anyList());
+        assertThat(writer.stats())
+                .containsEntry("written", 1L)
+                .containsEntry("dropped", 0L)
+                .containsEntry("failedFlushes", 2L);
+    }
+
+    @Test
+    void batchIsDroppedOnlyAfterRetriesAreExhausted() {
+        props.setFlushRetries(2);
+        doThrow(new TransientDataAccessResourceException("down")).when(repo).auditBatch(anyList());
+
+        writer.start();
+        writer.audit(1, "a", "TOOL", "m", true, 1);
+        writer.audit(2, "a", "TOOL", "m", true, 1);
+        writer.stop();
+
+        verify(repo, times(3)).auditBatch(anyList());
+        assertThat(writer.stats()).containsEntry("written", 0L).containsEntry("dropped", 2L);
+    }
+
+    @Test
+    void constraintViolationFallsBackToSingleRowsAndDropsOnlyTheBadOne() {
+        doAnswer(inv -> {
+            List<AuditEntry> entries = inv.getArgument(0);
+            if (entries.stream().anyMatch(e -> e.requestId() == 2)) throw new DataIntegrityViolationException("fk");
+            return null;
+        }).when(repo).auditBatch(anyList());
+
+        writer.start();
+        for (int i = 1; i <= 3; i++) writer.audit(i, "a", "TOOL", "m", true, 1);
+        writer.stop();
+
+        assertThat(writer.stats()).containsEntry("written", 2L).containsEntry("dropped", 1L);
+        verify(repo, never()).audit(anyLong(), anyString(), anyString(), anyString(), anyBoolean(), anyInt(), any());
+    }
+}
@@ -0,0 +1,82 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.core.model.PlanStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanDagTest {
+
+    private static PlanStep step(String id, String... dependsOn) {
+        return new PlanStep(id, "ticket.create", null, dependsOn == null ? null : List.of(dependsOn), null);
+    }
+
+    private static PlanStep legacy(String id) {
+        return new PlanStep(id, "ticket.create", null, null, null);
+    }
+
+    @Test
+    void legacyPlanRunsSequentially() {
+        PlanDag dag = PlanDag.of(List.of(legacy(null), legacy(null), legacy(null)));
+
+        assertThat(dag.steps()).extracting(PlanDag.Step::id).containsExactly("1", "2", "3");
+        assertThat(dag.roots()).extracting(PlanDag.Step::id).containsExactly("1");
+        assertThat(dag.steps().get(2).dependsOn()).containsExactly("2");
+    }
+
+    @Test
+    void stepsWithoutDependsOnAreRootsOnceAnyStepDeclaresIt() {
+        PlanDag dag = PlanDag.of(List.of(step("a"), legacy("b"), step("c", "a", "b")));
+
+        assertThat(dag.roots()).extracting(PlanDag.Step::id).containsExactly("a", "b");
+        assertThat(dag.dependentsOf(dag.steps().get(0))).extracting(PlanDag.Step::id).containsExactly("c");
+    }
+
+    @Test
+    void duplicateIdIsRejected() {
+        assertThatThrownBy(() -> PlanDag.of(List.of(step("a"), step("a"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("중복된 step.id a");
+    }
+
+    @Test
+    void explicitIdCollidingWithPositionalIdIsRejected() {
+        // 두 번째 step 은 id 가 없어서 "2" 가 되는데, 첫 step 이 이미 "2" 를 씀
+        assertThatThrownBy(() -> PlanDag.of(List.of(legacy("2"), legacy(null))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("중복된 step.id 2");
+    }
+
+    @Test
+    void unknownDependencyIsRejected() {
+        assertThatThrownBy(() -> PlanDag.of(List.of(step("a"), step("b", "x"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("dependsOn 대상 없음: x");
+    }
+
+    @Test
+    void cycleIsRejected() {
+        assertThatThrownBy(() -> PlanDag.of(List.of(step("a"), step("b", "a", "c"), step("c", "b"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("순환 참조");
+    }
+
+    @Test
+    void selfDependencyIsRejected() {
+        assertThatThrownBy(() -> PlanDag.of(List.of(step("a", "a"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("순환 참조");
+    }
+
+    @Test
+    void nullStepsAreRejected() {
+        assertThatThrownBy(() -> PlanDag.of(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PlanDag.of(Arrays.asList(step("a"), null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("빈 step");
+    }
+}
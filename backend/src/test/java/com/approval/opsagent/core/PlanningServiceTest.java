@@ -0,0 +1,120 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.ai.AiServiceClient;
+import com.approval.opsagent.ai.AiUnavailableException;
+import com.approval.opsagent.config.JacksonConfig;
+import com.approval.opsagent.core.model.BatchPlanResult;
+import com.approval.opsagent.core.model.Plan;
+import com.approval.opsagent.core.model.RequestStatus;
+import com.approval.opsagent.core.model.WorkRequest;
+import com.approval.opsagent.core.tools.TicketCreateManyTool;
+import com.approval.opsagent.core.tools.WikiCreatePageTool;
+import com.approval.opsagent.plan.LocalPlanProperties;
+import com.approval.opsagent.plan.Planner;
+import com.approval.opsagent.plan.SimplePlanGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PlanningServiceTest {
+
+    private final ObjectMapper om = JacksonConfig.newObjectMapper();
+    private WorkRepo repo;
+    private AiServiceClient ai;
+    private AuditWriter audit;
+    private PlanningService planning;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repo = mock(WorkRepo.class);
+        ai = mock(AiServiceClient.class);
+        audit = mock(AuditWriter.class);
+
+        SimplePlanGenerator generator = new SimplePlanGenerator(om);
+        Plan rulePlan = om.readValue(generator.makePlanJson("rule", "안전점검 티켓 3개"), Plan.class);
+        // title 이 "rule" 인 요청만 규칙으로 계획
+        Planner rules = new Planner() {
+            @Override public String name() { return "rules"; }
+            @Override public Optional<Result> plan(String title, String inputText) {
+                return "rule".equals(title) ? Optional.of(new Result("r1", rulePlan, 1.0)) : Optional.empty();
+            }
+        };
+
+        PlanCacheProperties cacheProps = new PlanCacheProperties();
+        cacheProps.setEnabled(false);
+        ToolRegistry registry = new ToolRegistry(List.of(new TicketCreateManyTool(repo), new WikiCreatePageTool(repo)),
+                new ToolProperties(), new SimpleMeterRegistry(), Tracer.NOOP);
+        planning = new PlanningService(repo, generator, ai, new PlanCache(cacheProps, mock(PlanCacheRepo.class), om),
+                audit, om, new SimpleMeterRegistry(), Tracer.NOOP, new PlanBatchProperties(), List.of(rules), new LocalPlanProperties(),
+                new PlanFallbackProperties(), registry, new PlanAsyncProperties());
+
+        when(repo.savePlans(anyMap())).thenAnswer(inv -> new ArrayList<>(inv.<Map<Long, String>>getArgument(0).keySet()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        planning.destroy();
+    }
+
+    private static WorkRequest draft(long id, String title) {
+        return new WorkRequest(id, "u", title, "안전점검 티켓 3개", RequestStatus.DRAFT,
+                null, null, null, null, null, null, null, 0);
+    }
+
+    @Test
+    void batchAuditsEachSourceLikeSinglePlan() {
+        when(repo.findAll(anyList())).thenReturn(List.of(draft(1, "rule"), draft(2, "ai"), draft(3, "ai")));
+        when(ai.createPlanAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new AiUnavailableException("/plan", "circuit_open", null)));
+
+        BatchPlanResult r = planning.planAll("u", List.of(1L, 2L, 3L));
+
+        assertThat(r.results()).extracting(BatchPlanResult.Item::source)
+                .containsExactly("rules", "fallback:circuit_open", "fallback:circuit_open");
+        verify(audit).auditAll(eq(List.of(1L)), eq("u"), eq("PLAN"), eq("plan created (rules)"), eq(true), anyInt());
+        verify(audit).auditAll(eq(List.of(2L, 3L)), eq("u"), eq("PLAN"), eq("plan created (fallback:circuit_open)"), eq(true), anyInt());
+        verify(audit, never()).auditAll(anyList(), anyString(), anyString(), eq("plan created (batch)"), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void nonBrownoutAiFailureIsNotAudited() {
+        when(repo.findAll(anyList())).thenReturn(List.of(draft(1, "ai")));
+        when(ai.createPlanAsync(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("HTTP 400")));
+
+        BatchPlanResult r = planning.planAll("u", List.of(1L));
+
+        assertThat(r.results().get(0).outcome()).isEqualTo("FAILED");
+        verify(audit, never()).auditAll(anyList(), anyString(), anyString(), anyString(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void validatePlanRejectsTicketCountOutOfRange() throws Exception {
+        Plan plan = om.readValue("""
+                {"steps":[{"id":"1","tool":"ticket.createMany","args":{"count":-1,"titlePrefix":"점검"}}]}
+                """, Plan.class);
+
+        assertThatThrownBy(() -> PlanningService.validatePlan(plan, Set.of("ticket.createMany")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("count=-1");
+    }
+}
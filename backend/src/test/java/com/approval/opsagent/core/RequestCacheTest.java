@@ -0,0 +1,92 @@
+package com.approval.opsagent.core;
+
+import com.approval.opsagent.core.model.RequestStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCacheTest {
+
+    private RequestCacheProperties props;
+    private RequestCache cache;
+
+    @BeforeEach
+    void setUp() {
+        props = new RequestCacheProperties();
+        props.setCrossNode(false);
+        cache = new RequestCache(props);
+    }
+
+    @Test
+    void onlyFinalStatusesAreCacheable() {
+        assertThat(RequestCache.cacheable(RequestStatus.DONE)).isTrue();
+        assertThat(RequestCache.cacheable(RequestStatus.REJECTED)).isTrue();
+        // resume 으로 다시 EXECUTING 이 될 수 있음
+        assertThat(RequestCache.cacheable(RequestStatus.FAILED)).isFalse();
+        assertThat(RequestCache.cacheable(RequestStatus.EXECUTING)).isFalse();
+    }
+
+    @Test
+    void putWithCurrentStampIsCached() {
+        long stamp = cache.stamp(1);
+        cache.put(1, RequestCache.Kind.DETAIL, "v", 10, stamp);
+
+        assertThat(cache.<String>get(1, RequestCache.Kind.DETAIL)).isEqualTo("v");
+        assertThat(cache.knownTerminal(1)).isTrue();
+    }
+
+    @Test
+    void putIsDroppedWhenInvalidatedWhileReading() {
+        long stamp = cache.stamp(1);
+        cache.invalidate(1); // DB 를 읽는 사이 쓰기가 끝남
+        cache.put(1, RequestCache.Kind.DETAIL, "stale", 10, stamp);
+
+        assertThat(cache.<String>get(1, RequestCache.Kind.DETAIL)).isNull();
+        assertThat(cache.knownTerminal(1)).isFalse();
+    }
+
+    @Test
+    void invalidateRemovesEveryKindOfThatRequestOnly() {
+        cache.put(1, RequestCache.Kind.REQUEST, "r1", 10, cache.stamp(1));
+        cache.put(1, RequestCache.Kind.TICKETS, "t1", 10, cache.stamp(1));
+        cache.put(2, RequestCache.Kind.REQUEST, "r2", 10, cache.stamp(2));
+
+        cache.invalidate(1);
+
+        assertThat(cache.<String>get(1, RequestCache.Kind.REQUEST)).isNull();
+        assertThat(cache.<String>get(1, RequestCache.Kind.TICKETS)).isNull();
+        assertThat(cache.<String>get(2, RequestCache.Kind.REQUEST)).isEqualTo("r2");
+    }
+
+    @Test
+    void clearInvalidatesOutstandingStamps() {
+        long stamp = cache.stamp(3);
+        cache.clear();
+        cache.put(3, RequestCache.Kind.REQUEST, "stale", 10, stamp);
+
+        assertThat(cache.<String>get(3, RequestCache.Kind.REQUEST)).isNull();
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedOverMaxEntries() {
+        props.setMaxEntries(2);
+        cache.put(1, RequestCache.Kind.REQUEST, "a", 10, cache.stamp(1));
+        cache.put(2, RequestCache.Kind.REQUEST, "b", 10, cache.stamp(2));
+        cache.get(1, RequestCache.Kind.REQUEST); // 1 을 최근 사용으로
+        cache.put(3, RequestCache.Kind.REQUEST, "c", 10, cache.stamp(3));
+
+        assertThat(cache.<String>get(2, RequestCache.Kind.REQUEST)).isNull();
+        assertThat(cache.<String>get(1, RequestCache.Kind.REQUEST)).isEqualTo("a");
+        assertThat(cache.<String>get(3, RequestCache.Kind.REQUEST)).isEqualTo("c");
+        assertThat(cache.stats()).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void disabledCacheNeverStores() {
+        RequestCache off = RequestCache.disabled();
+        off.put(1, RequestCache.Kind.REQUEST, "a", 10, off.stamp(1));
+
+        assertThat(off.<String>get(1, RequestCache.Kind.REQUEST)).isNull();
+    }
+}
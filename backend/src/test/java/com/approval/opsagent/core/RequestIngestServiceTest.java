@@ -0,0 +1,94 @@
+package com.approval.opsagent.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.approval.opsagent.core.RequestIngestService.EOF;
+import static com.approval.opsagent.core.RequestIngestService.OK;
+import static com.approval.opsagent.core.RequestIngestService.TOO_LONG;
+import static com.approval.opsagent.core.RequestIngestService.readLine;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RequestIngestServiceTest {
+
+    private static List<String> lines(String text, int max) throws IOException {
+        StringReader in = new StringReader(text);
+        StringBuilder buf = new StringBuilder();
+        List<String> out = new ArrayList<>();
+        int status;
+        while ((status = readLine(in, buf, max)) != EOF) out.add(status == TOO_LONG ? "<too long>" : buf.toString());
+        return out;
+    }
+
+    @Test
+    void readLineSplitsOnLfAndCrlf() throws IOException {
+        assertThat(lines("a\nbb\r\nccc\n", 10)).containsExactly("a", "bb", "ccc");
+    }
+
+    @Test
+    void readLineReturnsLastLineWithoutTrailingNewline() throws IOException {
+        assertThat(lines("a\nlast", 10)).containsExactly("a", "last");
+        assertThat(lines("only\r", 10)).containsExactly("only");
+    }
+
+    @Test
+    void readLineKeepsBlankLinesAndEndsAtEof() throws IOException {
+        assertThat(lines("a\n\r\n\nb\n", 10)).containsExactly("a", "", "", "b");
+        assertThat(lines("", 10)).isEmpty();
+    }
+
+    @Test
+    void readLineFlagsOverLongLineAndContinuesWithNext() throws IOException {
+        assertThat(lines("12345\n123456\nok\n", 5)).containsExactly("12345", "<too long>", "ok");
+        assertThat(lines("123456", 5)).containsExactly("<too long>");
+    }
+
+    @Test
+    void readLineAcceptsCrlfLineOfExactlyMaxChars() throws IOException {
+        assertThat(lines("12345\r\n", 5)).containsExactly("12345");
+        assertThat(lines("12345\rx\n", 5)).containsExactly("<too long>");
+    }
+
+    @Test
+    void readLineTruncatesBufferToMaxOnOverLongLine() throws IOException {
+        StringBuilder buf = new StringBuilder();
+        assertThat(readLine(new StringReader("abcdefgh\n"), buf, 3)).isEqualTo(TOO_LONG);
+        assertThat(buf).hasToString("abc");
+        assertThat(readLine(new StringReader("abc\n"), buf, 3)).isEqualTo(OK);
+    }
+
+    @Test
+    void resentLinesWithIdempotencyKeyReturnExistingIds() throws IOException {
+        WorkRepo repo = mock(WorkRepo.class);
+        AuditWriter audit = mock(AuditWriter.class);
+        when(repo.createAll(eq("a"), anyList())).thenReturn(List.of(
+                new WorkRepo.Created(10, true),
+                new WorkRepo.Created(11, false)));
+        RequestIngestService ingest = new RequestIngestService(repo, audit, new IngestProperties(), new ObjectMapper());
+
+        StringWriter out = new StringWriter();
+        Map<String, Object> summary = ingest.ingest("a", new StringReader("""
+                {"title":"t1","inputText":"x","idempotencyKey":"k1"}
+                {"title":"t2","body":"y","request_id":"k2"}
+                """), out);
+
+        verify(repo).createAll("a", List.of(
+                new WorkRepo.CreateRequest("t1", "x", "k1"),
+                new WorkRepo.CreateRequest("t2", "y", "k2")));
+        verify(audit).auditAll(eq(List.of(11L)), eq("a"), eq("CREATE"), anyString(), eq(true), anyInt());
+        assertThat(out.toString()).startsWith("""
+                {"line":1,"id":10,"existing":true}
+                {"line":2,"id":11}
+                """);
+        assertThat(summary).containsEntry("accepted", 1).containsEntry("existing", 1).containsEntry("done", true);
+    }
+}
@@ -0,0 +1,159 @@
+package com.approval.opsagent.core;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ToolRegistryTest {
+
+    /** release 될 때까지 막혀 있다가 "ok" */
+    static final class GateTool implements Tool<Object> {
+        final String name;
+        final ToolDescriptor descriptor;
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        GateTool(String name, int maxConcurrency, double ratePerSecond, Duration timeout) {
+            this.name = name;
+            this.descriptor = ToolDescriptor.of(name, Map.of()).withLimits(maxConcurrency, ratePerSecond, timeout);
+        }
+
+        @Override public String name() { return name; }
+        @Override public Class<Object> argsType() { return Object.class; }
+        @Override public ToolDescriptor descriptor() { return descriptor; }
+
+        @Override
+        public Object run(long requestId, String idempotencyKey, Object args) {
+            entered.countDown();
+            try {
+                // interrupt 를 무시하는 JDBC/HTTP 호출처럼
+                while (!release.await(10, TimeUnit.SECONDS)) { }
+            } catch (InterruptedException e) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) { }
+            }
+            return "ok";
+        }
+    }
+
+    private ToolRegistry registry;
+
+    private ToolRegistry registry(ToolProperties props, Tool<?>... tools) {
+        registry = new ToolRegistry(List.of(tools), props, new SimpleMeterRegistry(), Tracer.NOOP);
+        return registry;
+    }
+
+    private static ToolProperties props(Duration acquireTimeout) {
+        ToolProperties p = new ToolProperties();
+        p.setAcquireTimeout(acquireTimeout);
+        return p;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (registry != null) registry.destroy();
+    }
+
+    private static CompletableFuture<Object> async(Runnable r) {
+        return CompletableFuture.runAsync(r).thenApply(v -> null);
+    }
+
+    @Test
+    void bulkheadRejectsWhenAllPermitsAreTaken() throws Exception {
+        GateTool tool = new GateTool("slow", 1, 0, Duration.ofSeconds(10));
+        ToolRegistry reg = registry(props(Duration.ofMillis(50)), tool);
+
+        CompletableFuture<Object> first = async(() -> reg.invoke(tool, 1, "k1", null));
+        assertThat(tool.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> reg.invoke(tool, 1, "k2", null))
+                .isInstanceOfSatisfying(ToolUnavailableException.class, e -> assertThat(e.reason()).isEqualTo("bulkhead"));
+
+        tool.release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void rateLimitRejectsWhenNoTokenWithinAcquireTimeout() {
+        GateTool tool = new GateTool("rated", 4, 1, Duration.ofSeconds(10));
+        tool.release.countDown();
+        ToolRegistry reg = registry(props(Duration.ofMillis(50)), tool);
+
+        assertThat(reg.invoke(tool, 1, "k1", null)).isEqualTo("ok");
+        assertThatThrownBy(() -> reg.invoke(tool, 1, "k2", null))
+                .isInstanceOfSatisfying(ToolUnavailableException.class, e -> assertThat(e.reason()).isEqualTo("rate_limit"));
+    }
+
+    @Test
+    void timeoutFailsFastButKeepsPermitUntilToolReallyEnds() throws Exception {
+        GateTool tool = new GateTool("hang", 1, 0, Duration.ofMillis(50));
+        ToolRegistry reg = registry(props(Duration.ofMillis(50)), tool);
+
+        ToolUnavailableException timeout = null;
+        try {
+            reg.invoke(tool, 1, "k1", null);
+        } catch (ToolUnavailableException e) {
+            timeout = e;
+        }
+        assertThat(timeout).isNotNull();
+        assertThat(timeout.reason()).isEqualTo("timeout");
+        assertThat(timeout.getMessage()).startsWith(ToolUnavailableException.TIMEOUT_PREFIX);
+        assertThat(timeout.lateOutcome()).isNotDone();
+
+        // 멈춘 호출이 아직 자리를 잡고 있음
+        assertThat(reg.stats().get(0)).containsEntry("inFlight", 1);
+        assertThatThrownBy(() -> reg.invoke(tool, 1, "k2", null))
+                .isInstanceOfSatisfying(ToolUnavailableException.class, e -> assertThat(e.reason()).isEqualTo("bulkhead"));
+
+        // 실제로 끝나면 결과가 lateOutcome 으로 오고 자리 반납
+        tool.release.countDown();
+        assertThat(timeout.lateOutcome().get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThat(reg.stats().get(0)).containsEntry("inFlight", 0);
+    }
+
+    @Test
+    void runnerThreadCapRejectsAcrossTools() throws Exception {
+        GateTool a = new GateTool("a", 4, 0, Duration.ofSeconds(10));
+        GateTool b = new GateTool("b", 4, 0, Duration.ofSeconds(10));
+        ToolProperties p = props(Duration.ofMillis(50));
+        p.setRunnerThreads(1);
+        ToolRegistry reg = registry(p, a, b);
+
+        CompletableFuture<Object> first = async(() -> reg.invoke(a, 1, "k1", null));
+        assertThat(a.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> reg.invoke(b, 1, "k2", null))
+                .isInstanceOfSatisfying(ToolUnavailableException.class, e -> assertThat(e.reason()).isEqualTo("runner"));
+
+        a.release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void updateLimitsValidatesAndReportsUnknownTool() {
+        GateTool tool = new GateTool("t", 1, 0, Duration.ofSeconds(1));
+        ToolRegistry reg = registry(props(Duration.ofMillis(50)), tool);
+
+        assertThatThrownBy(() -> reg.updateLimits("t", new ToolProperties.Limits(0, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reg.updateLimits("t", new ToolProperties.Limits(null, null, Duration.ZERO)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(reg.updateLimits("missing", new ToolProperties.Limits(2, null, null))).isEmpty();
+        assertThat(reg.reload("missing")).isEmpty();
+
+        assertThat(reg.updateLimits("t", new ToolProperties.Limits(3, null, null)))
+                .hasValueSatisfying(m -> assertThat(m).containsEntry("maxConcurrency", 3));
+    }
+}
@@ -0,0 +1,63 @@
+package com.approval.opsagent.core.model;
+
+import org.junit.jupiter.api.Test;
+
+import static com.approval.opsagent.core.model.RequestStatus.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestStatusTest {
+
+    @Test
+    void happyPath() {
+        assertThat(DRAFT.canTransitionTo(PLANNED)).isTrue();
+        assertThat(PLANNED.canTransitionTo(APPROVED)).isTrue();
+        assertThat(APPROVED.canTransitionTo(EXECUTING)).isTrue();
+        assertThat(EXECUTING.canTransitionTo(DONE)).isTrue();
+        assertThat(EXECUTING.canTransitionTo(FAILED)).isTrue();
+    }
+
+    @Test
+    void replanAndResume() {
+        assertThat(PLANNED.canTransitionTo(PLANNED)).isTrue();
+        assertThat(REJECTED.canTransitionTo(PLANNED)).isTrue();
+        assertThat(FAILED.canTransitionTo(EXECUTING)).isTrue();
+    }
+
+    @Test
+    void skippingStepsIsNotAllowed() {
+        assertThat(DRAFT.canTransitionTo(APPROVED)).isFalse();
+        assertThat(PLANNED.canTransitionTo(EXECUTING)).isFalse();
+        assertThat(APPROVED.canTransitionTo(DONE)).isFalse();
+        assertThat(REJECTED.canTransitionTo(APPROVED)).isFalse();
+        // 실행이 시작된 뒤에는 재계획 불가
+        assertThat(APPROVED.canTransitionTo(PLANNED)).isFalse();
+        assertThat(FAILED.canTransitionTo(PLANNED)).isFalse();
+    }
+
+    @Test
+    void doneIsTerminal() {
+        assertThat(DONE.next()).isEmpty();
+        for (RequestStatus s : values()) {
+            assertThat(DONE.canTransitionTo(s)).isFalse();
+        }
+    }
+
+    @Test
+    void sourcesOfMatchesCanTransitionTo() {
+        for (RequestStatus target : values()) {
+            for (RequestStatus s : values()) {
+                assertThat(sourcesOf(target).contains(s)).isEqualTo(s.canTransitionTo(target));
+            }
+        }
+        assertThat(sourcesOf(EXECUTING)).containsExactlyInAnyOrder(APPROVED, FAILED);
+        assertThat(sourcesOf(PLANNED)).containsExactlyInAnyOrder(DRAFT, PLANNED, REJECTED);
+        assertThat(sourcesOf(DRAFT)).isEmpty();
+    }
+
+    @Test
+    void nextIsReadOnly() {
+        assertThatThrownBy(() -> PLANNED.next().add(DONE)).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(PLANNED.canTransitionTo(DONE)).isFalse();
+    }
+}
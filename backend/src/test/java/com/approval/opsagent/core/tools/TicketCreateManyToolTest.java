@@ -0,0 +1,49 @@
+package com.approval.opsagent.core.tools;
+
+import com.approval.opsagent.core.WorkRepo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TicketCreateManyToolTest {
+
+    private final WorkRepo repo = mock(WorkRepo.class);
+    private final TicketCreateManyTool tool = new TicketCreateManyTool(repo);
+
+    private static TicketCreateManyArgs count(Integer n) {
+        return new TicketCreateManyArgs(null, null, n, "점검", "내용");
+    }
+
+    @Test
+    void countOutOfRangeIsRejectedBeforeReservingNumbers() {
+        for (int n : new int[] {-1, 0, TicketCreateManyTool.MAX_COUNT + 1}) {
+            assertThatThrownBy(() -> tool.run(1, "1:1", count(n)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("count=" + n);
+        }
+        verify(repo, never()).reserveTicketNumbers(anyLong(), anyInt());
+        verify(repo, never()).insertTickets(anyLong(), anyList());
+    }
+
+    @Test
+    void resumedStepReservesOnlyMissingTickets() {
+        when(repo.existingTicketKeys(anyList())).thenReturn(Set.of("1:1#1"));
+        when(repo.reserveTicketNumbers(1, 2)).thenReturn(10);
+        when(repo.insertTickets(eq(1L), anyList())).thenAnswer(inv -> inv.<List<?>>getArgument(1).size());
+
+        Object r = tool.run(1, "1:1", count(3));
+
+        assertThat(r).isEqualTo(Map.of("created", 2, "skipped", 1));
+        verify(repo).reserveTicketNumbers(1, 2);
+    }
+}
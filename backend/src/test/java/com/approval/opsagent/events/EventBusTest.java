@@ -0,0 +1,114 @@
+package com.approval.opsagent.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class EventBusTest {
+
+    private static final String EVENT = "[{\"type\":\"request\",\"requestId\":1}]";
+
+    private EventProperties props;
+    private EventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        props = new EventProperties();
+        props.setClientQueue(2);
+        props.setSenderThreads(1);
+        bus = new EventBus(null, props, new ObjectMapper(), List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.stop();
+    }
+
+    /** send 가 막혀 있는 동안 complete() 도 같은 lock 을 기다리는 emitter (ResponseBodyEmitter 의 writeLock 과 같음) */
+    static class StuckEmitter extends SseEmitter {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final Object writeLock = new Object();
+        volatile String completedBy;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            synchronized (writeLock) {
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            synchronized (writeLock) {
+                completedBy = Thread.currentThread().getName();
+                completed.countDown();
+            }
+        }
+    }
+
+    @Test
+    void overflowDoesNotBlockPublisherOnStuckSend() throws Exception {
+        StuckEmitter emitter = new StuckEmitter();
+        bus.subscribe(emitter, null, null);
+        assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 큐 2개 + 넘침 → publish 스레드(LISTEN)는 막히면 안 됨
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            for (int i = 0; i < 3; i++) bus.publish(EVENT);
+        });
+        assertThat(bus.stats()).containsEntry("overflows", 1L).containsEntry("subscribers", 0);
+        assertThat(emitter.completed.getCount()).isEqualTo(1);
+
+        emitter.release.countDown();
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.completedBy).startsWith("events-sender-");
+    }
+
+    @Test
+    void stuckSendIsEvictedAndFinishedWhenItUnblocks() throws Exception {
+        props.setSendTimeout(Duration.ZERO);
+        StuckEmitter emitter = new StuckEmitter();
+        bus.subscribe(emitter, null, null);
+        assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        bus.evictStuckSenders();
+        assertThat(bus.stats()).containsEntry("sendTimeouts", 1L)
+                .containsEntry("subscribers", 0)
+                .containsEntry("senderThreads", 2);
+
+        emitter.release.countDown();
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (!Integer.valueOf(1).equals(bus.stats().get("senderThreads"))) Thread.sleep(10);
+        });
+    }
+
+    @Test
+    void stopDoesNotWaitForStuckSend() throws Exception {
+        StuckEmitter emitter = new StuckEmitter();
+        bus.subscribe(emitter, null, null);
+        assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> bus.stop());
+        emitter.release.countDown();
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
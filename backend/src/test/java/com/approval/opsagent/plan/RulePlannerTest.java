@@ -0,0 +1,106 @@
+package com.approval.opsagent.plan;
+
+import com.approval.opsagent.config.JacksonConfig;
+import com.approval.opsagent.core.model.PlanStep;
+import com.approval.opsagent.core.tools.TicketCreateManyTool;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RulePlannerTest {
+
+    private static LocalPlanProperties.Rule rule(String name, String pattern, double confidence, double withoutCount) {
+        LocalPlanProperties.Rule r = new LocalPlanProperties.Rule();
+        r.setName(name);
+        r.setPattern(pattern);
+        r.setConfidence(confidence);
+        r.setConfidenceWithoutCount(withoutCount);
+        r.setTicketTitlePrefix("{title}");
+        r.setWikiTitle("{title} 요약");
+        r.setWikiBody("티켓 {count}개");
+        return r;
+    }
+
+    private static RulePlanner planner(LocalPlanProperties.Rule... rules) {
+        LocalPlanProperties props = new LocalPlanProperties();
+        props.setRules(List.of(rules));
+        return new RulePlanner(props, JacksonConfig.newObjectMapper());
+    }
+
+    private static int ticketCount(Planner.Result r) {
+        PlanStep tickets = r.plan().steps().get(0);
+        assertThat(tickets.tool()).isEqualTo(TicketCreateManyTool.NAME);
+        return tickets.args().get("count").asInt();
+    }
+
+    @Test
+    void ruleMatchesAcrossTitleAndBody() {
+        RulePlanner p = planner(rule("safety", "안전\\s*점검.*티켓", 0.95, 0.6));
+
+        // 제목에 "안전점검", 본문에 "티켓" (본문 안에도 줄바꿈)
+        Optional<Planner.Result> r = p.plan("이번 주 안전점검", "현장 A\n티켓 3개 만들어줘");
+
+        assertThat(r).isPresent();
+        assertThat(r.get().rule()).isEqualTo("safety");
+        assertThat(r.get().confidence()).isEqualTo(0.95);
+        assertThat(ticketCount(r.get())).isEqualTo(3);
+        assertThat(r.get().plan().steps()).extracting(PlanStep::dependsOn).containsExactly(List.of(), List.of("1"));
+    }
+
+    @Test
+    void noMatchingRuleGivesEmpty() {
+        RulePlanner p = planner(rule("safety", "안전\\s*점검.*티켓", 0.95, 0.6));
+
+        assertThat(p.plan("배포", "롤백 문서 작성")).isEmpty();
+    }
+
+    @Test
+    void missingCountUsesDefaultWithLowerConfidence() {
+        LocalPlanProperties.Rule r = rule("safety", "안전\\s*점검", 0.95, 0.6);
+        r.setDefaultCount(4);
+
+        Planner.Result res = planner(r).plan("안전점검", "티켓 좀 만들어줘").orElseThrow();
+
+        assertThat(res.confidence()).isEqualTo(0.6);
+        assertThat(ticketCount(res)).isEqualTo(4);
+    }
+
+    @Test
+    void highestConfidenceWinsAndTieKeepsFirstDeclared() {
+        LocalPlanProperties.Rule generic = rule("generic", "티켓", 0.7, 0.7);
+        LocalPlanProperties.Rule safety = rule("safety", "안전\\s*점검", 0.95, 0.6);
+        LocalPlanProperties.Rule same = rule("same", "티켓", 0.7, 0.7);
+
+        assertThat(planner(generic, safety).plan("안전점검", "티켓 2개").orElseThrow().rule()).isEqualTo("safety");
+        // 개수가 없으면 safety 는 0.6 → generic(0.7) 이 이김
+        assertThat(planner(generic, safety).plan("안전점검", "티켓").orElseThrow().rule()).isEqualTo("generic");
+        assertThat(planner(generic, same).plan("t", "티켓 2개").orElseThrow().rule()).isEqualTo("generic");
+        assertThat(planner(same, generic).plan("t", "티켓 2개").orElseThrow().rule()).isEqualTo("same");
+    }
+
+    @Test
+    void countIsClampedToRuleMaxAndToolLimit() {
+        LocalPlanProperties.Rule r = rule("safety", "티켓", 0.95, 0.6);
+        r.setMaxCount(10);
+        assertThat(ticketCount(planner(r).plan("t", "티켓 30개").orElseThrow())).isEqualTo(10);
+        assertThat(ticketCount(planner(r).plan("t", "티켓 0개").orElseThrow())).isEqualTo(1);
+
+        r.setMaxCount(1000);
+        assertThat(ticketCount(planner(r).plan("t", "티켓 999개").orElseThrow())).isEqualTo(TicketCreateManyTool.MAX_COUNT);
+        // int 범위를 넘는 숫자는 개수 없음으로 취급
+        Planner.Result overflow = planner(r).plan("t", "티켓 99999999999개").orElseThrow();
+        assertThat(overflow.confidence()).isEqualTo(0.6);
+        assertThat(ticketCount(overflow)).isEqualTo(5);
+    }
+
+    @Test
+    void blankPatternIsRejectedAtStartup() {
+        assertThatThrownBy(() -> planner(rule("bad", " ", 0.9, 0.5)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("rule=bad");
+    }
+}
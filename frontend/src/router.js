@@ -2,6 +2,7 @@ import { createRouter, createWebHistory } from "vue-router";
 import Login from "./components/Login.vue";
 import Requests from "./components/Requests.vue";
 import RequestDetail from "./components/RequestDetail.vue";
+import Approvals from "./components/Approvals.vue";
 import { getToken } from "./services/auth";
 
 const routes = [
@@ -9,6 +10,7 @@ const routes = [
     { path: "/login", component: Login },
     { path: "/requests", component: Requests, meta: {requiredAuth: false } },
     { path: "/requests/:id", component: RequestDetail, meta: {requiredAuth: false } },
+    { path: "/approvals", component: Approvals, meta: {requiredAuth: false } },
 ];
 
 const router = createRouter({
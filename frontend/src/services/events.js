@@ -0,0 +1,30 @@
+// 변경 이벤트 feed (GET /api/events, SSE)
+// - 끊기면 EventSource 가 Last-Event-ID 로 자동 재접속해서 놓친 이벤트부터 이어받음
+// - 서버가 이어줄 수 없으면 "reset" → onReset 에서 전체 다시 조회
+const TYPES = ["request.created", "request.status", "audit", "ticket.created", "wiki.created"];
+
+export function subscribeEvents({ requestId, onEvent, onReset } = {}) {
+    const url = requestId ? `/api/events?requestId=${requestId}` : "/api/events";
+    const es = new EventSource(url);
+
+    const handle = (e) => {
+        try {
+            onEvent?.(JSON.parse(e.data));
+        } catch {
+            // 무시
+        }
+    };
+    TYPES.forEach((t) => es.addEventListener(t, handle));
+    es.addEventListener("reset", () => onReset?.());
+
+    return () => es.close();
+}
+
+// 이벤트가 몰려올 때 재조회를 한 번으로 묶음
+export function debounce(fn, ms = 300) {
+    let timer = null;
+    return (...args) => {
+        clearTimeout(timer);
+        timer = setTimeout(() => fn(...args), ms);
+    };
+}